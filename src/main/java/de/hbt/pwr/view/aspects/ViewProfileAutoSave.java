@@ -18,6 +18,7 @@ import java.lang.annotation.Target;
  *         <li>The method is public</li>
  *         <li>The method's first parameter is named <code>viewProfile</code> and is of type {@link ViewProfile}</li>
  *         <li>The <code>viewProfile</code> is not null</li>
+ *         <li>The method is not invoked within {@link ViewProfileAutoSaveAspect#withoutAutoSave}</li>
  *     </ul>
  * </p>
  * @author nt (nt@hbt.de)
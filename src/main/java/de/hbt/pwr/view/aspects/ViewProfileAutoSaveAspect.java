@@ -2,6 +2,7 @@ package de.hbt.pwr.view.aspects;
 
 import de.hbt.pwr.view.model.ViewProfile;
 import de.hbt.pwr.view.repo.ViewProfileRepository;
+import de.hbt.pwr.view.service.ViewProfileChangeBroadcaster;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.aspectj.lang.JoinPoint;
@@ -11,6 +12,8 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.function.Supplier;
+
 
 /**
  * @see ViewProfileAutoSave
@@ -22,11 +25,35 @@ public class ViewProfileAutoSaveAspect {
 
     private static final Logger LOG  = LogManager.getLogger(ViewProfileAutoSave.class);
 
+    /**
+     * Set while {@link #withoutAutoSave(Supplier)} runs on the current thread
+     */
+    private static final ThreadLocal<Boolean> SUSPENDED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
     private final ViewProfileRepository viewProfileRepository;
 
+    private final ViewProfileChangeBroadcaster viewProfileChangeBroadcaster;
+
     @Autowired
-    public ViewProfileAutoSaveAspect(ViewProfileRepository viewProfileRepository) {
+    public ViewProfileAutoSaveAspect(ViewProfileRepository viewProfileRepository,
+                                     ViewProfileChangeBroadcaster viewProfileChangeBroadcaster) {
         this.viewProfileRepository = viewProfileRepository;
+        this.viewProfileChangeBroadcaster = viewProfileChangeBroadcaster;
+    }
+
+    /**
+     * Runs <code>operations</code> without auto saving on the current thread, so several operations can be applied
+     * to a {@link ViewProfile} and saved once by the caller. Nested calls keep auto save suspended until the
+     * outermost one returns.
+     */
+    public static <T> T withoutAutoSave(Supplier<T> operations) {
+        boolean suspended = SUSPENDED.get();
+        SUSPENDED.set(Boolean.TRUE);
+        try {
+            return operations.get();
+        } finally {
+            SUSPENDED.set(suspended);
+        }
     }
 
     /**
@@ -43,14 +70,22 @@ public class ViewProfileAutoSaveAspect {
     private void isPublicOperation() {/* Empty because it merely defines the pointcut and the annotation needs a target */} //NOSONAR
 
     /**
-     * Advice triggered when auto save of {@link ViewProfile} is supposed to happen.
+     * Advice triggered when auto save of {@link ViewProfile} is supposed to happen. Only the parts of the
+     * {@link ViewProfile} that were changed by the operation are written. If anything was written, the change is
+     * published under the name of the operation, see {@link ViewProfileChangeBroadcaster}.
      */
     @After("isAutoSave() && isPublicOperation() && args(viewProfile,..)")
     private void anyViewProfileSavable(JoinPoint joinPoint, ViewProfile viewProfile) { //NOSONAR
         LOG.debug(ViewProfileAutoSaveAspect.class + " invoked after " + joinPoint.getSignature().toString() + ". Performing auto-save...");
-        if(viewProfile != null) {
-            viewProfileRepository.save(viewProfile);
-            LOG.debug("...done.");
+        if (SUSPENDED.get()) {
+            LOG.debug("...skipped because auto-save is suspended.");
+        } else if(viewProfile != null) {
+            if (viewProfileRepository.saveChanges(viewProfile)) {
+                viewProfileChangeBroadcaster.publish(viewProfile, joinPoint.getSignature().getName());
+                LOG.debug("...done.");
+            } else {
+                LOG.debug("...skipped because nothing changed.");
+            }
         } else {
             LOG.debug("...failed because param was null.");
         }
@@ -0,0 +1,72 @@
+package de.hbt.pwr.view.aspects;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.exception.ViewProfileNotFoundException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-applies operations annotated with {@link ViewProfileRetryOnConflict} when their auto save failed because
+ * the {@link ViewProfile} was changed concurrently. Before each retry, the passed {@link ViewProfile} is refreshed
+ * in place with the current state, so callers see the result of the successful attempt.
+ * <p>
+ *     Runs around the {@link ViewProfileAutoSaveAspect}, so each attempt includes the save. Once the attempts are
+ *     used up, the last {@link ViewProfileConflictException} is thrown. It is thrown right away if the
+ *     {@link ViewProfile#hasPinnedVersion() version is pinned}.
+ * </p>
+ * @see ViewProfileRetryOnConflict
+ */
+@Aspect
+@Component
+// Wraps the ViewProfileAutoSaveAspect, which has the lowest precedence
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ViewProfileConflictRetryAspect {
+
+    private static final Logger LOG = LogManager.getLogger(ViewProfileConflictRetryAspect.class);
+
+    private final ViewProfileRepository viewProfileRepository;
+
+    private final int maxAttempts;
+
+    public ViewProfileConflictRetryAspect(ViewProfileRepository viewProfileRepository,
+                                          @Value("${power.view.conflict.max-attempts:3}") int maxAttempts) {
+        this.viewProfileRepository = viewProfileRepository;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @SuppressWarnings("unused")
+    @Pointcut("@annotation(ViewProfileRetryOnConflict)")
+    private void isRetryable() {/* Empty because it merely defines the pointcut and the annotation needs a target */} //NOSONAR
+
+    @SuppressWarnings("unused")
+    @Pointcut("execution(public * *(..))")
+    private void isPublicOperation() {/* Empty because it merely defines the pointcut and the annotation needs a target */} //NOSONAR
+
+    @Around("isRetryable() && isPublicOperation() && args(viewProfile,..)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint, ViewProfile viewProfile) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ViewProfileConflictException e) {
+                if (viewProfile == null || viewProfile.hasPinnedVersion() || attempt >= maxAttempts) {
+                    throw e;
+                }
+                LOG.debug("Conflict in " + joinPoint.getSignature() + " on attempt " + attempt + ", retrying on version "
+                        + e.getCurrentVersion());
+                String id = viewProfile.getId();
+                viewProfile.refreshFrom(viewProfileRepository.findById(id)
+                        .orElseThrow(() -> new ViewProfileNotFoundException(id)));
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package de.hbt.pwr.view.aspects;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an auto saved operation as safe to re-apply on the current state of a {@link ViewProfile} when saving
+ * failed with a {@link ViewProfileConflictException}. Is closely coupled with the
+ * {@link ViewProfileConflictRetryAspect}.
+ * <p>
+ *     Only idempotent operations that do not address entries by their position qualify, as a concurrent
+ *     move may have changed which entry is found at a position.
+ * </p>
+ * @see ViewProfileAutoSave
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ViewProfileRetryOnConflict {
+}
@@ -0,0 +1,104 @@
+package de.hbt.pwr.view.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP transport shared by the clients of the downstream services.
+ * <p>
+ *     Connections are pooled per host and kept alive between requests, so consecutive calls to the same service
+ *     do not pay for connection setup. The pool is exposed as <code>httpcomponents.httpclient.pool.*</code> metrics
+ *     with the tag <code>httpclient=downstream</code>; pending connections indicate a saturated pool.
+ * </p>
+ * <p>
+ *     Requests made by a call of the {@link RemoteCallExecutor} are aborted once that call misses its deadline, which
+ *     closes their connection. The read timeout applies to each single read, so for those calls the shorter deadline
+ *     of the executor wins.
+ * </p>
+ */
+@Configuration
+public class DownstreamHttpConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager downstreamConnectionManager(
+            @Value("${power.view.http.max-connections:100}") int maxConnections,
+            @Value("${power.view.http.max-connections-per-host:20}") int maxConnectionsPerHost) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+        // Connections closed by the server while idle are detected before reuse
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient downstreamHttpClient(
+            PoolingHttpClientConnectionManager downstreamConnectionManager,
+            @Value("${power.view.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${power.view.http.read-timeout:60s}") Duration readTimeout,
+            @Value("${power.view.http.pool-timeout:5s}") Duration poolTimeout,
+            @Value("${power.view.http.idle-timeout:30s}") Duration idleTimeout) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) poolTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(downstreamConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public RestTemplate downstreamRestTemplate(CloseableHttpClient downstreamHttpClient) {
+        return new RestTemplate(requestFactory(downstreamHttpClient));
+    }
+
+    /**
+     * Writes request bodies straight to the connection instead of buffering them first, for uploads of files.
+     */
+    @Bean
+    public RestTemplate downstreamStreamingRestTemplate(CloseableHttpClient downstreamHttpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = requestFactory(downstreamHttpClient);
+        requestFactory.setBufferRequestBody(false);
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Creates requests that are aborted with the {@link RemoteCallExecutor} call making them.
+     */
+    private static HttpComponentsClientHttpRequestFactory requestFactory(CloseableHttpClient downstreamHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(downstreamHttpClient) {
+            @Override
+            protected HttpUriRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+                HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+                RemoteCallExecutor.abortWithCurrentCall(request::abort);
+                return request;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder downstreamConnectionPoolMetrics(PoolingHttpClientConnectionManager downstreamConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(downstreamConnectionManager, "downstream");
+    }
+}
@@ -0,0 +1,153 @@
+package de.hbt.pwr.view.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent calls to downstream services concurrently, so a caller waits for the slowest of them instead
+ * of their sum.
+ * <p>
+ *     At most <code>power.view.remote-calls.parallelism</code> calls run at once. If more are submitted, they
+ *     queue up, and once the queue is full the submitting thread runs them itself. Every call has a deadline of
+ *     <code>power.view.remote-calls.timeout</code>, after which waiting for it fails.
+ * </p>
+ * <p>
+ *     A call that misses its deadline or is cancelled is aborted as well: requests it registered with
+ *     {@link #abortWithCurrentCall(Runnable)} are aborted, which the downstream HTTP transport does for every request,
+ *     see {@link DownstreamHttpConfiguration}. This releases the thread and the connection right away. For calls run
+ *     here the deadline therefore wins over the HTTP timeouts, which only bound connecting, waiting for a pooled
+ *     connection and each single read. A call that has not started yet is skipped.
+ * </p>
+ */
+@Component
+public class RemoteCallExecutor {
+
+    /**
+     * Call running on the current thread, if it was submitted here
+     */
+    private static final ThreadLocal<Call> CURRENT_CALL = new ThreadLocal<>();
+
+    private final ExecutorService executor;
+
+    private final Duration timeout;
+
+    public RemoteCallExecutor(@Value("${power.view.remote-calls.parallelism:16}") int parallelism,
+                              @Value("${power.view.remote-calls.timeout:10s}") Duration timeout) {
+        this.timeout = timeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "remote-call-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Starts the call in the background. Its deadline starts now. Cancelling the returned future aborts the call.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> call) {
+        Call remoteCall = new Call();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> remoteCall.run(call), executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((result, e) -> {
+            if (e instanceof TimeoutException || e instanceof CancellationException) {
+                remoteCall.abort();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Registers <code>abort</code> to be run if the call running on the current thread misses its deadline or is
+     * cancelled. Does nothing unless the current thread runs a call submitted to a {@link RemoteCallExecutor}.
+     */
+    public static void abortWithCurrentCall(Runnable abort) {
+        Call call = CURRENT_CALL.get();
+        if (call != null) {
+            call.onAbort(abort);
+        }
+    }
+
+    /**
+     * Waits for a call started with {@link #submit(Supplier)}.
+     *
+     * @param name of the call, for error messages
+     * @return the result of the call
+     * @throws ResourceAccessException if the call did not complete before its deadline
+     * @throws RuntimeException        thrown by the call itself
+     */
+    public <T> T await(CompletableFuture<T> call, String name) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new ResourceAccessException(name + " did not complete within " + timeout);
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class Call {
+        private final List<Runnable> aborts = new ArrayList<>();
+
+        private boolean aborted;
+
+        private <T> T run(Supplier<T> call) {
+            synchronized (this) {
+                if (aborted) {
+                    throw new CancellationException("Call was aborted before it started");
+                }
+            }
+            Call outer = CURRENT_CALL.get();
+            CURRENT_CALL.set(this);
+            try {
+                return call.get();
+            } finally {
+                CURRENT_CALL.set(outer);
+                synchronized (this) {
+                    aborts.clear();
+                }
+            }
+        }
+
+        private void onAbort(Runnable abort) {
+            synchronized (this) {
+                if (!aborted) {
+                    aborts.add(abort);
+                    return;
+                }
+            }
+            abort.run();
+        }
+
+        private void abort() {
+            List<Runnable> toRun;
+            synchronized (this) {
+                aborted = true;
+                toRun = new ArrayList<>(aborts);
+                aborts.clear();
+            }
+            toRun.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package de.hbt.pwr.view.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls to a downstream service: while a call for a key is in flight, further
+ * callers for the same key wait for it and share its result, or its exception, instead of calling again.
+ * <p>
+ *     Only calls that overlap are coalesced, results are not kept once the call completed. Shared results must not
+ *     be modified by callers. Calls are counted as <code>downstream.calls{call, result=executed|coalesced}</code>.
+ * </p>
+ *
+ * @param <K> key identifying identical calls
+ * @param <V> result of a call
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+
+    private final Counter coalesced;
+
+    /**
+     * @param call name of the call, used as tag of the metrics
+     */
+    public SingleFlight(String call, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("downstream.calls").tag("call", call).tag("result", "executed")
+                .description("Calls to downstream services, by whether they were executed or joined a call in flight")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("downstream.calls").tag("call", call).tag("result", "coalesced")
+                .description("Calls to downstream services, by whether they were executed or joined a call in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executes the call, unless a call for the same key is in flight already. Then its result is returned.
+     *
+     * @throws RuntimeException thrown by the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        executed.increment();
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a call in flight", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -3,38 +3,54 @@ package de.hbt.pwr.view.client.files;
 import de.hbt.pwr.view.model.UploadFileResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.core.io.Resource;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
 
+/**
+ * Client for the files of the report service.
+ * <p>
+ *     File contents are streamed in both directions with a fixed size buffer, so neither uploads nor downloads are
+ *     held in memory or spooled to disk by this service.
+ * </p>
+ */
 @Service
 public class FileUploadClient {
 
     @Value("${pwr-report-service-url}")
     private String pwrReportServiceUrl;
     private final RestTemplate restTemplate;
+    private final RestTemplate streamingRestTemplate;
 
-    public FileUploadClient() {
-        restTemplate = new RestTemplate();
+    public FileUploadClient(RestTemplate downstreamRestTemplate, RestTemplate downstreamStreamingRestTemplate) {
+        restTemplate = downstreamRestTemplate;
+        streamingRestTemplate = downstreamStreamingRestTemplate;
     }
 
-    public ResponseEntity<UploadFileResponse> uploadFile(MultipartFile file) {
+    /**
+     * Uploads the file while it is read from <code>content</code>. The stream is not closed.
+     */
+    public ResponseEntity<UploadFileResponse> uploadFile(String filename, InputStream content) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.MULTIPART_FORM_DATA);
         MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-        body.set("file", file.getResource());
-        return restTemplate.exchange(pwrReportServiceUrl + "/file",
+        body.set("file", new NamedInputStreamResource(filename, content));
+        return streamingRestTemplate.exchange(pwrReportServiceUrl + "/file",
                 HttpMethod.POST,
                 new HttpEntity<>(body, headers),
                 new ParameterizedTypeReference<>() {
@@ -52,11 +68,19 @@ public class FileUploadClient {
         );
     }
 
-    public ResponseEntity<Resource> serveFile(String fileId) {
-        return restTemplate.exchange(pwrReportServiceUrl + "/file/{fileId}",
+    /**
+     * Copies the file to the stream opened by <code>sink</code> while it is received.
+     */
+    public void serveFile(String fileId, FileSink sink) {
+        restTemplate.execute(pwrReportServiceUrl + "/file/{fileId}",
                 HttpMethod.GET,
-                new HttpEntity<>(null),
-                Resource.class,
+                null,
+                response -> {
+                    OutputStream out = sink.open(response.getStatusCode(), response.getHeaders());
+                    StreamUtils.copy(response.getBody(), out);
+                    out.flush();
+                    return null;
+                },
                 Map.of("fileId", fileId)
         );
     }
@@ -69,4 +93,39 @@ public class FileUploadClient {
                 Map.of("fileId", fileId)
         );
     }
+
+    /**
+     * Receives a downloaded file.
+     */
+    @FunctionalInterface
+    public interface FileSink {
+        /**
+         * Called once the status and headers of the download are known.
+         *
+         * @return the stream the body is copied to. It is not closed.
+         */
+        OutputStream open(HttpStatus status, HttpHeaders headers) throws IOException;
+    }
+
+    /**
+     * A stream sent as file part. Its length is unknown, so the part is sent without reading it upfront.
+     */
+    private static class NamedInputStreamResource extends InputStreamResource {
+        private final String filename;
+
+        private NamedInputStreamResource(String filename, InputStream content) {
+            super(content);
+            this.filename = filename;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+    }
 }
@@ -1,48 +1,103 @@
 package de.hbt.pwr.view.client.profile;
 
+import de.hbt.pwr.view.client.SingleFlight;
 import de.hbt.pwr.view.client.profile.model.ConsultantInfo;
 import de.hbt.pwr.view.client.profile.model.Profile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class ProfileServiceClient {
 
+    /**
+     * Zone of {@link Profile#getLastEdited()}, which the profile service sends without an offset
+     */
+    static final ZoneId LAST_EDITED_ZONE = ZoneOffset.UTC;
+
     @Value("${pwr-profile-service-url}")
     private String pwrProfileServiceUrl;
 
     private final RestTemplate restTemplate;
 
-    public ProfileServiceClient() {
-        restTemplate = new RestTemplate();
+    private final SingleFlight<String, ResponseEntity<ConsultantInfo>> consultantLookupsInFlight;
+
+    @Autowired
+    public ProfileServiceClient(RestTemplate downstreamRestTemplate,
+                                ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this(downstreamRestTemplate, meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    ProfileServiceClient(RestTemplate restTemplate, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.consultantLookupsInFlight = new SingleFlight<>("consultant-by-initials", meterRegistry);
     }
 
     @GetMapping("/profiles/{initials}")
     public Profile getSingleProfile(@PathVariable("initials") String initials) {
-        return restTemplate.exchange(pwrProfileServiceUrl + "/profiles/{initials}",
+        return fetchProfile(initials, new HttpHeaders());
+    }
+
+    /**
+     * Fetches the profile unless it did not change since the given revision. The request is conditional on
+     * <code>eTag</code> if given, on <code>lastEdited</code> otherwise.
+     *
+     * @return the profile, empty if the profile service reported it as not modified
+     */
+    public Optional<Profile> getSingleProfileIfChanged(String initials, String eTag, LocalDateTime lastEdited) {
+        HttpHeaders headers = new HttpHeaders();
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        } else if (lastEdited != null) {
+            headers.setIfModifiedSince(lastEdited.atZone(LAST_EDITED_ZONE).toInstant().toEpochMilli());
+        }
+        return Optional.ofNullable(fetchProfile(initials, headers));
+    }
+
+    private Profile fetchProfile(String initials, HttpHeaders headers) {
+        ResponseEntity<Profile> response = restTemplate.exchange(pwrProfileServiceUrl + "/profiles/{initials}",
                 HttpMethod.GET,
-                new HttpEntity<>(null),
+                new HttpEntity<>(headers),
                 Profile.class,
                 Map.of("initials", initials)
-        ).getBody();
+        );
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED || response.getBody() == null) {
+            return null;
+        }
+        Profile profile = response.getBody();
+        profile.setETag(response.getHeaders().getETag());
+        return profile;
     }
 
+    /**
+     * Concurrent lookups of the same consultant share one request, so the returned info must not be modified.
+     */
     @GetMapping("/consultants/{initials}")
     public ResponseEntity<ConsultantInfo> findByInitials(@PathVariable("initials") String initials) {
-        return restTemplate.exchange(pwrProfileServiceUrl + "/consultants/{initials}",
+        return consultantLookupsInFlight.execute(initials, () -> restTemplate.exchange(
+                pwrProfileServiceUrl + "/consultants/{initials}",
                 HttpMethod.GET,
                 new HttpEntity<>(null),
                 ConsultantInfo.class,
                 Map.of("initials", initials)
-        );
+        ));
     }
 
 }
@@ -14,9 +14,14 @@ public class Profile {
 
     private String description;
 
-    @JsonIgnore
     private LocalDateTime lastEdited;
 
+    /**
+     * Entity tag the profile service sent with this profile, <code>null</code> if it sent none
+     */
+    @JsonIgnore
+    private String eTag;
+
     private Set<LanguageSkill> languages = new HashSet<>();
 
     private Set<QualificationEntry> qualification = new HashSet<>();
@@ -18,8 +18,8 @@ public class ReportServiceClient {
 
     private final RestTemplate restTemplate;
 
-    public ReportServiceClient() {
-        restTemplate = new RestTemplate();
+    public ReportServiceClient(RestTemplate downstreamRestTemplate) {
+        restTemplate = downstreamRestTemplate;
     }
 
     public ResponseEntity<String> generateReport(ReportInfo reportInfo, String type, Integer charsPerLine) {
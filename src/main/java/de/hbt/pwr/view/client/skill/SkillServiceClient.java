@@ -1,35 +1,298 @@
 package de.hbt.pwr.view.client.skill;
 
+import de.hbt.pwr.view.client.SingleFlight;
 import de.hbt.pwr.view.client.skill.model.SkillServiceSkill;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Map;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static de.hbt.pwr.view.client.skill.model.SkillServiceCategory.other;
 
+/**
+ * Looks up skills in the skill service.
+ * <p>
+ *     Lookups by name are cached, so building a view profile does not ask the skill service once per skill and
+ *     again for every operation on it. Up to <code>power.view.skill-cache.max-size</code> skills are kept, the least
+ *     recently used one is evicted first. Known skills expire after <code>power.view.skill-cache.time-to-live</code>,
+ *     unknown ones after the shorter <code>power.view.skill-cache.negative-time-to-live</code>, so newly created
+ *     skills show up soon. Cached skills are shared between callers and must not be modified.
+ * </p>
+ * <p>
+ *     {@link #getSkillsByName(Collection)} looks up the skills that are not cached concurrently, with at most
+ *     <code>power.view.skill-service.parallelism</code> requests at once. With
+ *     <code>power.view.skill-service.bulk-lookup</code> enabled, it resolves them with one request to the bulk
+ *     endpoint <code>POST /skill/byNames</code> instead, and falls back to the concurrent lookups if the skill
+ *     service rejects that request. The skills in its response are matched to the requested names ignoring case
+ *     and surrounding whitespace, in case the skill service normalizes qualifiers.
+ * </p>
+ * <p>
+ *     Concurrent lookups of the same uncached skill share one request, see {@link SingleFlight}.
+ * </p>
+ */
 @Service
 public class SkillServiceClient {
 
-    @Value("${pwr-skill-service-url}")
-    private String pwrSkillServiceUrl;
+    private static final Logger LOG = LogManager.getLogger(SkillServiceClient.class);
+
+    private final String pwrSkillServiceUrl;
 
     private final RestTemplate restTemplate;
 
-    public SkillServiceClient() {
-        restTemplate = new RestTemplate();
+    private final long timeToLiveNanos;
+
+    private final long negativeTimeToLiveNanos;
+
+    /**
+     * Skills by qualifier in access order, <code>null</code> skills for qualifiers unknown to the skill service
+     */
+    private final LinkedHashMap<String, Entry> cache;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter expirations;
+
+    private final Counter evictions;
+
+    private final ExecutorService lookupExecutor;
+
+    private final SingleFlight<String, SkillServiceSkill> lookupsInFlight;
+
+    /**
+     * Whether the bulk endpoint is used, cleared once the skill service turned out to have none
+     */
+    private final AtomicBoolean bulkLookupAvailable;
+
+    @Autowired
+    public SkillServiceClient(@Value("${pwr-skill-service-url}") String pwrSkillServiceUrl,
+                              RestTemplate downstreamRestTemplate,
+                              ObjectProvider<MeterRegistry> meterRegistryProvider,
+                              @Value("${power.view.skill-cache.max-size:10000}") int maxSize,
+                              @Value("${power.view.skill-cache.time-to-live:10m}") Duration timeToLive,
+                              @Value("${power.view.skill-cache.negative-time-to-live:1m}") Duration negativeTimeToLive,
+                              @Value("${power.view.skill-service.parallelism:8}") int parallelism,
+                              @Value("${power.view.skill-service.bulk-lookup:false}") boolean bulkLookup) {
+        this(pwrSkillServiceUrl, downstreamRestTemplate, meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry),
+                maxSize, timeToLive, negativeTimeToLive, parallelism, bulkLookup);
     }
 
+    SkillServiceClient(String pwrSkillServiceUrl, RestTemplate restTemplate, MeterRegistry meterRegistry, int maxSize,
+                       Duration timeToLive, Duration negativeTimeToLive, int parallelism, boolean bulkLookup) {
+        this.pwrSkillServiceUrl = pwrSkillServiceUrl;
+        this.bulkLookupAvailable = new AtomicBoolean(bulkLookup);
+        this.restTemplate = restTemplate;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.negativeTimeToLiveNanos = negativeTimeToLive.toNanos();
+        this.hits = Counter.builder("skillservice.cache.requests").tag("result", "hit")
+                .description("Lookups of skills by name, by result in the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("skillservice.cache.requests").tag("result", "miss")
+                .description("Lookups of skills by name, by result in the cache")
+                .register(meterRegistry);
+        this.expirations = Counter.builder("skillservice.cache.evictions").tag("cause", "expired")
+                .description("Skills removed from the cache")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("skillservice.cache.evictions").tag("cause", "size")
+                .description("Skills removed from the cache")
+                .register(meterRegistry);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("skillservice.cache.size", this, SkillServiceClient::cacheSize)
+                .description("Skills held by the cache, including unknown ones")
+                .register(meterRegistry);
+        this.lookupsInFlight = new SingleFlight<>("skill-by-name", meterRegistry);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.lookupExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "skill-service-lookup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+
+    private synchronized int cacheSize() {
+        return cache.size();
+    }
+
+    private synchronized Entry cached(String qualifier) {
+        Entry entry = cache.get(qualifier);
+        if (entry != null && System.nanoTime() - entry.expiresAt >= 0) {
+            cache.remove(qualifier);
+            expirations.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void cache(String qualifier, SkillServiceSkill skill) {
+        long timeToLive = skill != null ? timeToLiveNanos : negativeTimeToLiveNanos;
+        cache.put(qualifier, new Entry(skill, System.nanoTime() + timeToLive));
+    }
+
+    /**
+     * @return the skill with the given qualifier, <code>null</code> if the skill service does not know it
+     */
     public SkillServiceSkill getSkillByName(String qualifier) {
-        return restTemplate.exchange(pwrSkillServiceUrl + "/skill/byName?qualifier={qualifier}",
-                HttpMethod.GET,
-                new HttpEntity<>(null),
-                SkillServiceSkill.class,
-                Map.of("qualifier", qualifier)
-        ).getBody();
+        Entry entry = cached(qualifier);
+        if (entry != null) {
+            hits.increment();
+            return entry.skill;
+        }
+        misses.increment();
+        return lookupsInFlight.execute(qualifier, () -> {
+            SkillServiceSkill skill = fetchSkillByName(qualifier);
+            cache(qualifier, skill);
+            return skill;
+        });
+    }
+
+    /**
+     * Looks up all skills with the given qualifiers, with one request to the skill service for the ones that are
+     * not cached.
+     *
+     * @return the skills by qualifier. Qualifiers unknown to the skill service are mapped to <code>null</code>.
+     */
+    public Map<String, SkillServiceSkill> getSkillsByName(Collection<String> qualifiers) {
+        Map<String, SkillServiceSkill> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String qualifier : qualifiers) {
+            if (result.containsKey(qualifier) || missing.contains(qualifier)) {
+                continue;
+            }
+            Entry entry = cached(qualifier);
+            if (entry != null) {
+                hits.increment();
+                result.put(qualifier, entry.skill);
+            } else {
+                misses.increment();
+                missing.add(qualifier);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<String, SkillServiceSkill> fetched = null;
+        if (bulkLookupAvailable.get()) {
+            fetched = fetchSkillsByName(missing);
+        }
+        if (fetched == null) {
+            fetched = fetchSkillsConcurrently(missing);
+        }
+        fetched.forEach(this::cache);
+        result.putAll(fetched);
+        return result;
+    }
+
+    /**
+     * @return the skills by qualifier, <code>null</code> if the skill service rejected the bulk request
+     */
+    private Map<String, SkillServiceSkill> fetchSkillsByName(Collection<String> qualifiers) {
+        SkillServiceSkill[] skills;
+        try {
+            skills = restTemplate.exchange(pwrSkillServiceUrl + "/skill/byNames",
+                    HttpMethod.POST,
+                    new HttpEntity<>(qualifiers),
+                    SkillServiceSkill[].class
+            ).getBody();
+        } catch (HttpClientErrorException.NotFound | HttpClientErrorException.MethodNotAllowed
+                | HttpServerErrorException.NotImplemented e) {
+            LOG.info("Skill service offers no bulk lookup (" + e.getStatusCode() + "), looking up skills one by one");
+            bulkLookupAvailable.set(false);
+            return null;
+        } catch (HttpClientErrorException e) {
+            LOG.warn("Skill service rejected bulk lookup (" + e.getStatusCode() + "), looking up skills one by one");
+            return null;
+        }
+        Map<String, SkillServiceSkill> byQualifier = new HashMap<>();
+        Map<String, SkillServiceSkill> byNormalizedQualifier = new HashMap<>();
+        if (skills != null) {
+            Arrays.stream(skills)
+                    .filter(skill -> skill != null && skill.getQualifier() != null)
+                    .forEach(skill -> {
+                        byQualifier.putIfAbsent(skill.getQualifier(), skill);
+                        byNormalizedQualifier.putIfAbsent(normalize(skill.getQualifier()), skill);
+                    });
+        }
+        Map<String, SkillServiceSkill> result = new HashMap<>();
+        qualifiers.forEach(qualifier -> result.put(qualifier, byQualifier.containsKey(qualifier)
+                ? byQualifier.get(qualifier)
+                : byNormalizedQualifier.get(normalize(qualifier))));
+        return result;
+    }
+
+    private static String normalize(String qualifier) {
+        return qualifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Map<String, SkillServiceSkill> fetchSkillsConcurrently(Collection<String> qualifiers) {
+        Map<String, Future<SkillServiceSkill>> lookups = new LinkedHashMap<>();
+        qualifiers.forEach(qualifier -> lookups.put(qualifier, lookupExecutor.submit(
+                () -> lookupsInFlight.execute(qualifier, () -> fetchSkillByName(qualifier)))));
+        Map<String, SkillServiceSkill> result = new HashMap<>();
+        try {
+            for (Map.Entry<String, Future<SkillServiceSkill>> lookup : lookups.entrySet()) {
+                result.put(lookup.getKey(), lookup.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up skills", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            lookups.values().forEach(lookup -> lookup.cancel(true));
+        }
+        return result;
+    }
+
+    private SkillServiceSkill fetchSkillByName(String qualifier) {
+        try {
+            return restTemplate.exchange(pwrSkillServiceUrl + "/skill/byName?qualifier={qualifier}",
+                    HttpMethod.GET,
+                    new HttpEntity<>(null),
+                    SkillServiceSkill.class,
+                    Map.of("qualifier", qualifier)
+            ).getBody();
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
     }
 
     public SkillServiceSkill getDefaultSkillByName(String name) {
@@ -40,4 +303,15 @@ public class SkillServiceClient {
         skillServiceSkill.setCategory(other());
         return skillServiceSkill;
     }
+
+    private static class Entry {
+        private final SkillServiceSkill skill;
+
+        private final long expiresAt;
+
+        private Entry(SkillServiceSkill skill, long expiresAt) {
+            this.skill = skill;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -0,0 +1,180 @@
+package de.hbt.pwr.view.client.skill;
+
+import de.hbt.pwr.view.client.skill.model.SkillServiceCategory;
+import de.hbt.pwr.view.client.skill.model.SkillServiceSkill;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds a snapshot of all skills of the skill service and their categories, so resolving the categories of a skill
+ * needs no remote call.
+ * <p>
+ *     The snapshot is refreshed every <code>power.view.skill-tree.refresh-interval</code>. Refreshes are conditional
+ *     on the ETag of the last one, so an unchanged tree is not transferred again. Each snapshot that differs
+ *     from the previous one gets the next version. Skills missing in the snapshot, e.g. because they were created
+ *     since, are looked up with the {@link SkillServiceClient}.
+ * </p>
+ * <p>
+ *     Within a snapshot each category exists once, so all skills of a category share the same parents. Skills and
+ *     categories of a snapshot are shared and must not be modified.
+ * </p>
+ */
+@Component
+public class SkillTree {
+
+    private static final Logger LOG = LogManager.getLogger(SkillTree.class);
+
+    private final String pwrSkillServiceUrl;
+
+    private final RestTemplate restTemplate;
+
+    private final SkillServiceClient skillServiceClient;
+
+    private final ScheduledExecutorService executor;
+
+    private volatile Snapshot snapshot = new Snapshot(0, null, Collections.emptyMap(), Collections.emptyMap());
+
+    public SkillTree(@Value("${pwr-skill-service-url}") String pwrSkillServiceUrl,
+                     RestTemplate downstreamRestTemplate,
+                     SkillServiceClient skillServiceClient,
+                     @Value("${power.view.skill-tree.refresh-interval:5m}") Duration refreshInterval) {
+        this.pwrSkillServiceUrl = pwrSkillServiceUrl;
+        this.restTemplate = downstreamRestTemplate;
+        this.skillServiceClient = skillServiceClient;
+        if (refreshInterval.isZero() || refreshInterval.isNegative()) {
+            this.executor = null;
+        } else {
+            this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "skill-tree-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the skill with the given qualifier, from the snapshot if it contains it. <code>null</code> if the skill
+     * service does not know it.
+     */
+    public SkillServiceSkill getSkillByName(String qualifier) {
+        SkillServiceSkill skill = snapshot.skillsByQualifier.get(qualifier);
+        return skill != null ? skill : skillServiceClient.getSkillByName(qualifier);
+    }
+
+    /**
+     * @return the category with the given id, if the snapshot contains it
+     */
+    public SkillServiceCategory getCategoryById(Integer id) {
+        return snapshot.categoriesById.get(id);
+    }
+
+    /**
+     * @return version of the current snapshot, 0 if there is none yet
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (HttpClientErrorException.NotFound e) {
+            LOG.warn("Skill service offers no skill tree, looking up skills one by one");
+            shutdown();
+        } catch (RestClientException e) {
+            LOG.warn("Could not refresh skill tree, keeping version " + snapshot.version + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches the skill tree, unless it did not change since the last refresh.
+     */
+    void refresh() {
+        Snapshot current = snapshot;
+        HttpHeaders headers = new HttpHeaders();
+        if (current.eTag != null) {
+            headers.setIfNoneMatch(current.eTag);
+        }
+        ResponseEntity<SkillServiceSkill[]> response = restTemplate.exchange(pwrSkillServiceUrl + "/skill",
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                SkillServiceSkill[].class);
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED || response.getBody() == null) {
+            return;
+        }
+        Map<String, SkillServiceSkill> skillsByQualifier = new HashMap<>();
+        Map<Integer, SkillServiceCategory> categoriesById = new HashMap<>();
+        for (SkillServiceSkill skill : response.getBody()) {
+            skill.setCategory(deduplicate(skill.getCategory(), categoriesById));
+            skillsByQualifier.put(skill.getQualifier(), skill);
+        }
+        snapshot = new Snapshot(current.version + 1, response.getHeaders().getETag(),
+                Collections.unmodifiableMap(skillsByQualifier), Collections.unmodifiableMap(categoriesById));
+        LOG.info("Refreshed skill tree to version " + snapshot.version + " with " + skillsByQualifier.size()
+                + " skills in " + categoriesById.size() + " categories");
+    }
+
+    /**
+     * @return the instance of <code>category</code> already known in <code>categoriesById</code>, with deduplicated
+     * parents
+     */
+    private static SkillServiceCategory deduplicate(SkillServiceCategory category,
+                                                    Map<Integer, SkillServiceCategory> categoriesById) {
+        if (category == null) {
+            return null;
+        }
+        if (category.getId() != null && categoriesById.containsKey(category.getId())) {
+            return categoriesById.get(category.getId());
+        }
+        category.setCategory(deduplicate(category.getCategory(), categoriesById));
+        if (category.getId() != null) {
+            categoriesById.put(category.getId(), category);
+        }
+        return category;
+    }
+
+    private static class Snapshot {
+        private final long version;
+
+        private final String eTag;
+
+        private final Map<String, SkillServiceSkill> skillsByQualifier;
+
+        private final Map<Integer, SkillServiceCategory> categoriesById;
+
+        private Snapshot(long version, String eTag, Map<String, SkillServiceSkill> skillsByQualifier,
+                         Map<Integer, SkillServiceCategory> categoriesById) {
+            this.version = version;
+            this.eTag = eTag;
+            this.skillsByQualifier = skillsByQualifier;
+            this.categoriesById = categoriesById;
+        }
+    }
+}
@@ -3,14 +3,16 @@ package de.hbt.pwr.view.controller;
 import de.hbt.pwr.view.client.files.FileUploadClient;
 import de.hbt.pwr.view.model.UploadFileResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 @CrossOrigin
 @RequestMapping("/file")
@@ -19,9 +21,12 @@ public class FileUploadController {
 
     private FileUploadClient fileUploadClient;
 
+    private MultipartStreamReader multipartStreamReader;
+
     @Autowired
-    public FileUploadController(FileUploadClient fileUploadClient) {
+    public FileUploadController(FileUploadClient fileUploadClient, MultipartStreamReader multipartStreamReader) {
         this.fileUploadClient = fileUploadClient;
+        this.multipartStreamReader = multipartStreamReader;
     }
 
     @GetMapping
@@ -31,14 +36,25 @@ public class FileUploadController {
     }
 
     @GetMapping("{fileId}")
-    @ResponseBody
-    public ResponseEntity<Resource> serveFile(@PathVariable String fileId) {
-        return fileUploadClient.serveFile(fileId);
+    public void serveFile(@PathVariable String fileId, HttpServletResponse response) {
+        fileUploadClient.serveFile(fileId, new ServletFileSink(response));
     }
 
+    /**
+     * Passes the multipart part <code>file</code> on to the report service while it is received.
+     */
     @PostMapping
-    public ResponseEntity<UploadFileResponse> uploadFile(@RequestParam("file") MultipartFile file) {
-        return fileUploadClient.uploadFile(file);
-
+    public ResponseEntity<UploadFileResponse> uploadFile(HttpServletRequest request)
+            throws IOException, MissingServletRequestPartException {
+        AtomicReference<ResponseEntity<UploadFileResponse>> response = new AtomicReference<>();
+        multipartStreamReader.read(request, (name, filename, content) -> {
+            if ("file".equals(name)) {
+                response.set(fileUploadClient.uploadFile(filename, content));
+            }
+        });
+        if (response.get() == null) {
+            throw new MissingServletRequestPartException("file");
+        }
+        return response.get();
     }
 }
@@ -0,0 +1,78 @@
+package de.hbt.pwr.view.controller;
+
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.util.Streams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads multipart requests part by part while they are received, instead of storing uploaded files first.
+ * <p>
+ *     Files may have up to <code>power.view.upload.max-file-size</code>, whole requests up to
+ *     <code>power.view.upload.max-request-size</code>.
+ * </p>
+ */
+@Component
+public class MultipartStreamReader {
+
+    private final long maxFileSize;
+
+    private final long maxRequestSize;
+
+    public MultipartStreamReader(@Value("${power.view.upload.max-file-size:128MB}") DataSize maxFileSize,
+                                 @Value("${power.view.upload.max-request-size:128MB}") DataSize maxRequestSize) {
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxRequestSize = maxRequestSize.toBytes();
+    }
+
+    /**
+     * Hands the parts of the request to the handler in the order they were sent. A file part is only readable
+     * during its {@link PartHandler#onFile} call.
+     */
+    void read(HttpServletRequest request, PartHandler handler) throws IOException {
+        if (!ServletFileUpload.isMultipartContent(request)) {
+            throw new MultipartException("Expected a multipart request");
+        }
+        ServletFileUpload upload = new ServletFileUpload();
+        upload.setFileSizeMax(maxFileSize);
+        upload.setSizeMax(maxRequestSize);
+        try {
+            FileItemIterator items = upload.getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemStream item = items.next();
+                try (InputStream content = item.openStream()) {
+                    if (item.isFormField()) {
+                        handler.onField(item.getFieldName(), Streams.asString(content, StandardCharsets.UTF_8.name()));
+                    } else {
+                        handler.onFile(item.getFieldName(), item.getName(), content);
+                    }
+                }
+            }
+        } catch (FileUploadBase.SizeLimitExceededException e) {
+            throw new MaxUploadSizeExceededException(maxRequestSize, e);
+        } catch (FileUploadBase.FileSizeLimitExceededException e) {
+            throw new MaxUploadSizeExceededException(maxFileSize, e);
+        } catch (FileUploadException e) {
+            throw new MultipartException("Could not read multipart request", e);
+        }
+    }
+
+    interface PartHandler {
+        default void onField(String name, String value) {
+        }
+
+        void onFile(String name, String filename, InputStream content) throws IOException;
+    }
+}
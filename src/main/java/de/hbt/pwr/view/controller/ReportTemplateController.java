@@ -10,16 +10,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.support.MissingServletRequestPartException;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static java.util.Optional.ofNullable;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 @Slf4j
@@ -36,12 +42,16 @@ public class ReportTemplateController {
 
     private ReportServiceClient reportServiceClient;
 
+    private MultipartStreamReader multipartStreamReader;
+
     @Autowired
     public ReportTemplateController(ReportTemplateService reportTemplateService,
-                                    FileUploadClient fileUploadClient, ReportServiceClient reportServiceClient) {
+                                    FileUploadClient fileUploadClient, ReportServiceClient reportServiceClient,
+                                    MultipartStreamReader multipartStreamReader) {
         this.reportTemplateService = reportTemplateService;
         this.fileUploadClient = fileUploadClient;
         this.reportServiceClient = reportServiceClient;
+        this.multipartStreamReader = multipartStreamReader;
     }
 
     //---------------
@@ -59,14 +69,42 @@ public class ReportTemplateController {
         return ResponseEntity.ok(reportTemplateService.getTemplate(id));
     }
 
+    /**
+     * Expects the multipart parts <code>file</code> and <code>templateSlice</code>. The file is passed on to the
+     * report service while it is received.
+     */
     @PostMapping
-    public ResponseEntity<ReportTemplate> uploadTemplate(@RequestParam("file") MultipartFile file,
-                                                         @RequestParam("templateSlice") String templateString) {
+    public ResponseEntity<ReportTemplate> uploadTemplate(HttpServletRequest request)
+            throws IOException, MissingServletRequestPartException, MissingServletRequestParameterException {
+        AtomicReference<ResponseEntity<UploadFileResponse>> uploadResponse = new AtomicReference<>();
+        AtomicReference<String> templateString = new AtomicReference<>();
+        multipartStreamReader.read(request, new MultipartStreamReader.PartHandler() {
+            @Override
+            public void onField(String name, String value) {
+                if ("templateSlice".equals(name)) {
+                    templateString.set(value);
+                }
+            }
+
+            @Override
+            public void onFile(String name, String filename, InputStream content) {
+                if ("file".equals(name)) {
+                    uploadResponse.set(fileUploadClient.uploadFile(filename, content));
+                }
+            }
+        });
+        if (templateString.get() == null) {
+            ofNullable(uploadResponse.get()).map(ResponseEntity::getBody).map(UploadFileResponse::getFileId)
+                    .ifPresent(fileUploadClient::deleteFile);
+            throw new MissingServletRequestParameterException("templateSlice", "String");
+        }
+        if (uploadResponse.get() == null) {
+            throw new MissingServletRequestPartException("file");
+        }
         ReportTemplate newTemplate = new ReportTemplate();
         ReportTemplate.ReportTemplateSlice templateSlice =
-                ReportTemplate.ReportTemplateSlice.fromJSON(templateString);
-        ResponseEntity<UploadFileResponse> designFileResponseEntity =
-                fileUploadClient.uploadFile(file);
+                ReportTemplate.ReportTemplateSlice.fromJSON(templateString.get());
+        ResponseEntity<UploadFileResponse> designFileResponseEntity = uploadResponse.get();
 
         if (designFileResponseEntity.getStatusCode() == HttpStatus.OK) {
             UploadFileResponse designFileResponse = designFileResponseEntity.getBody();
@@ -140,18 +178,17 @@ public class ReportTemplateController {
     //---------------
 
     @GetMapping("preview/{id}")
-    public ResponseEntity<Resource> getPreview(@PathVariable String id) throws TemplateNotFoundException {
+    public void getPreview(@PathVariable String id, HttpServletResponse response) throws TemplateNotFoundException {
         ReportTemplate template = reportTemplateService.getTemplate(id);
         if (template != null) {
             String filename = template.getPreviewId();
             if (filename != null && !filename.equals("")) {
-
-                ResponseEntity<Resource> res = fileUploadClient.serveFile(filename);
-                LOG.debug("Preview Received for " + id + " is " + res.getBody().toString());
-                return res;
+                LOG.debug("Streaming preview " + filename + " of template " + id);
+                fileUploadClient.serveFile(filename, new ServletFileSink(response));
+                return;
             }
         }
-        return ResponseEntity.notFound().build();
+        response.setStatus(HttpStatus.NOT_FOUND.value());
     }
 
     @GetMapping("preview")
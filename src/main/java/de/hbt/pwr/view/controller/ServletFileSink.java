@@ -0,0 +1,37 @@
+package de.hbt.pwr.view.controller;
+
+import de.hbt.pwr.view.client.files.FileUploadClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Passes a downloaded file on to the response of the current request.
+ */
+class ServletFileSink implements FileUploadClient.FileSink {
+
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_DISPOSITION, HttpHeaders.LAST_MODIFIED);
+
+    private final HttpServletResponse response;
+
+    ServletFileSink(HttpServletResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    public OutputStream open(HttpStatus status, HttpHeaders headers) throws IOException {
+        response.setStatus(status.value());
+        for (String name : FORWARDED_HEADERS) {
+            String value = headers.getFirst(name);
+            if (value != null) {
+                response.setHeader(name, value);
+            }
+        }
+        return response.getOutputStream();
+    }
+}
@@ -1,27 +1,42 @@
 package de.hbt.pwr.view.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import de.hbt.pwr.view.client.report.ReportServiceClient;
 import de.hbt.pwr.view.client.report.model.ReportInfo;
 import de.hbt.pwr.view.exception.ServiceError;
+import de.hbt.pwr.view.model.MigrationProgress;
+import de.hbt.pwr.view.model.ReportJob;
 import de.hbt.pwr.view.model.ReportTemplate;
 import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileChange;
 import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import de.hbt.pwr.view.service.ReportJobService;
 import de.hbt.pwr.view.service.ReportTemplateService;
+import de.hbt.pwr.view.service.ViewProfileChangeBroadcaster;
 import de.hbt.pwr.view.service.ViewProfileCreatorService;
+import de.hbt.pwr.view.service.ViewProfileJsonCache;
 import de.hbt.pwr.view.service.ViewProfileMergeService;
+import de.hbt.pwr.view.service.ViewProfileMigrationService;
 import de.hbt.pwr.view.service.ViewProfileOperationService;
+import de.hbt.pwr.view.service.ViewProfilePatchService;
 import io.swagger.annotations.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import static java.util.Optional.ofNullable;
 
@@ -71,18 +86,38 @@ public class ViewProfileController {
 
     private final ViewProfileCreatorService viewProfileCreatorService;
 
+    private final ViewProfileMigrationService viewProfileMigrationService;
+
+    private final ReportJobService reportJobService;
+
+    private final ViewProfilePatchService viewProfilePatchService;
+
+    private final ViewProfileJsonCache viewProfileJsonCache;
+
+    private final ViewProfileChangeBroadcaster viewProfileChangeBroadcaster;
+
     //private static final Logger LOG = Logger.getLogger(ViewProfileController.class);
 
     @Autowired
     public ViewProfileController(ViewProfileOperationService viewProfileService,
                                  ReportServiceClient reportServiceClient, ReportTemplateService reportTemplateService,
                                  ViewProfileMergeService viewProfileMergeService,
-                                 ViewProfileCreatorService viewProfileCreatorService) {
+                                 ViewProfileCreatorService viewProfileCreatorService,
+                                 ViewProfileMigrationService viewProfileMigrationService,
+                                 ReportJobService reportJobService,
+                                 ViewProfilePatchService viewProfilePatchService,
+                                 ViewProfileJsonCache viewProfileJsonCache,
+                                 ViewProfileChangeBroadcaster viewProfileChangeBroadcaster) {
         this.viewProfileService = viewProfileService;
         this.reportServiceClient = reportServiceClient;
         this.reportTemplateService = reportTemplateService;
         this.viewProfileMergeService = viewProfileMergeService;
         this.viewProfileCreatorService = viewProfileCreatorService;
+        this.viewProfileMigrationService = viewProfileMigrationService;
+        this.reportJobService = reportJobService;
+        this.viewProfilePatchService = viewProfilePatchService;
+        this.viewProfileJsonCache = viewProfileJsonCache;
+        this.viewProfileChangeBroadcaster = viewProfileChangeBroadcaster;
     }
 
     @ApiOperation(value = "Creates a view profile for the given consultant", notes =
@@ -121,16 +156,102 @@ public class ViewProfileController {
         return ResponseEntity.ok(ids);
     }
 
-    @ApiOperation(value = "Returns a specified view profile.", notes = "Returns the view profile with the given ID as long as it belongs to the consultant with the provided initials", response = String.class, responseContainer = "List", httpMethod = "GET", produces = "application/json")
+    @ApiOperation(value = "Returns a specified view profile.", notes = "Returns the view profile with the given ID as long as it belongs to the consultant with the provided initials. " +
+            "With fields or sections given, only the id, the version and these sections are read and returned.", response = String.class, responseContainer = "List", httpMethod = "GET", produces = "application/json")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "View profile is returned in response."),
+            @ApiResponse(code = 304, message = "The view profile matches the If-None-Match header and is not returned."),
+            @ApiResponse(code = 400, message = "A requested section does not exist.", response = ServiceError.class),
             @ApiResponse(code = 403, message = "Access to the view profile is not allowed.", response = ServiceError.class),
             @ApiResponse(code = 404, message = "No view profile for the provided ID found.", response = ServiceError.class)})
     @GetMapping(path = "/{initials}/{id}")
-    public ResponseEntity<ViewProfile> getViewProfile(@PathVariable("initials") String initials,
-                                                      @PathVariable String id) {
-        ViewProfile profile = viewProfileService.getByIdAndCheckOwner(id, initials);
-        return ResponseEntity.ok(profile);
+    public ResponseEntity<?> getViewProfile(@PathVariable("initials") String initials,
+                                            @PathVariable String id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @ApiParam("Comma separated sections to return, all if not given")
+                                            @RequestParam(value = ViewProfileFieldsAdvice.FIELDS, required = false) String fields,
+                                            @ApiParam("Alias of fields")
+                                            @RequestParam(value = ViewProfileFieldsAdvice.SECTIONS, required = false) String sections,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Set<ViewProfileSection> requested = ViewProfileFieldsAdvice.requestedSections(fields, sections);
+        if (requested == null && viewProfileJsonCache.isEnabled()) {
+            return getCachedViewProfile(initials, id, ifNoneMatch, acceptEncoding);
+        }
+        ViewProfile profile = requested == null
+                ? viewProfileService.getByIdAndCheckOwner(id, initials)
+                : viewProfileService.getSectionsByIdAndCheckOwner(id, initials, requested);
+        if (ViewProfileETag.isNotModified(profile, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ViewProfileETag.of(profile)).build();
+        }
+        return ViewProfileETag.ok(profile);
+    }
+
+    /**
+     * Only reads the owner and the version of the view profile, the body is written from the
+     * {@link ViewProfileJsonCache} if that version is cached.
+     */
+    private ResponseEntity<?> getCachedViewProfile(String initials, String id, String ifNoneMatch,
+                                                   String acceptEncoding) {
+        ViewProfile current = viewProfileService.getSectionsByIdAndCheckOwner(id, initials,
+                EnumSet.noneOf(ViewProfileSection.class));
+        if (ViewProfileETag.isNotModified(current, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ViewProfileETag.of(current)).build();
+        }
+        boolean gzip = viewProfileJsonCache.isGzipEnabled() && acceptsGzip(acceptEncoding);
+        byte[] json = current.getVersion() == null ? null : viewProfileJsonCache.get(id, current.getVersion(), gzip);
+        if (json == null) {
+            current = viewProfileService.getByIdAndCheckOwner(id, initials);
+            json = viewProfileJsonCache.put(current, gzip);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String eTag = ViewProfileETag.of(current);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(json);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            return Double.parseDouble(parameter.substring(2)) > 0;
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @ApiOperation(value = "Streams the changes of the specified view profile", notes = "Pushes every saved change " +
+            "of the view profile as server-sent event, containing the operation, the JSON Pointers of the changed " +
+            "sections and the new version. The id of each event is the new version. The stream ends after a " +
+            "timeout and is expected to be reopened.", httpMethod = "GET", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stream of changes", response = ViewProfileChange.class),
+            @ApiResponse(code = 403, message = "Access to the view profile is not allowed.", response = ServiceError.class),
+            @ApiResponse(code = 404, message = "No view profile for the provided ID found.", response = ServiceError.class)})
+    @GetMapping(path = "/{initials}/{id}/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamViewProfileChanges(@PathVariable("initials") String initials,
+                                               @PathVariable String id) {
+        viewProfileService.getSectionsByIdAndCheckOwner(id, initials, EnumSet.noneOf(ViewProfileSection.class));
+        return viewProfileChangeBroadcaster.subscribe(id);
     }
 
     @ApiOperation(value = "Deletes the specified view profile", notes = "Deletes the specified view profile of the specified consultant.", httpMethod = "DELETE")
@@ -145,6 +266,27 @@ public class ViewProfileController {
         return ResponseEntity.noContent().build();
     }
 
+    @ApiOperation(value = "Patches the specified view profile", notes = "Applies a JSON Patch (RFC 6902) to the " +
+            "view profile and saves it once. Paths address the JSON representation of the view profile. If any " +
+            "operation fails, none of them is persisted.", response = ViewProfile.class, httpMethod = "PATCH",
+            consumes = "application/json-patch+json", produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The patched view profile is returned in the response", response = ViewProfile.class),
+            @ApiResponse(code = 400, message = "An operation of the patch could not be applied.", response = ServiceError.class),
+            @ApiResponse(code = 403, message = "Access to the view profile is not allowed.", response = ServiceError.class),
+            @ApiResponse(code = 404, message = "No view profile for the provided ID found.", response = ServiceError.class),
+            @ApiResponse(code = 409, message = "The view profile was changed concurrently.", response = ServiceError.class),
+            @ApiResponse(code = 412, message = "The view profile does not match the If-Match header.", response = ServiceError.class)})
+    @PatchMapping(path = "/{initials}/{id}", consumes = "application/json-patch+json")
+    public ResponseEntity<ViewProfile> patchViewProfile(@PathVariable("initials") String initials,
+                                                        @PathVariable String id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @RequestBody JsonNode patch) {
+        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(id, initials);
+        ViewProfileETag.checkIfMatch(viewProfile, ifMatch);
+        return ViewProfileETag.ok(viewProfilePatchService.patch(viewProfile, patch));
+    }
+
 
     @PatchMapping(path = "/{initials}/view/{viewProfileId}/info")
     public ResponseEntity<ViewProfile> partiallyUpdateInfo(
@@ -155,11 +297,29 @@ public class ViewProfileController {
         return ResponseEntity.ok(viewProfile);
     }
 
+    @ApiOperation(value = "Starts the data conversion", notes = "Moves all view profiles into the configured storage " +
+            "format in the background. A failed or interrupted conversion resumes where it stopped.",
+            response = MigrationProgress.class, httpMethod = "POST", produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "Conversion started or already running", response = MigrationProgress.class)})
     @PostMapping("/dataConversion")
-    public ResponseEntity convertDataModelVersion() {
+    public ResponseEntity<MigrationProgress> convertDataModelVersion() {
+        return ResponseEntity.accepted().body(viewProfileMigrationService.start());
+    }
+
+    @ApiOperation(value = "Returns the progress of the data conversion", response = MigrationProgress.class,
+            httpMethod = "GET", produces = "application/json")
+    @GetMapping("/dataConversion")
+    public ResponseEntity<MigrationProgress> getDataConversionProgress() {
+        return ResponseEntity.ok(viewProfileMigrationService.getProgress());
+    }
 
-        viewProfileService.migrateViewProfiles();
-        return ResponseEntity.ok().build();
+    @ApiOperation(value = "Rebuilds the owner index", notes = "Rebuilds the index that maps consultant initials to " +
+            "their view profile ids. Only needed once for view profiles that were stored before the index existed.",
+            httpMethod = "POST")
+    @PostMapping("/ownerIndex")
+    public ResponseEntity<Long> rebuildOwnerIndex() {
+        return ResponseEntity.ok(viewProfileService.rebuildOwnerIndex());
     }
 
     //---------------
@@ -183,4 +343,33 @@ public class ViewProfileController {
                         .orElse(URI.create(""));
         return ResponseEntity.created(location).body(location.toString());
     }
+
+    @ApiOperation(value = "Queues the generation of a report", notes = "Generates the report in the background. The " +
+            "Location header points to the job, which contains the location of the report once it is DONE.",
+            response = ReportJob.class, httpMethod = "POST", produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(code = 202, message = "Report generation queued", response = ReportJob.class),
+            @ApiResponse(code = 503, message = "Too many reports are queued", response = ServiceError.class)})
+    @PostMapping(path = "/{initials}/view/{viewProfileId}/{templateId}/report/jobs")
+    public ResponseEntity<ReportJob> submitReportJob(@PathVariable("initials") String initials,
+                                                     @PathVariable("viewProfileId") String viewProfileId,
+                                                     @PathVariable("templateId") String templateId) {
+        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ReportTemplate template =
+                (templateId.equals("-1") ? null : reportTemplateService.getTemplate(templateId));
+        ReportJob job = reportJobService.submit(initials, viewProfile, template);
+        URI jobLocation = URI.create("/view/" + initials + "/report/jobs/" + job.getId());
+        return ResponseEntity.accepted().location(jobLocation).body(job);
+    }
+
+    @ApiOperation(value = "Returns a report job", response = ReportJob.class, httpMethod = "GET",
+            produces = "application/json")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "State of the job", response = ReportJob.class),
+            @ApiResponse(code = 404, message = "No such job for the consultant", response = ServiceError.class)})
+    @GetMapping(path = "/{initials}/report/jobs/{jobId}")
+    public ResponseEntity<ReportJob> getReportJob(@PathVariable("initials") String initials,
+                                                  @PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(initials, jobId));
+    }
 }
@@ -0,0 +1,82 @@
+package de.hbt.pwr.view.controller;
+
+import de.hbt.pwr.view.exception.ViewProfilePreconditionFailedException;
+import de.hbt.pwr.view.model.ViewProfile;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Derives the entity tag of a {@link ViewProfile} from {@link ViewProfile#getVersion()}, which changes with every
+ * write, and evaluates the conditional request headers against it.
+ */
+final class ViewProfileETag {
+
+    private static final String ANY = "*";
+
+    private ViewProfileETag() {
+        // Avoid construction
+    }
+
+    /**
+     * @return the entity tag, <code>null</code> if the view profile has no version
+     */
+    static String of(ViewProfile viewProfile) {
+        return viewProfile.getVersion() == null ? null : "\"" + viewProfile.getVersion() + "\"";
+    }
+
+    /**
+     * @return a 200 response with <code>viewProfile</code> as body and its entity tag, if it has one
+     */
+    static ResponseEntity<ViewProfile> ok(ViewProfile viewProfile) {
+        String eTag = of(viewProfile);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(viewProfile);
+    }
+
+    /**
+     * @param ifNoneMatch value of the <code>If-None-Match</code> header, may be <code>null</code>
+     * @return whether the client holds the current state of <code>viewProfile</code>. Weak comparison is used.
+     */
+    static boolean isNotModified(ViewProfile viewProfile, String ifNoneMatch) {
+        String eTag = of(viewProfile);
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (ANY.equals(trimmed) || eTag.equals(trimmed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param ifMatch value of the <code>If-Match</code> header, <code>null</code> if none was sent
+     * @throws ViewProfilePreconditionFailedException if <code>ifMatch</code> does not match the current state of
+     *                                                <code>viewProfile</code>. Strong comparison is used. On a match,
+     *                                                the version of <code>viewProfile</code> is pinned.
+     */
+    static void checkIfMatch(ViewProfile viewProfile, String ifMatch) {
+        if (ifMatch == null) {
+            return;
+        }
+        String eTag = of(viewProfile);
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (ANY.equals(trimmed)) {
+                return;
+            }
+            if (eTag != null && eTag.equals(trimmed)) {
+                viewProfile.pinVersion();
+                return;
+            }
+        }
+        throw new ViewProfilePreconditionFailedException(viewProfile.getId(), ifMatch, viewProfile.getVersion());
+    }
+}
@@ -0,0 +1,106 @@
+package de.hbt.pwr.view.controller;
+
+import de.hbt.pwr.view.exception.InvalidViewProfileFieldsException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Returns only some sections of a {@link ViewProfile} if a request names them in the <code>fields</code> or
+ * <code>sections</code> parameter, e.g. <code>?fields=projects,displayCategories</code>. Names are the properties of
+ * the JSON representation, see {@link ViewProfileSection#getFieldName()}. <code>id</code> and <code>version</code>
+ * are always returned.
+ * <p>
+ *     The parameter is validated before the request is handled, so an unknown name fails with 400 before an
+ *     operation changed anything.
+ * </p>
+ */
+@ControllerAdvice(assignableTypes = {ViewProfileController.class, ViewProfileOperationsController.class})
+class ViewProfileFieldsAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String FIELDS = "fields";
+
+    static final String SECTIONS = "sections";
+
+    private static final String ID = "id";
+
+    private static final String VERSION = "version";
+
+    /**
+     * @return the sections named by both parameters, <code>null</code> if none of them was sent
+     * @throws InvalidViewProfileFieldsException if a name is not a section
+     */
+    static Set<ViewProfileSection> requestedSections(String fields, String sections) {
+        if (fields == null && sections == null) {
+            return null;
+        }
+        Set<ViewProfileSection> requested = EnumSet.noneOf(ViewProfileSection.class);
+        for (String names : new String[]{fields, sections}) {
+            if (names == null) {
+                continue;
+            }
+            for (String name : names.split(",")) {
+                String trimmed = name.trim();
+                if (trimmed.isEmpty() || ID.equals(trimmed) || VERSION.equals(trimmed)) {
+                    continue;
+                }
+                try {
+                    requested.add(ViewProfileSection.fromFieldName(trimmed));
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidViewProfileFieldsException(trimmed);
+                }
+            }
+        }
+        return requested;
+    }
+
+    /**
+     * @return the properties of <code>viewProfile</code> that are returned if <code>sections</code> are requested
+     */
+    static Map<String, Object> project(ViewProfile viewProfile, Set<ViewProfileSection> sections) {
+        Map<String, Object> projection = new LinkedHashMap<>();
+        projection.put(ID, viewProfile.getId());
+        projection.put(VERSION, viewProfile.getVersion());
+        sections.forEach(section -> projection.put(section.getFieldName(), section.extract(viewProfile)));
+        return projection;
+    }
+
+    @ModelAttribute
+    public void validateFields(@RequestParam(value = FIELDS, required = false) String fields,
+                               @RequestParam(value = SECTIONS, required = false) String sections) {
+        requestedSections(fields, sections);
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(body instanceof ViewProfile) || !(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        ServletServerHttpRequest servletRequest = (ServletServerHttpRequest) request;
+        Set<ViewProfileSection> sections = requestedSections(servletRequest.getServletRequest().getParameter(FIELDS),
+                servletRequest.getServletRequest().getParameter(SECTIONS));
+        return sections == null ? body : project((ViewProfile) body, sections);
+    }
+}
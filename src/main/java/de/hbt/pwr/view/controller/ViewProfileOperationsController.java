@@ -3,9 +3,11 @@ package de.hbt.pwr.view.controller;
 import de.hbt.pwr.view.exception.ServiceError;
 import de.hbt.pwr.view.model.ProfileEntryType;
 import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileOperation;
 import de.hbt.pwr.view.model.entries.sort.NameComparableEntryType;
 import de.hbt.pwr.view.model.entries.sort.StartEndDateComparableEntryType;
 import de.hbt.pwr.view.model.skill.Category;
+import de.hbt.pwr.view.service.ViewProfileBatchService;
 import de.hbt.pwr.view.service.ViewProfileOperationService;
 import de.hbt.pwr.view.service.ViewProfileSortService;
 import io.swagger.annotations.Api;
@@ -13,6 +15,7 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
@@ -25,6 +28,14 @@ import java.util.Map;
  * <p>
  * Persistent operations that affect a {@link ViewProfile} belong here.
  * </p>
+ * <p>
+ * Responses carry the version of the changed {@link ViewProfile} as <code>ETag</code>. If a request sends it as
+ * <code>If-Match</code>, the operation is only applied to that version, otherwise it fails with 412.
+ * </p>
+ * <p>
+ * With a <code>fields</code> or <code>sections</code> parameter, responses only contain the named sections, see
+ * {@link ViewProfileFieldsAdvice}.
+ * </p>
  *
  * @author nt (nt@hbt.de)
  * @see <a href="http://localhost:9008/swagger-ui.html">Swagger UI doc</a>
@@ -45,10 +56,25 @@ public class ViewProfileOperationsController {
 
     private final ViewProfileOperationService viewProfileService;
 
+    private final ViewProfileBatchService viewProfileBatchService;
+
     @Autowired
-    public ViewProfileOperationsController(ViewProfileSortService viewProfileSortService, ViewProfileOperationService viewProfileService) {
+    public ViewProfileOperationsController(ViewProfileSortService viewProfileSortService, ViewProfileOperationService viewProfileService,
+                                           ViewProfileBatchService viewProfileBatchService) {
         this.viewProfileSortService = viewProfileSortService;
         this.viewProfileService = viewProfileService;
+        this.viewProfileBatchService = viewProfileBatchService;
+    }
+
+    /**
+     * Loads the view profile to be changed and checks that it is in the state the client expects.
+     *
+     * @param ifMatch value of the <code>If-Match</code> header, <code>null</code> to change any state
+     */
+    private ViewProfile getForUpdate(String viewProfileId, String initials, String ifMatch) {
+        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfileETag.checkIfMatch(viewProfile, ifMatch);
+        return viewProfile;
     }
 
 
@@ -67,12 +93,13 @@ public class ViewProfileOperationsController {
     @PatchMapping("/{entryType}/{index}/visibility/{isEnabled}")
     ResponseEntity<ViewProfile> setVisibility(@PathVariable("initials") String initials,
                                               @PathVariable("viewProfileId") String viewProfileId,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                               @PathVariable("entryType") ProfileEntryType profileEntryType,
                                               @PathVariable("index") int index,
                                               @PathVariable("isEnabled") Boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setIsEnabled(viewProfile, index, isEnabled, profileEntryType);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sets the visibility for skills",
@@ -89,28 +116,30 @@ public class ViewProfileOperationsController {
     @PatchMapping("/SKILL/visibility/{isEnabled}")
     ResponseEntity<ViewProfile> setVisibilityForSkill(@PathVariable("initials") String initials,
                                                       @PathVariable("viewProfileId") String viewProfileId,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                       @RequestParam(value = "skill-name", required = false) String skillName,
                                                       @PathVariable("isEnabled") Boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         if (skillName == null) {
             viewProfileService.setIsEnabledForAllSkills(viewProfile, isEnabled);
         } else {
             viewProfileService.setIsEnabledForSkill(viewProfile, skillName, isEnabled);
         }
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
 
     @PatchMapping("/SKILL/visibility/version/{isEnabled}")
     ResponseEntity<ViewProfile> setVisibilityForVersionOfSkill(@PathVariable("initials") String initials,
                                                                @PathVariable("viewProfileId") String viewProfileId,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                                @RequestParam(value = "skill-name") String skillName,
                                                                @RequestParam(value = "version-name") String version,
                                                                @PathVariable("isEnabled") Boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setIsEnabledForVersionOfSkill(viewProfile,skillName,version,isEnabled);
 
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sets the visibility for all entries",
@@ -128,11 +157,12 @@ public class ViewProfileOperationsController {
     @PatchMapping("/{entryType}/all/visibility/{isEnabled}")
     ResponseEntity<ViewProfile> setEnabledForAll(@PathVariable("initials") String initials,
                                                  @PathVariable("viewProfileId") String viewProfileId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                  @PathVariable("entryType") ProfileEntryType profileEntryType,
                                                  @PathVariable("isEnabled") Boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setIsEnabledForAll(viewProfile, profileEntryType, isEnabled);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sets the visibility for a nested skill",
@@ -150,12 +180,13 @@ public class ViewProfileOperationsController {
     @PatchMapping("/PROJECT/{projectIndex}/SKILL/{skillIndex}/visibility/{isEnabled}")
     ResponseEntity<ViewProfile> setVisibilityForSkillInProject(@PathVariable("initials") String initials,
                                                                @PathVariable("viewProfileId") String viewProfileId,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                                @PathVariable("projectIndex") int projectIndex,
                                                                @PathVariable("skillIndex") int skillIndex,
                                                                @PathVariable("isEnabled") boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setSkillInProjectEnabled(viewProfile, projectIndex, skillIndex, isEnabled);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sets the visibility for all nested skills",
@@ -173,11 +204,12 @@ public class ViewProfileOperationsController {
     @PatchMapping("/PROJECT/{projectIndex}/SKILL/all/visibility/{isEnabled}")
     ResponseEntity<ViewProfile> setVisibilityForAllSkillsInProject(@PathVariable("initials") String initials,
                                                                    @PathVariable("viewProfileId") String viewProfileId,
+                                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                                    @PathVariable("projectIndex") int projectIndex,
                                                                    @PathVariable("isEnabled") boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setIsEnabledForAllSkillsInProject(viewProfile, projectIndex, isEnabled);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
 
@@ -196,12 +228,13 @@ public class ViewProfileOperationsController {
     @PatchMapping("/PROJECT/{projectIndex}/ROLE/{roleIndex}/visibility/{isEnabled}")
     ResponseEntity<ViewProfile> setVisibilityForRoleInProject(@PathVariable("initials") String initials,
                                                               @PathVariable("viewProfileId") String viewProfileId,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                               @PathVariable("projectIndex") int projectIndex,
                                                               @PathVariable("roleIndex") int roleIndex,
                                                               @PathVariable("isEnabled") boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setRoleInProjectEnabled(viewProfile, projectIndex, roleIndex, isEnabled);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sets the visibility for all nested project roles",
@@ -219,11 +252,12 @@ public class ViewProfileOperationsController {
     @PatchMapping("/PROJECT/{projectIndex}/ROLE/all/visibility/{isEnabled}")
     ResponseEntity<ViewProfile> setVisibilityForAllRolesInProject(@PathVariable("initials") String initials,
                                                                   @PathVariable("viewProfileId") String viewProfileId,
+                                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                                   @PathVariable("projectIndex") int projectIndex,
                                                                   @PathVariable("isEnabled") boolean isEnabled) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setIsEnabledForAllRolesInProject(viewProfile, projectIndex, isEnabled);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sets the display category of a skill",
@@ -242,10 +276,12 @@ public class ViewProfileOperationsController {
     @PatchMapping("/SKILL/display-category")
     ResponseEntity<ViewProfile> setDisplayCategory(@PathVariable("initials") String initials,
                                                    @PathVariable("viewProfileId") String viewProfileId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @RequestParam("skill-name") String skillName,
                                                    @RequestParam("display-category") String newDisplayCategoryName) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
-        return ResponseEntity.ok(viewProfileService.setDisplayCategory(viewProfile, skillName, newDisplayCategoryName));
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
+        viewProfileService.setDisplayCategory(viewProfile, skillName, newDisplayCategoryName);
+        return ViewProfileETag.ok(viewProfile);
     }
 
 
@@ -265,11 +301,12 @@ public class ViewProfileOperationsController {
     @PatchMapping("/DISPLAY_CATEGORY/{displayCategoryIndex}/SKILL/name/order")
     ResponseEntity<ViewProfile> sortSkillsByNameInDisplayCategory(@PathVariable("initials") String initials,
                                                                   @PathVariable("viewProfileId") String viewProfileId,
+                                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                                   @PathVariable("displayCategoryIndex") int displayCategoryIndex,
                                                                   @RequestParam("do-ascending") boolean doAscending) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.sortSkillsInDisplayByName(viewProfile, displayCategoryIndex, doAscending);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sorts all skills in a display category by rating",
@@ -287,31 +324,34 @@ public class ViewProfileOperationsController {
     @PatchMapping("/DISPLAY_CATEGORY/{displayCategoryIndex}/SKILL/rating/order")
     ResponseEntity<ViewProfile> sortSkillsByRatingInDisplayCategory(@PathVariable("initials") String initials,
                                                                     @PathVariable("viewProfileId") String viewProfileId,
+                                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                                     @PathVariable("displayCategoryIndex") int displayCategoryIndex,
                                                                     @RequestParam("do-ascending") boolean doAscending) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.sortSkillsInDisplayByRating(viewProfile, displayCategoryIndex, doAscending);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @PatchMapping("/PROJECT/{projectIndex}/SKILL/name/order")
     ResponseEntity<ViewProfile> sortSkillsByNameInProject(@PathVariable("initials") String initials,
                                                           @PathVariable("viewProfileId") String viewProfileId,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                           @PathVariable("projectIndex") int projectIndex,
                                                           @RequestParam("do-ascending") boolean doAscending) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.sortSkillsInProjectByName(viewProfile, projectIndex, doAscending);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @PatchMapping("/PROJECT/{projectIndex}/SKILL/rating/order")
     ResponseEntity<ViewProfile> sortSkillsByRatingInProject(@PathVariable("initials") String initials,
                                                             @PathVariable("viewProfileId") String viewProfileId,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                             @PathVariable("projectIndex") int projectIndex,
                                                             @RequestParam("do-ascending") boolean doAscending) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.sortSkillsInProjectByRating(viewProfile, projectIndex, doAscending);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Moves a skill in a display category",
@@ -328,23 +368,25 @@ public class ViewProfileOperationsController {
     @PatchMapping("/DISPLAY_CATEGORY/{displayCategoryIndex}/SKILL/position/{sourceIndex}/{targetIndex}")
     ResponseEntity<ViewProfile> moveSkillInDisplayCategory(@PathVariable("initials") String initials,
                                                            @PathVariable("viewProfileId") String viewProfileId,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                            @PathVariable("displayCategoryIndex") int displayCategoryIndex,
                                                            @PathVariable("sourceIndex") int sourceIndex,
                                                            @PathVariable("targetIndex") int targetIndex) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.moveSkillInDisplayCategory(viewProfile, displayCategoryIndex, sourceIndex, targetIndex);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @PatchMapping("/PROJECT/{projectIndex}/SKILL/position/{sourceIndex}/{targetIndex}")
     ResponseEntity<ViewProfile> moveSkillInProject(@PathVariable("initials") String initials,
                                                    @PathVariable("viewProfileId") String viewProfileId,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                    @PathVariable("projectIndex") int projectIndex,
                                                    @PathVariable("sourceIndex") int sourceIndex,
                                                    @PathVariable("targetIndex") int targetIndex) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.moveSkillInProject(viewProfile, projectIndex, sourceIndex, targetIndex);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
 
@@ -363,12 +405,13 @@ public class ViewProfileOperationsController {
     @PatchMapping("/{movable-entry}/position/{sourceIndex}/{targetIndex}")
     ResponseEntity<ViewProfile> moveMovable(@PathVariable("initials") String initials,
                                             @PathVariable("viewProfileId") String viewProfileId,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                             @PathVariable("movable-entry") ProfileEntryType profileEntryType,
                                             @PathVariable("sourceIndex") int sourceIndex,
                                             @PathVariable("targetIndex") int targetIndex) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.move(viewProfile, profileEntryType, sourceIndex, targetIndex);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sorts entries by name",
@@ -385,11 +428,12 @@ public class ViewProfileOperationsController {
     @PatchMapping("/{entryType}/name/order")
     ResponseEntity<ViewProfile> sortNameSortable(@PathVariable("initials") String initials,
                                                  @PathVariable("viewProfileId") String viewProfileId,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                  @PathVariable("entryType") NameComparableEntryType entryType,
                                                  @RequestParam("do-ascending") boolean doAscending) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.sortEntryByName(viewProfile, entryType, doAscending);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
 
@@ -407,11 +451,12 @@ public class ViewProfileOperationsController {
     })
     ResponseEntity<ViewProfile> sortStartDateSortable(@PathVariable("initials") String initials,
                                                       @PathVariable("viewProfileId") String viewProfileId,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                       @PathVariable("entryType") StartEndDateComparableEntryType entryType,
                                                       @RequestParam("do-ascending") boolean doAscending) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.sortEntryByStartDate(viewProfile, entryType, doAscending);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Sorts entries by end date",
@@ -428,11 +473,12 @@ public class ViewProfileOperationsController {
     @PatchMapping("/{entryType}/end-date/order")
     ResponseEntity<ViewProfile> sortEndDateSortable(@PathVariable("initials") String initials,
                                                     @PathVariable("viewProfileId") String viewProfileId,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                     @PathVariable("entryType") StartEndDateComparableEntryType entryType,
                                                     @RequestParam("do-ascending") boolean doAscending) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileSortService.sortEntryByEndDate(viewProfile, entryType, doAscending);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
     }
 
     @ApiOperation(value = "Changes the description",
@@ -447,10 +493,33 @@ public class ViewProfileOperationsController {
     @PatchMapping("/DESCRIPTION")
     ResponseEntity<ViewProfile> setDescription(@PathVariable("initials") String initials,
                                                @PathVariable("viewProfileId") String viewProfileId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                @RequestBody() String newDescription) {
-        ViewProfile viewProfile = viewProfileService.getByIdAndCheckOwner(viewProfileId, initials);
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
         viewProfileService.setDescription(viewProfile, newDescription);
-        return ResponseEntity.ok(viewProfile);
+        return ViewProfileETag.ok(viewProfile);
+    }
+
+    @ApiOperation(value = "Applies several operations at once",
+            notes = "Applies the operations in the given order and saves the view profile once. If any operation " +
+                    "fails, none of them is persisted.",
+            response = ViewProfile.class,
+            produces = "application/json",
+            httpMethod = "PATCH")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "The updated view profile is returned in the response", response = ViewProfile.class),
+            @ApiResponse(code = 400, message = "An operation could not be applied.", response = ServiceError.class),
+            @ApiResponse(code = 403, message = "Access to the view profile is not allowed.", response = ServiceError.class),
+            @ApiResponse(code = 404, message = "No view profile for the provided ID found.", response = ServiceError.class),
+            @ApiResponse(code = 409, message = "The view profile was changed concurrently.", response = ServiceError.class)
+    })
+    @PatchMapping("/batch")
+    ResponseEntity<ViewProfile> applyBatch(@PathVariable("initials") String initials,
+                                           @PathVariable("viewProfileId") String viewProfileId,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestBody List<ViewProfileOperation> operations) {
+        ViewProfile viewProfile = getForUpdate(viewProfileId, initials, ifMatch);
+        return ViewProfileETag.ok(viewProfileBatchService.apply(viewProfile, operations));
     }
 
 
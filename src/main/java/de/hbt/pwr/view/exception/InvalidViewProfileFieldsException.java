@@ -0,0 +1,35 @@
+package de.hbt.pwr.view.exception;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thrown when the <code>fields</code> or <code>sections</code> parameter of a request names a property that is not a
+ * section of a view profile. The request is rejected before anything is changed. Translates into a 400 status code.
+ */
+@Getter
+public class InvalidViewProfileFieldsException extends RuntimeException {
+
+    private final String field;
+
+    public InvalidViewProfileFieldsException(String field) {
+        super("The view profile has no section named " + field);
+        this.field = field;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class InnerError {
+        private static final String CODE = "InvalidViewProfileFields";
+        private String field;
+
+        @JsonProperty("code")
+        public String getCode() {
+            return CODE;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.hbt.pwr.view.exception;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.hbt.pwr.view.model.ViewProfileOperation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thrown when an operation of a batch can not be applied to a view profile, for example because it addresses an
+ * entry that does not exist or lacks a parameter. None of the operations of the batch are persisted. Translates
+ * into a 400 status code.
+ */
+@Getter
+public class InvalidViewProfileOperationException extends RuntimeException {
+
+    /**
+     * Position of the failed operation in the batch
+     */
+    private final int operationIndex;
+
+    private final ViewProfileOperation.Type operationType;
+
+    public InvalidViewProfileOperationException(int operationIndex, ViewProfileOperation.Type operationType,
+                                                Throwable cause) {
+        super("Operation " + operationIndex + " (" + operationType + ") could not be applied: " + cause.getMessage(),
+                cause);
+        this.operationIndex = operationIndex;
+        this.operationType = operationType;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class InnerError {
+        private static final String CODE = "InvalidViewProfileOperation";
+        private int operationIndex;
+        private ViewProfileOperation.Type operationType;
+
+        @JsonProperty("code")
+        public String getCode() {
+            return CODE;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package de.hbt.pwr.view.exception;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thrown when an operation of a JSON Patch can not be applied to a view profile, for example because its path does
+ * not exist or a <code>test</code> failed. None of the operations of the patch are persisted. Translates into a 400
+ * status code.
+ */
+@Getter
+public class InvalidViewProfilePatchException extends RuntimeException {
+
+    /**
+     * Position of the failed operation in the patch
+     */
+    private final int operationIndex;
+
+    public InvalidViewProfilePatchException(int operationIndex, Throwable cause) {
+        super("Operation " + operationIndex + " of the patch could not be applied: " + cause.getMessage(), cause);
+        this.operationIndex = operationIndex;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class InnerError {
+        private static final String CODE = "InvalidViewProfilePatch";
+        private int operationIndex;
+
+        @JsonProperty("code")
+        public String getCode() {
+            return CODE;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package de.hbt.pwr.view.exception;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thrown when a report job does not exist, expired, or was requested by someone else. Translates into a 404
+ * status code.
+ */
+public class ReportJobNotFoundException extends RuntimeException {
+
+    @Getter
+    private final String jobId;
+
+    public ReportJobNotFoundException(String jobId) {
+        super("The given id (" + jobId + ") did not match a report job.");
+        this.jobId = jobId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class InnerError {
+        private static final String CODE = "ReportJobNotFound";
+        private String jobId;
+
+        @JsonProperty("code")
+        public String getCode() {
+            return CODE;
+        }
+    }
+}
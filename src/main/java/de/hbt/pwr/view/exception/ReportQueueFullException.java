@@ -0,0 +1,35 @@
+package de.hbt.pwr.view.exception;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thrown when a report job can not be accepted because too many are waiting already. Translates into a 503
+ * status code, the request may be repeated later.
+ */
+public class ReportQueueFullException extends RuntimeException {
+
+    @Getter
+    private final int queueCapacity;
+
+    public ReportQueueFullException(int queueCapacity) {
+        super("Too many reports are being generated, all " + queueCapacity + " places in the queue are taken.");
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class InnerError {
+        private static final String CODE = "ReportQueueFull";
+        private int queueCapacity;
+
+        @JsonProperty("code")
+        public String getCode() {
+            return CODE;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package de.hbt.pwr.view.exception;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.hbt.pwr.view.model.ViewProfile;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thrown when a {@link ViewProfile} is saved based on an outdated {@link ViewProfile#getVersion()}, meaning that
+ * it was changed by someone else since it was read. Translates into a 409 status code that carries the current
+ * version.
+ */
+@Getter
+public class ViewProfileConflictException extends RuntimeException {
+
+    private final String viewProfileId;
+
+    private final long expectedVersion;
+
+    private final long currentVersion;
+
+    public ViewProfileConflictException(String viewProfileId, long expectedVersion, long currentVersion) {
+        super("The view profile with id=" + viewProfileId + " was modified concurrently. Expected version "
+                + expectedVersion + " but is at version " + currentVersion);
+        this.viewProfileId = viewProfileId;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class InnerError {
+        private static final String CODE = "ViewProfileConflict";
+        private String viewProfileId;
+        private long expectedVersion;
+        private long currentVersion;
+
+        @JsonProperty("code")
+        public String getCode() {
+            return CODE;
+        }
+    }
+}
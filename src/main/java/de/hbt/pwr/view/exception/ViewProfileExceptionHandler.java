@@ -1,8 +1,10 @@
 package de.hbt.pwr.view.exception;
 
 import de.hbt.pwr.view.client.profile.model.Profile;
+import de.hbt.pwr.view.model.ReportJob;
 import de.hbt.pwr.view.model.ReportTemplate;
 import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileOperation;
 import de.hbt.pwr.view.model.skill.Category;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -105,4 +107,72 @@ public class ViewProfileExceptionHandler extends ResponseEntityExceptionHandler
         ServiceError serviceError = new ServiceError(outerError);
         return ResponseEntity.status(status).body(serviceError);
     }
+
+    @ExceptionHandler(value = ViewProfileConflictException.class)
+    public ResponseEntity<ServiceError> handleViewProfileConflict(ViewProfileConflictException exception) {
+        final HttpStatus status = HttpStatus.CONFLICT;
+        ViewProfileConflictException.InnerError innerError = new ViewProfileConflictException.InnerError(
+                exception.getViewProfileId(), exception.getExpectedVersion(), exception.getCurrentVersion());
+        ServiceOuterError outerError = new ServiceOuterError(status.toString(), exception.getMessage(), ViewProfile.class.toString(), innerError);
+        ServiceError serviceError = new ServiceError(outerError);
+        return ResponseEntity.status(status).body(serviceError);
+    }
+
+    @ExceptionHandler(value = ReportJobNotFoundException.class)
+    public ResponseEntity<ServiceError> handleReportJobNotFound(ReportJobNotFoundException exception) {
+        final HttpStatus status = HttpStatus.NOT_FOUND;
+        ReportJobNotFoundException.InnerError innerError = new ReportJobNotFoundException.InnerError(exception.getJobId());
+        ServiceOuterError outerError = new ServiceOuterError(status.toString(), exception.getMessage(), ReportJob.class.toString(), innerError);
+        ServiceError serviceError = new ServiceError(outerError);
+        return ResponseEntity.status(status).body(serviceError);
+    }
+
+    @ExceptionHandler(value = ReportQueueFullException.class)
+    public ResponseEntity<ServiceError> handleReportQueueFull(ReportQueueFullException exception) {
+        final HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        ReportQueueFullException.InnerError innerError = new ReportQueueFullException.InnerError(exception.getQueueCapacity());
+        ServiceOuterError outerError = new ServiceOuterError(status.toString(), exception.getMessage(), ReportJob.class.toString(), innerError);
+        ServiceError serviceError = new ServiceError(outerError);
+        return ResponseEntity.status(status).body(serviceError);
+    }
+
+    @ExceptionHandler(value = InvalidViewProfileOperationException.class)
+    public ResponseEntity<ServiceError> handleInvalidViewProfileOperation(InvalidViewProfileOperationException exception) {
+        final HttpStatus status = HttpStatus.BAD_REQUEST;
+        InvalidViewProfileOperationException.InnerError innerError = new InvalidViewProfileOperationException.InnerError(
+                exception.getOperationIndex(), exception.getOperationType());
+        ServiceOuterError outerError = new ServiceOuterError(status.toString(), exception.getMessage(), ViewProfileOperation.class.toString(), innerError);
+        ServiceError serviceError = new ServiceError(outerError);
+        return ResponseEntity.status(status).body(serviceError);
+    }
+
+    @ExceptionHandler(value = InvalidViewProfilePatchException.class)
+    public ResponseEntity<ServiceError> handleInvalidViewProfilePatch(InvalidViewProfilePatchException exception) {
+        final HttpStatus status = HttpStatus.BAD_REQUEST;
+        InvalidViewProfilePatchException.InnerError innerError = new InvalidViewProfilePatchException.InnerError(
+                exception.getOperationIndex());
+        ServiceOuterError outerError = new ServiceOuterError(status.toString(), exception.getMessage(), ViewProfile.class.toString(), innerError);
+        ServiceError serviceError = new ServiceError(outerError);
+        return ResponseEntity.status(status).body(serviceError);
+    }
+
+    @ExceptionHandler(value = ViewProfilePreconditionFailedException.class)
+    public ResponseEntity<ServiceError> handleViewProfilePreconditionFailed(ViewProfilePreconditionFailedException exception) {
+        final HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+        ViewProfilePreconditionFailedException.InnerError innerError = new ViewProfilePreconditionFailedException.InnerError(
+                exception.getViewProfileId(), exception.getCurrentVersion());
+        ServiceOuterError outerError = new ServiceOuterError(status.toString(), exception.getMessage(), ViewProfile.class.toString(), innerError);
+        ServiceError serviceError = new ServiceError(outerError);
+        return ResponseEntity.status(status).body(serviceError);
+    }
+
+    @ExceptionHandler(value = InvalidViewProfileFieldsException.class)
+    public ResponseEntity<ServiceError> handleInvalidViewProfileFields(InvalidViewProfileFieldsException exception) {
+        final HttpStatus status = HttpStatus.BAD_REQUEST;
+        InvalidViewProfileFieldsException.InnerError innerError = new InvalidViewProfileFieldsException.InnerError(
+                exception.getField());
+        ServiceOuterError outerError = new ServiceOuterError(status.toString(), exception.getMessage(), ViewProfile.class.toString(), innerError);
+        ServiceError serviceError = new ServiceError(outerError);
+        return ResponseEntity.status(status).body(serviceError);
+    }
 }
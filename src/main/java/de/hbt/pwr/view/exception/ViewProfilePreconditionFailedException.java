@@ -0,0 +1,42 @@
+package de.hbt.pwr.view.exception;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.hbt.pwr.view.model.ViewProfile;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Thrown when the <code>If-Match</code> header of a request does not match the current
+ * {@link ViewProfile#getVersion()}, meaning that the client changes a view profile it has not seen in its current
+ * state. Translates into a 412 status code that carries the current version.
+ */
+@Getter
+public class ViewProfilePreconditionFailedException extends RuntimeException {
+
+    private final String viewProfileId;
+
+    private final Long currentVersion;
+
+    public ViewProfilePreconditionFailedException(String viewProfileId, String ifMatch, Long currentVersion) {
+        super("The view profile with id=" + viewProfileId + " does not match " + ifMatch + ", it is at version "
+                + currentVersion);
+        this.viewProfileId = viewProfileId;
+        this.currentVersion = currentVersion;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    static class InnerError {
+        private static final String CODE = "ViewProfilePreconditionFailed";
+        private String viewProfileId;
+        private Long currentVersion;
+
+        @JsonProperty("code")
+        public String getCode() {
+            return CODE;
+        }
+    }
+}
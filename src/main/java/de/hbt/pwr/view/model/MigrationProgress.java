@@ -0,0 +1,43 @@
+package de.hbt.pwr.view.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Progress of the migration of view profiles into the configured storage format. Also serves as checkpoint, so an
+ * interrupted migration resumes from {@link #getCursor()}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MigrationProgress {
+
+    public enum State {
+        NOT_STARTED, RUNNING, DONE, FAILED
+    }
+
+    private State state;
+
+    /**
+     * Scan cursor up to which all view profiles are migrated
+     */
+    private String cursor;
+
+    private long scanned;
+
+    private long migrated;
+
+    private Instant startedAt;
+
+    private Instant updatedAt;
+
+    /**
+     * Cause of the failure if {@link #getState()} is {@link State#FAILED}
+     */
+    private String error;
+}
@@ -0,0 +1,47 @@
+package de.hbt.pwr.view.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A report that is generated in the background. Polled until it is {@link State#DONE} or {@link State#FAILED}.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private String id;
+
+    private State state;
+
+    /**
+     * Initials of the consultant who requested the report
+     */
+    private String initials;
+
+    private String viewProfileId;
+
+    /**
+     * Location of the generated report if {@link #getState()} is {@link State#DONE}
+     */
+    private String location;
+
+    /**
+     * Cause of the failure if {@link #getState()} is {@link State#FAILED}
+     */
+    private String error;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+}
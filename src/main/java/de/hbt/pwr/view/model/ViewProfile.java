@@ -3,10 +3,7 @@ package de.hbt.pwr.view.model;
 import de.hbt.pwr.view.model.entries.*;
 import de.hbt.pwr.view.model.skill.Category;
 import de.hbt.pwr.view.model.skill.Skill;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.data.redis.core.RedisHash;
@@ -24,6 +21,12 @@ public class ViewProfile {
 
     private String id;
 
+    /**
+     * Incremented with every write. A {@link ViewProfile} can only be saved if it is based on the current version,
+     * <code>null</code> saves unconditionally.
+     */
+    private Long version;
+
     private Locale locale;
 
     private String description = "";
@@ -50,6 +53,124 @@ public class ViewProfile {
 
     private List<Category> displayCategories = new ArrayList<>();
 
+    /**
+     * Encoded sections as last read from or written to the store, used to find the sections that changed since.
+     * <code>null</code> if the view profile is not tracked, e.g. because it was never persisted.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient Map<ViewProfileSection, byte[]> persistedSections;
+
+    /**
+     * Sections that differed from the persisted state when it was last remembered, <code>null</code> if it never was
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient Set<ViewProfileSection> lastWrittenSections;
+
+    /**
+     * Set if this view profile may only be saved on the version it was read with, because a change of exactly that
+     * version was requested. Operations are not re-applied on a newer version then.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient boolean versionPinned;
+
+    /**
+     * Set if only some sections of this view profile were read. The other sections hold defaults, so it can not be
+     * saved.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private transient boolean partial;
+
+    /**
+     * Remembers <code>sections</code> as the persisted state of this view profile.
+     */
+    public void markPersisted(Map<ViewProfileSection, byte[]> sections) {
+        this.lastWrittenSections = changedSections(sections);
+        this.persistedSections = new EnumMap<>(sections);
+    }
+
+    /**
+     * @return the sections that changed with the last write, all of them if the view profile was not tracked before.
+     * <code>null</code> if the view profile is not tracked.
+     */
+    public Set<ViewProfileSection> lastWrittenSections() {
+        return lastWrittenSections == null ? null : Collections.unmodifiableSet(lastWrittenSections);
+    }
+
+    /**
+     * @return the encoded sections as last read or written, <code>null</code> if the view profile is not tracked
+     */
+    public Map<ViewProfileSection, byte[]> persistedSections() {
+        return persistedSections == null ? null : Collections.unmodifiableMap(persistedSections);
+    }
+
+    /**
+     * Pins this view profile to its current {@link #getVersion()}, see {@link #hasPinnedVersion()}.
+     */
+    public void pinVersion() {
+        this.versionPinned = true;
+    }
+
+    /**
+     * @return whether saving must fail instead of re-applying operations on a newer version
+     */
+    public boolean hasPinnedVersion() {
+        return versionPinned;
+    }
+
+    /**
+     * Marks this view profile as read partially, see {@link #hasAllSections()}.
+     */
+    public void markPartial() {
+        this.partial = true;
+    }
+
+    /**
+     * @return <code>false</code> if only some sections were read, the view profile can not be saved then
+     */
+    public boolean hasAllSections() {
+        return !partial;
+    }
+
+    /**
+     * Replaces the whole content of this view profile, including version and tracked state, with the one of
+     * <code>other</code>. Used to re-apply an operation on the current state of a view profile.
+     */
+    public void refreshFrom(ViewProfile other) {
+        for (ViewProfileSection section : ViewProfileSection.values()) {
+            section.apply(this, section.extract(other));
+        }
+        this.version = other.version;
+        this.persistedSections = other.persistedSections;
+        this.lastWrittenSections = other.lastWrittenSections;
+    }
+
+    /**
+     * @param sections the current encoding of this view profile
+     * @return the sections whose encoding differs from the persisted state. All of <code>sections</code>
+     * if the view profile is not tracked.
+     */
+    public Set<ViewProfileSection> changedSections(Map<ViewProfileSection, byte[]> sections) {
+        Set<ViewProfileSection> changed = EnumSet.noneOf(ViewProfileSection.class);
+        sections.forEach((section, bytes) -> {
+            if (persistedSections == null || !Arrays.equals(persistedSections.get(section), bytes)) {
+                changed.add(section);
+            }
+        });
+        return changed;
+    }
+
     public Optional<Skill> findSkillByName(String name) {
         return this.displayCategories.stream()
                 .map(category -> category.getDisplaySkills().stream()
@@ -0,0 +1,37 @@
+package de.hbt.pwr.view.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A saved change of a {@link ViewProfile}, as pushed to the clients that follow the view profile.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewProfileChange {
+
+    private String viewProfileId;
+
+    /**
+     * Name of the operation that caused the change, e.g. <code>setIsEnabled</code>, <code>batch</code> or
+     * <code>patch</code>
+     */
+    private String operation;
+
+    /**
+     * JSON Pointers of the changed sections, e.g. <code>/projects</code>. The empty pointer if it is unknown what
+     * changed.
+     */
+    private List<String> paths;
+
+    /**
+     * {@link ViewProfile#getVersion()} after the change
+     */
+    private Long version;
+}
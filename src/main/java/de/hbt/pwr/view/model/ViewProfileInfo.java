@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 
 @Data
@@ -29,4 +30,14 @@ public class ViewProfileInfo {
 
     private Integer charsPerLine;
 
+    /**
+     * Entity tag of the base profile this view profile was built from, if the profile service sent one
+     */
+    private String baseProfileETag;
+
+    /**
+     * Last edit of the base profile this view profile was built from
+     */
+    private LocalDateTime baseProfileLastEdited;
+
 }
@@ -0,0 +1,131 @@
+package de.hbt.pwr.view.model;
+
+import de.hbt.pwr.view.model.entries.sort.NameComparableEntryType;
+import de.hbt.pwr.view.model.entries.sort.StartEndDateComparableEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One operation of a batch that is applied to a {@link ViewProfile}. Each {@link Type} corresponds to one of the
+ * single operations of the view profile operations controller and uses the same parameters. Parameters not used by
+ * the {@link Type} are ignored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewProfileOperation {
+
+    public enum Type {
+        /**
+         * Uses {@link #entryType} as {@link ProfileEntryType}, {@link #index} and {@link #enabled}
+         */
+        SET_VISIBILITY,
+        /**
+         * Uses {@link #entryType} as {@link ProfileEntryType} and {@link #enabled}
+         */
+        SET_VISIBILITY_FOR_ALL,
+        /**
+         * Uses {@link #skillName} and {@link #enabled}. Without {@link #skillName}, all skills are affected.
+         */
+        SET_SKILL_VISIBILITY,
+        /**
+         * Uses {@link #skillName}, {@link #versionName} and {@link #enabled}
+         */
+        SET_SKILL_VERSION_VISIBILITY,
+        /**
+         * Uses {@link #projectIndex}, {@link #skillIndex} and {@link #enabled}. Without {@link #skillIndex}, all
+         * skills of the project are affected.
+         */
+        SET_PROJECT_SKILL_VISIBILITY,
+        /**
+         * Uses {@link #projectIndex}, {@link #roleIndex} and {@link #enabled}. Without {@link #roleIndex}, all
+         * roles of the project are affected.
+         */
+        SET_PROJECT_ROLE_VISIBILITY,
+        /**
+         * Uses {@link #skillName} and {@link #displayCategory}
+         */
+        SET_DISPLAY_CATEGORY,
+        /**
+         * Uses {@link #entryType} as {@link ProfileEntryType}, {@link #sourceIndex} and {@link #targetIndex}
+         */
+        MOVE,
+        /**
+         * Uses {@link #displayCategoryIndex}, {@link #sourceIndex} and {@link #targetIndex}
+         */
+        MOVE_SKILL_IN_DISPLAY_CATEGORY,
+        /**
+         * Uses {@link #projectIndex}, {@link #sourceIndex} and {@link #targetIndex}
+         */
+        MOVE_SKILL_IN_PROJECT,
+        /**
+         * Uses {@link #entryType} as {@link NameComparableEntryType} and {@link #ascending}
+         */
+        SORT_BY_NAME,
+        /**
+         * Uses {@link #entryType} as {@link StartEndDateComparableEntryType} and {@link #ascending}
+         */
+        SORT_BY_START_DATE,
+        /**
+         * Uses {@link #entryType} as {@link StartEndDateComparableEntryType} and {@link #ascending}
+         */
+        SORT_BY_END_DATE,
+        /**
+         * Uses {@link #displayCategoryIndex} and {@link #ascending}
+         */
+        SORT_SKILLS_IN_DISPLAY_CATEGORY_BY_NAME,
+        /**
+         * Uses {@link #displayCategoryIndex} and {@link #ascending}
+         */
+        SORT_SKILLS_IN_DISPLAY_CATEGORY_BY_RATING,
+        /**
+         * Uses {@link #projectIndex} and {@link #ascending}
+         */
+        SORT_SKILLS_IN_PROJECT_BY_NAME,
+        /**
+         * Uses {@link #projectIndex} and {@link #ascending}
+         */
+        SORT_SKILLS_IN_PROJECT_BY_RATING,
+        /**
+         * Uses {@link #description}
+         */
+        SET_DESCRIPTION
+    }
+
+    private Type type;
+
+    /**
+     * Name of a {@link ProfileEntryType}, {@link NameComparableEntryType} or {@link StartEndDateComparableEntryType},
+     * depending on the {@link #type}
+     */
+    private String entryType;
+
+    private Integer index;
+
+    private Integer projectIndex;
+
+    private Integer skillIndex;
+
+    private Integer roleIndex;
+
+    private Integer displayCategoryIndex;
+
+    private Integer sourceIndex;
+
+    private Integer targetIndex;
+
+    private Boolean enabled;
+
+    private Boolean ascending;
+
+    private String skillName;
+
+    private String versionName;
+
+    private String displayCategory;
+
+    private String description;
+}
@@ -0,0 +1,82 @@
+package de.hbt.pwr.view.model;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import de.hbt.pwr.view.model.entries.*;
+import de.hbt.pwr.view.model.skill.Category;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The top level parts of a {@link ViewProfile} that are stored and read independently of each other.
+ * <p>
+ *     {@link #getFieldName()} equals the property name of the section in the JSON representation of a
+ *     {@link ViewProfile}.
+ * </p>
+ */
+@SuppressWarnings("unchecked")
+public enum ViewProfileSection {
+    LOCALE("locale", ViewProfile::getLocale, (v, o) -> v.setLocale((Locale) o), Locale.class),
+    DESCRIPTION("description", ViewProfile::getDescription, (v, o) -> v.setDescription((String) o), String.class),
+    VIEW_PROFILE_INFO("viewProfileInfo", ViewProfile::getViewProfileInfo, (v, o) -> v.setViewProfileInfo((ViewProfileInfo) o), ViewProfileInfo.class),
+    CAREERS("careers", ViewProfile::getCareers, (v, o) -> v.setCareers((List<Career>) o), List.class, Career.class),
+    EDUCATIONS("educations", ViewProfile::getEducations, (v, o) -> v.setEducations((List<Education>) o), List.class, Education.class),
+    KEY_SKILLS("keySkills", ViewProfile::getKeySkills, (v, o) -> v.setKeySkills((List<KeySkill>) o), List.class, KeySkill.class),
+    LANGUAGES("languages", ViewProfile::getLanguages, (v, o) -> v.setLanguages((List<Language>) o), List.class, Language.class),
+    QUALIFICATIONS("qualifications", ViewProfile::getQualifications, (v, o) -> v.setQualifications((List<Qualification>) o), List.class, Qualification.class),
+    SECTORS("sectors", ViewProfile::getSectors, (v, o) -> v.setSectors((List<Sector>) o), List.class, Sector.class),
+    TRAININGS("trainings", ViewProfile::getTrainings, (v, o) -> v.setTrainings((List<Training>) o), List.class, Training.class),
+    PROJECT_ROLES("projectRoles", ViewProfile::getProjectRoles, (v, o) -> v.setProjectRoles((List<ProjectRole>) o), List.class, ProjectRole.class),
+    PROJECTS("projects", ViewProfile::getProjects, (v, o) -> v.setProjects((List<Project>) o), List.class, Project.class),
+    DISPLAY_CATEGORIES("displayCategories", ViewProfile::getDisplayCategories, (v, o) -> v.setDisplayCategories((List<Category>) o), List.class, Category.class);
+
+    private final String fieldName;
+    private final Function<ViewProfile, Object> getter;
+    private final BiConsumer<ViewProfile, Object> setter;
+    private final Class<?> type;
+    private final Class<?> elementType;
+
+    ViewProfileSection(String fieldName, Function<ViewProfile, Object> getter, BiConsumer<ViewProfile, Object> setter,
+                       Class<?> type) {
+        this(fieldName, getter, setter, type, null);
+    }
+
+    ViewProfileSection(String fieldName, Function<ViewProfile, Object> getter, BiConsumer<ViewProfile, Object> setter,
+                       Class<?> type, Class<?> elementType) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+        this.setter = setter;
+        this.type = type;
+        this.elementType = elementType;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Object extract(ViewProfile viewProfile) {
+        return getter.apply(viewProfile);
+    }
+
+    public void apply(ViewProfile viewProfile, Object value) {
+        setter.accept(viewProfile, value);
+    }
+
+    public JavaType getJavaType(TypeFactory typeFactory) {
+        return elementType == null
+                ? typeFactory.constructType(type)
+                : typeFactory.constructCollectionType((Class<? extends List>) type, elementType);
+    }
+
+    public static ViewProfileSection fromFieldName(String fieldName) {
+        for (ViewProfileSection section : values()) {
+            if (section.fieldName.equals(fieldName)) {
+                return section;
+            }
+        }
+        throw new IllegalArgumentException("No view profile section named " + fieldName);
+    }
+}
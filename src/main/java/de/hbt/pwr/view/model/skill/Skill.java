@@ -61,7 +61,7 @@ public class Skill implements ToggleableEntry, NameComparable {
     public void setEnabledForVersion(String versionName, boolean isEnabled) {
         SkillVersion version = this.versions.stream()
                 .filter(skillVersion -> skillVersion.getName().equals(versionName)).findFirst()
-                .orElseThrow(RuntimeException::new);
+                .orElseThrow(() -> new IllegalArgumentException("Skill " + name + " has no version " + versionName));
         version.setEnabled(isEnabled);
     }
 
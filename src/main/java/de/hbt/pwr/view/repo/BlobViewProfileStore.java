@@ -0,0 +1,326 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Stores each view profile as one redis hash <code>viewProfile:doc:{id}</code> with one binary field per
+ * {@link ViewProfileSection} and a <code>_format</code> field holding the version of the encoding. A large
+ * view profile is a handful of hash fields instead of one field per leaf value.
+ * <p>
+ *     A <code>_version</code> field is incremented with every write. Writes compare it with
+ *     {@link ViewProfile#getVersion()} and are applied in the same step by a lua script, so concurrent writers
+ *     can not overwrite each other unnoticed.
+ * </p>
+ * <p>
+ *     View profiles read or written by this store remember their encoded sections, so
+ *     {@link #saveChanges(ViewProfile)} only writes the sections that changed since.
+ *     {@link #findSectionsById(String, Set)} only fetches and decodes the requested fields of the hash.
+ * </p>
+ */
+class BlobViewProfileStore implements ViewProfileStore {
+
+    static final String DOC_PREFIX = "viewProfile:doc:";
+    static final String IDS_KEY = "viewProfile:docs";
+    static final String FORMAT_FIELD = "_format";
+    /**
+     * Version 2 may contain compressed sections, version 1 never does. Both are read by the same codec.
+     */
+    static final String FORMAT_VERSION = "2";
+    private static final Set<String> READABLE_FORMAT_VERSIONS = Set.of("1", FORMAT_VERSION);
+    static final String VERSION_FIELD = "_version";
+    private static final String EXPECT_ABSENT = "absent";
+    private static final Set<ViewProfileSection> ALL_SECTIONS = EnumSet.allOf(ViewProfileSection.class);
+
+    /**
+     * Compares the version, writes the fields and increments the version in one step.
+     * KEYS: document, set of ids. ARGV: expected version, empty or <code>absent</code>, new version or empty, id, then
+     * field value pairs. Returns {1, new version} on success and {0, current version} on a version mismatch.
+     */
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Long>> WRITE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], '" + VERSION_FIELD + "') or '0')\n" +
+            "if ARGV[1] == '" + EXPECT_ABSENT + "' then\n" +
+            "  if redis.call('EXISTS', KEYS[1]) == 1 then return {0, current} end\n" +
+            "elseif ARGV[1] ~= '' and tonumber(ARGV[1]) ~= current then\n" +
+            "  return {0, current}\n" +
+            "end\n" +
+            "local new = current + 1\n" +
+            "if ARGV[2] ~= '' then new = tonumber(ARGV[2]) end\n" +
+            "for i = 4, #ARGV, 2 do\n" +
+            "  redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], '" + VERSION_FIELD + "', new)\n" +
+            "redis.call('SADD', KEYS[2], ARGV[3])\n" +
+            "return {1, new}", (Class<List<Long>>) (Class<?>) List.class);
+
+    private final RedisTemplate<String, byte[]> binaryTemplate;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ViewProfileCodec codec;
+
+    BlobViewProfileStore(RedisTemplate<String, byte[]> binaryTemplate, StringRedisTemplate redisTemplate,
+                         ViewProfileCodec codec) {
+        this.binaryTemplate = binaryTemplate;
+        this.redisTemplate = redisTemplate;
+        this.codec = codec;
+    }
+
+    static String docKey(String id) {
+        return DOC_PREFIX + id;
+    }
+
+    @Override
+    public Optional<ViewProfile> findById(String id) {
+        return toViewProfile(id, binaryTemplate.<String, byte[]>opsForHash().entries(docKey(id)), ALL_SECTIONS);
+    }
+
+    @Override
+    public Optional<ViewProfile> findSectionsById(String id, Set<ViewProfileSection> sections) {
+        List<String> fieldNames = new ArrayList<>(List.of(FORMAT_FIELD, VERSION_FIELD));
+        sections.forEach(section -> fieldNames.add(section.getFieldName()));
+        List<byte[]> values = binaryTemplate.<String, byte[]>opsForHash().multiGet(docKey(id), fieldNames);
+        Map<String, byte[]> fields = new HashMap<>();
+        for (int i = 0; i < fieldNames.size(); i++) {
+            if (values.get(i) != null) {
+                fields.put(fieldNames.get(i), values.get(i));
+            }
+        }
+        return toViewProfile(id, fields, sections);
+    }
+
+    /**
+     * Reads all view profiles in one pipeline.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ViewProfile> findAllById(Collection<String> ids) {
+        List<String> idList = new ArrayList<>(ids);
+        List<Object> results = binaryTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            idList.forEach(id -> connection.hGetAll(bytesOf(docKey(id))));
+            return null;
+        });
+        List<ViewProfile> viewProfiles = new ArrayList<>();
+        for (int i = 0; i < idList.size(); i++) {
+            toViewProfile(idList.get(i), (Map<String, byte[]>) results.get(i), ALL_SECTIONS)
+                    .ifPresent(viewProfiles::add);
+        }
+        return viewProfiles;
+    }
+
+    /**
+     * @return the view profile with <code>sections</code> read from <code>fields</code>, only tracked if all sections
+     * were read
+     */
+    private Optional<ViewProfile> toViewProfile(String id, Map<String, byte[]> fields,
+                                                Set<ViewProfileSection> sections) {
+        if (fields == null || fields.isEmpty()) {
+            return Optional.empty();
+        }
+        byte[] format = fields.get(FORMAT_FIELD);
+        if (format == null || !READABLE_FORMAT_VERSIONS.contains(new String(format, StandardCharsets.UTF_8))) {
+            throw new IllegalStateException("Unsupported storage format of view profile " + id);
+        }
+        Map<ViewProfileSection, byte[]> encoded = new EnumMap<>(ViewProfileSection.class);
+        for (ViewProfileSection section : sections) {
+            byte[] bytes = fields.get(section.getFieldName());
+            if (bytes != null) {
+                encoded.put(section, bytes);
+            }
+        }
+        ViewProfile viewProfile = sections.containsAll(ALL_SECTIONS) ? decode(id, encoded) : codec.decode(id, encoded);
+        byte[] version = fields.get(VERSION_FIELD);
+        viewProfile.setVersion(version == null ? 0 : Long.parseLong(new String(version, StandardCharsets.UTF_8)));
+        return Optional.of(viewProfile);
+    }
+
+    /**
+     * @return the {@link ViewProfile} encoded as <code>encoded</code>, tracked as persisted in that state
+     */
+    ViewProfile decode(String id, Map<ViewProfileSection, byte[]> encoded) {
+        ViewProfile viewProfile = codec.decode(id, encoded);
+        viewProfile.markPersisted(encoded);
+        return viewProfile;
+    }
+
+    /**
+     * @return the {@link ViewProfile} with only the <code>sections</code> of <code>encoded</code>, not tracked
+     */
+    ViewProfile decodeSections(String id, Map<ViewProfileSection, byte[]> encoded, Set<ViewProfileSection> sections) {
+        Map<ViewProfileSection, byte[]> selected = new EnumMap<>(ViewProfileSection.class);
+        sections.stream().filter(encoded::containsKey).forEach(section -> selected.put(section, encoded.get(section)));
+        return codec.decode(id, selected);
+    }
+
+    Map<ViewProfileSection, byte[]> encode(ViewProfile viewProfile) {
+        return codec.encode(viewProfile);
+    }
+
+    Object decode(ViewProfileSection section, byte[] bytes) {
+        return codec.decode(section, bytes);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(IDS_KEY, id));
+    }
+
+    @Override
+    public Set<String> findAllIds() {
+        Set<String> ids = redisTemplate.opsForSet().members(IDS_KEY);
+        return ids == null ? new HashSet<>() : ids;
+    }
+
+    @Override
+    public ViewProfileIdPage scanIds(String cursor, int count) {
+        return ViewProfileIdPage.scan(redisTemplate, IDS_KEY, cursor, count);
+    }
+
+    @Override
+    public long count() {
+        Long size = redisTemplate.opsForSet().size(IDS_KEY);
+        return size == null ? 0 : size;
+    }
+
+    @Override
+    public void save(ViewProfile viewProfile) {
+        Map<ViewProfileSection, byte[]> encoded = encode(viewProfile);
+        viewProfile.setVersion(write(viewProfile.getId(), encoded, viewProfile.getVersion(), null));
+        viewProfile.markPersisted(encoded);
+    }
+
+    @Override
+    public boolean saveChanges(ViewProfile viewProfile) {
+        Map<ViewProfileSection, byte[]> encoded = encode(viewProfile);
+        Set<ViewProfileSection> changed = viewProfile.changedSections(encoded);
+        if (changed.isEmpty()) {
+            return false;
+        }
+        Map<ViewProfileSection, byte[]> changes = new EnumMap<>(ViewProfileSection.class);
+        changed.forEach(section -> changes.put(section, encoded.get(section)));
+        viewProfile.setVersion(write(viewProfile.getId(), changes, viewProfile.getVersion(), null));
+        viewProfile.markPersisted(encoded);
+        return true;
+    }
+
+    /**
+     * Atomically writes <code>sections</code> of the view profile <code>id</code>, leaving all other sections as
+     * they are.
+     *
+     * @param expectedVersion the version the view profile must be at, <code>null</code> to write unconditionally
+     * @param newVersion      the version after the write, <code>null</code> for the next one
+     * @return the version after the write
+     * @throws ViewProfileConflictException if the view profile is not at <code>expectedVersion</code>
+     */
+    long write(String id, Map<ViewProfileSection, byte[]> sections, Long expectedVersion, Long newVersion) {
+        String expected = expectedVersion == null ? "" : expectedVersion.toString();
+        List<Long> result = binaryTemplate.execute(WRITE_SCRIPT, List.of(docKey(id), IDS_KEY),
+                writeArgs(id, sections, expected, newVersion).toArray());
+        if (result == null || result.get(0) != 1L) {
+            long currentVersion = result == null ? currentVersion(id) : result.get(1);
+            throw new ViewProfileConflictException(id, expectedVersion == null ? -1 : expectedVersion, currentVersion);
+        }
+        return result.get(1);
+    }
+
+    private static List<byte[]> writeArgs(String id, Map<ViewProfileSection, byte[]> sections, String expected,
+                                          Long newVersion) {
+        List<byte[]> args = new ArrayList<>();
+        args.add(bytesOf(expected));
+        args.add(bytesOf(newVersion == null ? "" : newVersion.toString()));
+        args.add(bytesOf(id));
+        args.add(bytesOf(FORMAT_FIELD));
+        args.add(bytesOf(FORMAT_VERSION));
+        sections.forEach((section, bytes) -> {
+            args.add(bytesOf(section.getFieldName()));
+            args.add(bytes);
+        });
+        return args;
+    }
+
+    /**
+     * Writes all view profiles that are not stored yet in one pipeline.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ViewProfile> insertAll(Collection<ViewProfile> viewProfiles) {
+        List<ViewProfile> viewProfileList = new ArrayList<>(viewProfiles);
+        List<Map<ViewProfileSection, byte[]>> encoded = new ArrayList<>();
+        viewProfileList.forEach(viewProfile -> encoded.add(encode(viewProfile)));
+        byte[] sha = bytesOf(WRITE_SCRIPT.getSha1());
+        byte[] idsKey = bytesOf(IDS_KEY);
+        binaryTemplate.execute((RedisCallback<Object>) connection -> connection.scriptLoad(bytesOf(WRITE_SCRIPT.getScriptAsString())));
+        List<Object> results = binaryTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < viewProfileList.size(); i++) {
+                String id = viewProfileList.get(i).getId();
+                List<byte[]> keysAndArgs = new ArrayList<>();
+                keysAndArgs.add(bytesOf(docKey(id)));
+                keysAndArgs.add(idsKey);
+                keysAndArgs.addAll(writeArgs(id, encoded.get(i), EXPECT_ABSENT, null));
+                connection.evalSha(sha, ReturnType.MULTI, 2, keysAndArgs.toArray(new byte[0][]));
+            }
+            return null;
+        });
+        List<ViewProfile> inserted = new ArrayList<>();
+        for (int i = 0; i < viewProfileList.size(); i++) {
+            List<Long> result = (List<Long>) results.get(i);
+            if (result.get(0) == 1L) {
+                ViewProfile viewProfile = viewProfileList.get(i);
+                viewProfile.setVersion(result.get(1));
+                viewProfile.markPersisted(encoded.get(i));
+                inserted.add(viewProfile);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * @return the version of the stored view profile <code>id</code>, 0 if it is not stored or was never versioned
+     */
+    long currentVersion(String id) {
+        byte[] version = binaryTemplate.<String, byte[]>opsForHash().get(docKey(id), VERSION_FIELD);
+        return version == null ? 0 : Long.parseLong(new String(version, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        binaryTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                operations.multi();
+                operations.delete(docKey(id));
+                operations.opsForSet().remove(IDS_KEY, (Object) id.getBytes(StandardCharsets.UTF_8));
+                return operations.exec();
+            }
+        });
+    }
+
+    @Override
+    public Optional<String> findOwner(String id) {
+        byte[] info = binaryTemplate.<String, byte[]>opsForHash()
+                .get(docKey(id), ViewProfileSection.VIEW_PROFILE_INFO.getFieldName());
+        return Optional.ofNullable(info)
+                .map(bytes -> (ViewProfileInfo) decode(ViewProfileSection.VIEW_PROFILE_INFO, bytes))
+                .map(ViewProfileInfo::getOwnerInitials);
+    }
+}
@@ -0,0 +1,160 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Stores view profiles the way spring data maps {@link org.springframework.data.redis.core.RedisHash} entities.
+ */
+class HashViewProfileStore implements ViewProfileStore {
+
+    static final String KEYSPACE = "viewProfile";
+    private static final String OWNER_FIELD = "viewProfileInfo.ownerInitials";
+    private static final String VERSION_FIELD = "version";
+
+    /**
+     * Compares the version, replaces all fields and increments the version in one step.
+     * KEYS: hash, set of ids. ARGV: expected version or empty, id, then field value pairs.
+     * Returns {1, new version} on success and {0, current version} on a version mismatch.
+     */
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Long>> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "local current = tonumber(redis.call('HGET', KEYS[1], '" + VERSION_FIELD + "') or '0')\n" +
+            "if ARGV[1] ~= '' and tonumber(ARGV[1]) ~= current then return {0, current} end\n" +
+            "local new = current + 1\n" +
+            "redis.call('DEL', KEYS[1])\n" +
+            "for i = 3, #ARGV, 2 do\n" +
+            "  redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], '" + VERSION_FIELD + "', new)\n" +
+            "redis.call('SADD', KEYS[2], ARGV[2])\n" +
+            "return {1, new}", (Class<List<Long>>) (Class<?>) List.class);
+
+    private final RedisKeyValueTemplate keyValueTemplate;
+
+    private final StringRedisTemplate redisTemplate;
+
+    HashViewProfileStore(RedisKeyValueTemplate keyValueTemplate, StringRedisTemplate redisTemplate) {
+        this.keyValueTemplate = keyValueTemplate;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Optional<ViewProfile> findById(String id) {
+        return keyValueTemplate.findById(id, ViewProfile.class);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(KEYSPACE, id));
+    }
+
+    @Override
+    public Set<String> findAllIds() {
+        Set<String> ids = redisTemplate.opsForSet().members(KEYSPACE);
+        return ids == null ? new HashSet<>() : ids;
+    }
+
+    /**
+     * Reads all view profiles in one pipeline and maps them like spring data does.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ViewProfile> findAllById(Collection<String> ids) {
+        List<String> idList = new ArrayList<>(ids);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            idList.forEach(id -> connection.hGetAll(key(id).getBytes(StandardCharsets.UTF_8)));
+            return null;
+        });
+        List<ViewProfile> viewProfiles = new ArrayList<>();
+        for (int i = 0; i < idList.size(); i++) {
+            Map<String, String> fields = (Map<String, String>) results.get(i);
+            if (fields != null && !fields.isEmpty()) {
+                RedisData data = new RedisData(Bucket.newBucketFromStringMap(fields));
+                data.setId(idList.get(i));
+                data.setKeyspace(KEYSPACE);
+                viewProfiles.add(keyValueTemplate.getConverter().read(ViewProfile.class, data));
+            }
+        }
+        return viewProfiles;
+    }
+
+    @Override
+    public ViewProfileIdPage scanIds(String cursor, int count) {
+        return ViewProfileIdPage.scan(redisTemplate, KEYSPACE, cursor, count);
+    }
+
+    @Override
+    public long count() {
+        Long size = redisTemplate.opsForSet().size(KEYSPACE);
+        return size == null ? 0 : size;
+    }
+
+    /**
+     * Maps the view profile like spring data does and replaces the stored one with {@link #SAVE_SCRIPT}, so the
+     * version is compared and the view profile written in one step.
+     */
+    @Override
+    public void save(ViewProfile viewProfile) {
+        RedisData data = new RedisData();
+        keyValueTemplate.getConverter().write(viewProfile, data);
+        List<String> args = new ArrayList<>();
+        args.add(viewProfile.getVersion() == null ? "" : viewProfile.getVersion().toString());
+        args.add(viewProfile.getId());
+        data.getBucket().rawMap().forEach((field, value) -> {
+            String fieldName = new String(field, StandardCharsets.UTF_8);
+            if (!VERSION_FIELD.equals(fieldName)) {
+                args.add(fieldName);
+                args.add(new String(value, StandardCharsets.UTF_8));
+            }
+        });
+        List<Long> result = redisTemplate.execute(SAVE_SCRIPT, List.of(key(viewProfile.getId()), KEYSPACE),
+                args.toArray());
+        if (result == null || result.get(0) != 1L) {
+            long currentVersion = result == null ? -1 : result.get(1);
+            throw new ViewProfileConflictException(viewProfile.getId(),
+                    viewProfile.getVersion() == null ? -1 : viewProfile.getVersion(), currentVersion);
+        }
+        viewProfile.setVersion(result.get(1));
+    }
+
+    @Override
+    public void deleteById(String id) {
+        keyValueTemplate.delete(id, ViewProfile.class);
+    }
+
+    /**
+     * Deletes all view profiles in one pipeline, with the same keys spring data deletes.
+     */
+    @Override
+    public void deleteAllById(Collection<String> ids) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[] keyspace = KEYSPACE.getBytes(StandardCharsets.UTF_8);
+            ids.forEach(id -> {
+                connection.del(key(id).getBytes(StandardCharsets.UTF_8), (key(id) + ":idx").getBytes(StandardCharsets.UTF_8));
+                connection.sRem(keyspace, id.getBytes(StandardCharsets.UTF_8));
+            });
+            return null;
+        });
+    }
+
+    private static String key(String id) {
+        return KEYSPACE + ":" + id;
+    }
+
+    @Override
+    public Optional<String> findOwner(String id) {
+        return Optional.ofNullable(redisTemplate.opsForHash().get(key(id), OWNER_FIELD))
+                .map(Object::toString);
+    }
+}
@@ -0,0 +1,327 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps the most recently used view profiles of a {@link BlobViewProfileStore} in memory, so reads of hot view
+ * profiles do not go to redis.
+ * <p>
+ *     Entries hold the encoded sections, not the view profile itself. Callers modify the view profiles they read,
+ *     so every hit decodes a private copy, tracked as persisted in the cached state. A hit saves the round trip to
+ *     redis and its load, not the decoding; see <code>viewprofile.codec.decode</code> for what decoding costs.
+ * </p>
+ * <p>
+ *     Caching decoded view profiles would need a deep copy per hit instead. The sections form one object graph,
+ *     with skills referencing the display categories that list them, so a copy walks the same graph the decoder
+ *     builds and costs about as much. It would also have to follow every change of the model, which the codec
+ *     already handles through Jackson. The encoded sections are also what change tracking compares against, so
+ *     the entry needs them anyway.
+ * </p>
+ * <p>
+ *     Every write of this node updates its own entry and publishes the id on
+ *     <code>viewProfile:invalidations</code>, which makes all other nodes drop their entry. Entries expire after
+ *     a time to live, which bounds how long an entry survives a missed message. A stale entry can not overwrite
+ *     newer data, its save fails the version check and drops the entry.
+ * </p>
+ */
+class NearCacheViewProfileStore implements ViewProfileStore {
+
+    private static final Logger LOG = LogManager.getLogger(NearCacheViewProfileStore.class);
+
+    static final String INVALIDATION_CHANNEL = "viewProfile:invalidations";
+
+    private final ViewProfileStore delegate;
+
+    /**
+     * Store the cached sections are encoded for
+     */
+    private final BlobViewProfileStore blobStore;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final long timeToLiveNanos;
+
+    /**
+     * Distinguishes the messages of this node from the ones of other nodes
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Entries in access order, the least recently used one is evicted first
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Incremented whenever an entry is dropped, so a read that started before does not cache what it read
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    NearCacheViewProfileStore(ViewProfileStore delegate, BlobViewProfileStore blobStore,
+                              StringRedisTemplate redisTemplate, int maxSize, Duration timeToLive,
+                              MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.blobStore = blobStore;
+        this.redisTemplate = redisTemplate;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+        this.listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(INVALIDATION_CHANNEL));
+        this.listenerContainer.afterPropertiesSet();
+        this.listenerContainer.start();
+        this.hits = Counter.builder("viewprofile.nearcache.requests").tag("result", "hit")
+                .description("Reads of view profiles served by the near cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("viewprofile.nearcache.requests").tag("result", "miss")
+                .description("Reads of view profiles served by the near cache")
+                .register(meterRegistry);
+        Gauge.builder("viewprofile.nearcache.size", this, NearCacheViewProfileStore::size)
+                .description("View profiles held by the near cache")
+                .register(meterRegistry);
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized Entry get(String id) {
+        Entry entry = entries.get(id);
+        if (entry != null && System.nanoTime() - entry.cachedAt > timeToLiveNanos) {
+            entries.remove(id);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Caches the sections unless an entry of the same or a newer version exists, or an entry was dropped since
+     * <code>seenInvalidations</code>.
+     */
+    private synchronized void cache(String id, Map<ViewProfileSection, byte[]> sections, Long version,
+                                    long seenInvalidations) {
+        if (sections == null || version == null || invalidations.get() != seenInvalidations) {
+            return;
+        }
+        Entry existing = entries.get(id);
+        if (existing == null || existing.version < version) {
+            entries.put(id, new Entry(new EnumMap<>(sections), version, System.nanoTime()));
+        }
+    }
+
+    private synchronized void evict(String id) {
+        invalidations.incrementAndGet();
+        entries.remove(id);
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator > 0 && !nodeId.equals(body.substring(0, separator))) {
+            evict(body.substring(separator + 1));
+        }
+    }
+
+    private void publishInvalidation(String id) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + id);
+        } catch (RuntimeException e) {
+            LOG.error("Could not publish invalidation of view profile " + id, e);
+        }
+    }
+
+    private ViewProfile decode(String id, Entry entry) {
+        ViewProfile viewProfile = blobStore.decode(id, entry.sections);
+        viewProfile.setVersion(entry.version);
+        return viewProfile;
+    }
+
+    @Override
+    public Optional<ViewProfile> findById(String id) {
+        Entry entry = get(id);
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(decode(id, entry));
+        }
+        misses.increment();
+        long seenInvalidations = invalidations.get();
+        Optional<ViewProfile> viewProfile = delegate.findById(id);
+        viewProfile.ifPresent(loaded -> cache(id, loaded.persistedSections(), loaded.getVersion(), seenInvalidations));
+        return viewProfile;
+    }
+
+    /**
+     * Hits decode only <code>sections</code>, misses are not cached because only <code>sections</code> are read.
+     */
+    @Override
+    public Optional<ViewProfile> findSectionsById(String id, Set<ViewProfileSection> sections) {
+        Entry entry = get(id);
+        if (entry != null) {
+            hits.increment();
+            ViewProfile viewProfile = blobStore.decodeSections(id, entry.sections, sections);
+            viewProfile.setVersion(entry.version);
+            return Optional.of(viewProfile);
+        }
+        misses.increment();
+        return delegate.findSectionsById(id, sections);
+    }
+
+    @Override
+    public List<ViewProfile> findAllById(Collection<String> ids) {
+        List<ViewProfile> result = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            Entry entry = get(id);
+            if (entry != null) {
+                hits.increment();
+                result.add(decode(id, entry));
+            } else {
+                misses.increment();
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long seenInvalidations = invalidations.get();
+            for (ViewProfile loaded : delegate.findAllById(missing)) {
+                cache(loaded.getId(), loaded.persistedSections(), loaded.getVersion(), seenInvalidations);
+                result.add(loaded);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return get(id) != null || delegate.existsById(id);
+    }
+
+    @Override
+    public Set<String> findAllIds() {
+        return delegate.findAllIds();
+    }
+
+    @Override
+    public ViewProfileIdPage scanIds(String cursor, int count) {
+        return delegate.scanIds(cursor, count);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void save(ViewProfile viewProfile) {
+        write(viewProfile, () -> {
+            delegate.save(viewProfile);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean saveChanges(ViewProfile viewProfile) {
+        return write(viewProfile, () -> delegate.saveChanges(viewProfile));
+    }
+
+    private boolean write(ViewProfile viewProfile, BooleanSupplier operation) {
+        String id = viewProfile.getId();
+        long seenInvalidations = invalidations.get();
+        boolean written;
+        try {
+            written = operation.getAsBoolean();
+        } catch (ViewProfileConflictException e) {
+            evict(id);
+            throw e;
+        }
+        if (written) {
+            publishInvalidation(id);
+            cache(id, viewProfile.persistedSections(), viewProfile.getVersion(), seenInvalidations);
+        }
+        return written;
+    }
+
+    @Override
+    public List<ViewProfile> insertAll(Collection<ViewProfile> viewProfiles) {
+        List<ViewProfile> inserted = delegate.insertAll(viewProfiles);
+        inserted.forEach(viewProfile -> publishInvalidation(viewProfile.getId()));
+        return inserted;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        delegate.deleteById(id);
+        // After the delete, so a concurrent read can not cache the deleted view profile again
+        evict(id);
+        publishInvalidation(id);
+    }
+
+    @Override
+    public void deleteAllById(Collection<String> ids) {
+        delegate.deleteAllById(ids);
+        ids.forEach(this::evict);
+        ids.forEach(this::publishInvalidation);
+    }
+
+    @Override
+    public Optional<String> findOwner(String id) {
+        Entry entry = get(id);
+        if (entry != null) {
+            ViewProfileInfo info = (ViewProfileInfo) blobStore.decode(ViewProfileSection.VIEW_PROFILE_INFO,
+                    entry.sections.get(ViewProfileSection.VIEW_PROFILE_INFO));
+            return Optional.ofNullable(info.getOwnerInitials());
+        }
+        return delegate.findOwner(id);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            LOG.error("Could not stop listening for view profile invalidations", e);
+        }
+    }
+
+    private static class Entry {
+        private final Map<ViewProfileSection, byte[]> sections;
+
+        private final long version;
+
+        private final long cachedAt;
+
+        private Entry(Map<ViewProfileSection, byte[]> sections, long version, long cachedAt) {
+            this.sections = sections;
+            this.version = version;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.hbt.pwr.view.repo;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import de.hbt.pwr.view.model.skill.Skill;
+import de.hbt.pwr.view.model.skill.SkillVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the {@link ViewProfileSection}s of a {@link ViewProfile} into Smile, a binary JSON format, and
+ * compresses them with the {@link ViewProfileCompressor}.
+ */
+class ViewProfileCodec {
+
+    private final ObjectMapper objectMapper;
+
+    private final ViewProfileCompressor compressor;
+
+    private final Timer encodeTimer;
+
+    private final Timer decodeTimer;
+
+    ViewProfileCodec(ViewProfileCompressor compressor, MeterRegistry meterRegistry) {
+        this.compressor = compressor;
+        this.objectMapper = new ObjectMapper(new SmileFactory())
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .addMixIn(Skill.class, SkillMixIn.class);
+        this.encodeTimer = Timer.builder("viewprofile.codec.encode")
+                .description("Time spent encoding whole view profiles, including compression")
+                .register(meterRegistry);
+        this.decodeTimer = Timer.builder("viewprofile.codec.decode")
+                .description("Time spent decoding whole view profiles, including decompression")
+                .register(meterRegistry);
+    }
+
+    Map<ViewProfileSection, byte[]> encode(ViewProfile viewProfile) {
+        return encodeTimer.record(() -> {
+            Map<ViewProfileSection, byte[]> result = new EnumMap<>(ViewProfileSection.class);
+            for (ViewProfileSection section : ViewProfileSection.values()) {
+                result.put(section, encode(viewProfile, section));
+            }
+            return result;
+        });
+    }
+
+    byte[] encode(ViewProfile viewProfile, ViewProfileSection section) {
+        try {
+            return compressor.compress(objectMapper.writeValueAsBytes(section.extract(viewProfile)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode " + section + " of view profile " + viewProfile.getId(), e);
+        }
+    }
+
+    Object decode(ViewProfileSection section, byte[] bytes) {
+        try {
+            return objectMapper.readValue(compressor.decompress(bytes), section.getJavaType(objectMapper.getTypeFactory()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode " + section, e);
+        }
+    }
+
+    /**
+     * Sections missing in <code>encoded</code> keep the defaults of a new {@link ViewProfile}.
+     */
+    ViewProfile decode(String id, Map<ViewProfileSection, byte[]> encoded) {
+        return decodeTimer.record(() -> {
+            ViewProfile viewProfile = new ViewProfile();
+            viewProfile.setId(id);
+            encoded.forEach((section, bytes) -> section.apply(viewProfile, decode(section, bytes)));
+            return viewProfile;
+        });
+    }
+
+    /**
+     * {@link Skill#setVersions(List)} takes version names, so the versions are mapped by field
+     * to keep {@link SkillVersion#getEnabled()}.
+     */
+    @SuppressWarnings("unused")
+    private abstract static class SkillMixIn {
+        @JsonProperty
+        private List<SkillVersion> versions;
+
+        @JsonIgnore
+        public abstract void setVersions(List<String> names);
+    }
+}
@@ -0,0 +1,86 @@
+package de.hbt.pwr.view.repo;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses encoded sections with LZ4 once they reach a configurable size. Small sections are stored as they are,
+ * as compressing them saves little memory but costs time on every read and write.
+ * <p>
+ *     Compressed values start with {@link #LZ4_MARKER} followed by the uncompressed length. Uncompressed values are
+ *     Smile documents, which always start with the Smile header, so both are told apart by the first byte.
+ * </p>
+ */
+class ViewProfileCompressor {
+
+    static final byte LZ4_MARKER = 'L';
+
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES;
+
+    private final int threshold;
+
+    private final LZ4Compressor compressor;
+
+    private final LZ4FastDecompressor decompressor;
+
+    private final Timer compressTimer;
+
+    private final Timer decompressTimer;
+
+    private final DistributionSummary compressionRatio;
+
+    /**
+     * @param threshold minimum size in bytes from which on values are compressed. Negative values disable compression.
+     */
+    ViewProfileCompressor(int threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+        this.compressTimer = Timer.builder("viewprofile.codec.compress")
+                .description("Time spent compressing view profile sections")
+                .register(meterRegistry);
+        this.decompressTimer = Timer.builder("viewprofile.codec.decompress")
+                .description("Time spent decompressing view profile sections")
+                .register(meterRegistry);
+        this.compressionRatio = DistributionSummary.builder("viewprofile.codec.compression.ratio")
+                .description("Compressed size divided by uncompressed size of compressed view profile sections")
+                .scale(100)
+                .baseUnit("percent")
+                .register(meterRegistry);
+    }
+
+    byte[] compress(byte[] bytes) {
+        if (threshold < 0 || bytes.length < threshold) {
+            return bytes;
+        }
+        return compressTimer.record(() -> {
+            byte[] buffer = new byte[HEADER_LENGTH + compressor.maxCompressedLength(bytes.length)];
+            int compressedLength = compressor.compress(bytes, 0, bytes.length, buffer, HEADER_LENGTH);
+            if (HEADER_LENGTH + compressedLength >= bytes.length) {
+                return bytes;
+            }
+            ByteBuffer.wrap(buffer).put(LZ4_MARKER).putInt(bytes.length);
+            compressionRatio.record((double) (HEADER_LENGTH + compressedLength) / bytes.length);
+            byte[] result = new byte[HEADER_LENGTH + compressedLength];
+            System.arraycopy(buffer, 0, result, 0, result.length);
+            return result;
+        });
+    }
+
+    byte[] decompress(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != LZ4_MARKER) {
+            return bytes;
+        }
+        return decompressTimer.record(() -> {
+            int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+            return decompressor.decompress(bytes, HEADER_LENGTH, length);
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package de.hbt.pwr.view.repo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of view profile ids returned by a redis <code>SSCAN</code>. Scanning continues with {@link #getCursor()}
+ * until it is {@link #START_CURSOR} again. A cursor stays valid across restarts, so an interrupted scan can be
+ * resumed from a stored cursor. Ids may be returned more than once.
+ */
+@Getter
+@AllArgsConstructor
+public class ViewProfileIdPage {
+
+    public static final String START_CURSOR = "0";
+
+    /**
+     * <code>SSCAN</code> with a given cursor, which the cursors of spring data do not support
+     */
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Object>> SCAN_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('SSCAN', KEYS[1], ARGV[1], 'COUNT', ARGV[2])", (Class<List<Object>>) (Class<?>) List.class);
+
+    private final String cursor;
+
+    private final List<String> ids;
+
+    public boolean isLast() {
+        return START_CURSOR.equals(cursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    static ViewProfileIdPage scan(StringRedisTemplate redisTemplate, String key, String cursor, int count) {
+        List<Object> result = redisTemplate.execute(SCAN_SCRIPT, Collections.singletonList(key), cursor, String.valueOf(count));
+        if (result == null || result.size() < 2) {
+            return new ViewProfileIdPage(START_CURSOR, new ArrayList<>());
+        }
+        return new ViewProfileIdPage(result.get(0).toString(), new ArrayList<>((List<String>) result.get(1)));
+    }
+}
@@ -4,6 +4,45 @@ import de.hbt.pwr.view.model.ViewProfile;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
+/**
+ * Operations are declared again because both {@link CrudRepository} and {@link ViewProfileRepositoryCustom}
+ * define them; the implementation in {@link ViewProfileRepositoryCustomImpl} takes precedence.
+ */
 @Repository
-public interface ViewProfileRepository extends CrudRepository<ViewProfile, String> {
+public interface ViewProfileRepository extends CrudRepository<ViewProfile, String>, ViewProfileRepositoryCustom {
+
+    @Override
+    Optional<ViewProfile> findById(String id);
+
+    @Override
+    boolean existsById(String id);
+
+    @Override
+    Iterable<ViewProfile> findAll();
+
+    @Override
+    Iterable<ViewProfile> findAllById(Iterable<String> ids);
+
+    @Override
+    long count();
+
+    @Override
+    <S extends ViewProfile> S save(S viewProfile);
+
+    @Override
+    <S extends ViewProfile> Iterable<S> saveAll(Iterable<S> viewProfiles);
+
+    @Override
+    void deleteById(String id);
+
+    @Override
+    void delete(ViewProfile viewProfile);
+
+    @Override
+    void deleteAll(Iterable<? extends ViewProfile> viewProfiles);
+
+    @Override
+    void deleteAll();
 }
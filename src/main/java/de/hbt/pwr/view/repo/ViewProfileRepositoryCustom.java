@@ -0,0 +1,101 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Custom persistence operations of the {@link ViewProfileRepository}.
+ * <p>
+ *     All operations of {@link org.springframework.data.repository.CrudRepository} are overridden here, so
+ *     view profiles are stored in the configured {@link ViewProfileStorageFormat} and every save and delete keeps
+ *     the owner index in sync. The owner index maps
+ *     {@link ViewProfileInfo#getOwnerInitials()} to the ids of the owned view profiles, so listing the profiles
+ *     of a consultant does not need to load every {@link ViewProfile}.
+ * </p>
+ *
+ * @see ViewProfileRepositoryCustomImpl
+ */
+public interface ViewProfileRepositoryCustom {
+
+    Optional<ViewProfile> findById(String id);
+
+    /**
+     * Reads only <code>sections</code> and the version of a view profile, as far as the storage format allows. The
+     * other sections keep the defaults of a new {@link ViewProfile}, so the result is marked as partial and can not
+     * be saved.
+     *
+     * @see ViewProfile#hasAllSections()
+     */
+    Optional<ViewProfile> findSectionsById(String id, Set<ViewProfileSection> sections);
+
+    boolean existsById(String id);
+
+    Iterable<ViewProfile> findAll();
+
+    Iterable<ViewProfile> findAllById(Iterable<String> ids);
+
+    long count();
+
+    /**
+     * @throws IllegalStateException if <code>viewProfile</code> was read partially
+     */
+    <S extends ViewProfile> S save(S viewProfile);
+
+    /**
+     * Like {@link #save(ViewProfile)}, but only writes the parts of <code>viewProfile</code> that changed since it
+     * was read or last written. Nothing is written if nothing changed.
+     *
+     * @return <code>true</code> if anything was written
+     * @throws IllegalStateException if <code>viewProfile</code> was read partially
+     */
+    boolean saveChanges(ViewProfile viewProfile);
+
+    <S extends ViewProfile> Iterable<S> saveAll(Iterable<S> viewProfiles);
+
+    void deleteById(String id);
+
+    void delete(ViewProfile viewProfile);
+
+    void deleteAll(Iterable<? extends ViewProfile> viewProfiles);
+
+    void deleteAll();
+
+    /**
+     * @param initials of the owner
+     * @return the ids of all view profiles owned by <code>initials</code>, read from the owner index
+     */
+    List<String> findIdsByOwnerInitials(String initials);
+
+    /**
+     * Rebuilds the owner index from the persisted view profiles. Only needed once for data that was
+     * stored before the index existed. Safe to run while view profiles are saved and deleted.
+     *
+     * @return the number of indexed view profiles
+     */
+    long rebuildOwnerIndex();
+
+    /**
+     * Scans the ids of view profiles that {@link #migrate(Collection)} moves into the configured
+     * {@link ViewProfileStorageFormat}. These are the ones of the legacy layout, or all if the legacy layout
+     * is the configured one.
+     *
+     * @param cursor to continue from, {@link ViewProfileIdPage#START_CURSOR} to start a new scan
+     * @param count  hint for the number of ids to return
+     */
+    ViewProfileIdPage scanForMigration(String cursor, int count);
+
+    /**
+     * Moves the view profiles of <code>ids</code> into the configured {@link ViewProfileStorageFormat}, reading and
+     * writing them in pipelines. View profiles that already exist in the configured format are kept and only their
+     * legacy copy is deleted. If the legacy layout is the configured one, the view profiles are stored again.
+     *
+     * @return the number of migrated view profiles
+     */
+    int migrate(Collection<String> ids);
+}
@@ -0,0 +1,418 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Stores view profiles in the configured {@link ViewProfileStorageFormat} and keeps an owner index next to them.
+ * <p>
+ *     When storing as {@link ViewProfileStorageFormat#BLOB}, view profiles that are still stored as
+ *     {@link ViewProfileStorageFormat#HASH} remain readable. Deleting and saving such a view profile again, as done
+ *     by the data conversion, moves it into the blob format.
+ * </p>
+ * <p>
+ *     With a <code>power.view.storage.write-behind-window</code> set, saves are buffered and written once per window,
+ *     see {@link WriteBehindViewProfileStore}. With a <code>power.view.cache.max-size</code> set, recently used
+ *     view profiles are kept in memory, see {@link NearCacheViewProfileStore}.
+ * </p>
+ * <p>
+ *     Every save that wrote something and every delete publishes a {@link ViewProfileWrittenEvent}.
+ * </p>
+ * <p>
+ *     The index consists of one set per owner (<code>viewProfile:owner:{initials}</code>) holding the ids of
+ *     the owned view profiles, and one hash (<code>viewProfile:owners</code>) that maps each id to its owner. The
+ *     hash allows to clean up the owner set on delete without loading the view profile.
+ * </p>
+ */
+class ViewProfileRepositoryCustomImpl implements ViewProfileRepositoryCustom {
+
+    private static final Logger LOG = LogManager.getLogger(ViewProfileRepositoryCustomImpl.class);
+
+    static final String OWNER_INDEX_PREFIX = "viewProfile:owner:";
+    static final String OWNERS_KEY = "viewProfile:owners";
+
+    /**
+     * Removes an id from an owner set, and from the hash if it still maps it to that owner.
+     * KEYS: hash, owner set. ARGV: id, owner.
+     */
+    private static final RedisScript<Long> UNINDEX_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then redis.call('HDEL', KEYS[1], ARGV[1]) end\n" +
+            "return redis.call('SREM', KEYS[2], ARGV[1])", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ViewProfileStore store;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Store of the legacy layout that is still read from, <code>null</code> if it is the configured one
+     */
+    private final ViewProfileStore legacyStore;
+
+    ViewProfileRepositoryCustomImpl(RedisKeyValueTemplate keyValueTemplate,
+                                    RedisConnectionFactory redisConnectionFactory,
+                                    ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${power.view.storage.format:BLOB}") ViewProfileStorageFormat format,
+                                    @Value("${power.view.storage.compression-threshold:1024}") int compressionThreshold,
+                                    @Value("${power.view.storage.write-behind-window:0ms}") Duration writeBehindWindow,
+                                    @Value("${power.view.cache.max-size:0}") int cacheMaxSize,
+                                    @Value("${power.view.cache.time-to-live:5m}") Duration cacheTimeToLive) {
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.eventPublisher = eventPublisher;
+        ViewProfileStore hashStore = new HashViewProfileStore(keyValueTemplate, redisTemplate);
+        if (format == ViewProfileStorageFormat.HASH) {
+            this.store = hashStore;
+            this.legacyStore = null;
+        } else {
+            // Not every context has an actuator registry, e.g. slices in tests
+            MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+            ViewProfileCompressor compressor = new ViewProfileCompressor(compressionThreshold, meterRegistry);
+            ViewProfileCodec codec = new ViewProfileCodec(compressor, meterRegistry);
+            BlobViewProfileStore blobStore = new BlobViewProfileStore(binaryTemplate(redisConnectionFactory), redisTemplate, codec);
+            ViewProfileStore store = blobStore;
+            if (!writeBehindWindow.isZero() && !writeBehindWindow.isNegative()) {
+                store = new WriteBehindViewProfileStore(blobStore, writeBehindWindow, meterRegistry);
+                LOG.info("Writing view profiles behind with a window of " + writeBehindWindow);
+            }
+            if (cacheMaxSize > 0) {
+                store = new NearCacheViewProfileStore(store, blobStore, redisTemplate, cacheMaxSize, cacheTimeToLive,
+                        meterRegistry);
+                LOG.info("Caching up to " + cacheMaxSize + " view profiles for " + cacheTimeToLive);
+            }
+            this.store = store;
+            this.legacyStore = hashStore;
+        }
+        LOG.info("Storing view profiles as " + format);
+    }
+
+    @PreDestroy
+    void close() {
+        store.close();
+    }
+
+    static RedisTemplate<String, byte[]> binaryTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static String ownerKey(String initials) {
+        return OWNER_INDEX_PREFIX + initials;
+    }
+
+    private static String ownerOf(ViewProfile viewProfile) {
+        return viewProfile.getViewProfileInfo() != null ? viewProfile.getViewProfileInfo().getOwnerInitials() : null;
+    }
+
+    private Set<String> findAllIds() {
+        Set<String> ids = new LinkedHashSet<>(store.findAllIds());
+        if (legacyStore != null) {
+            ids.addAll(legacyStore.findAllIds());
+        }
+        return ids;
+    }
+
+    @Override
+    public Optional<ViewProfile> findById(String id) {
+        Optional<ViewProfile> viewProfile = store.findById(id);
+        if (viewProfile.isPresent() || legacyStore == null) {
+            return viewProfile;
+        }
+        return findLegacy(id);
+    }
+
+    private Optional<ViewProfile> findLegacy(String id) {
+        // Versions of the legacy store do not exist in the configured one, saving moves the view profile over
+        return legacyStore.findById(id).map(legacy -> {
+            legacy.setVersion(null);
+            return legacy;
+        });
+    }
+
+    @Override
+    public Optional<ViewProfile> findSectionsById(String id, Set<ViewProfileSection> sections) {
+        Optional<ViewProfile> viewProfile = store.findSectionsById(id, sections);
+        if (viewProfile.isEmpty() && legacyStore != null) {
+            // The legacy layout can only be read as a whole
+            viewProfile = findLegacy(id);
+        }
+        viewProfile.ifPresent(ViewProfile::markPartial);
+        return viewProfile;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return store.existsById(id) || (legacyStore != null && legacyStore.existsById(id));
+    }
+
+    @Override
+    public Iterable<ViewProfile> findAll() {
+        return findAllById(findAllIds());
+    }
+
+    @Override
+    public Iterable<ViewProfile> findAllById(Iterable<String> ids) {
+        List<ViewProfile> result = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(result::add));
+        return result;
+    }
+
+    @Override
+    public long count() {
+        return legacyStore == null ? store.count() : findAllIds().size();
+    }
+
+    @Override
+    public <S extends ViewProfile> S save(S viewProfile) {
+        checkComplete(viewProfile);
+        if (viewProfile.getId() == null) {
+            viewProfile.setId(UUID.randomUUID().toString());
+        }
+        store.save(viewProfile);
+        index(viewProfile.getId(), ownerOf(viewProfile));
+        publishWritten(viewProfile.getId(), viewProfile.getVersion());
+        return viewProfile;
+    }
+
+    @Override
+    public boolean saveChanges(ViewProfile viewProfile) {
+        checkComplete(viewProfile);
+        if (viewProfile.getId() == null) {
+            save(viewProfile);
+            return true;
+        }
+        boolean written = store.saveChanges(viewProfile);
+        if (written) {
+            index(viewProfile.getId(), ownerOf(viewProfile));
+            publishWritten(viewProfile.getId(), viewProfile.getVersion());
+        }
+        return written;
+    }
+
+    private static void checkComplete(ViewProfile viewProfile) {
+        if (!viewProfile.hasAllSections()) {
+            throw new IllegalStateException("View profile " + viewProfile.getId()
+                    + " was read partially and can not be saved");
+        }
+    }
+
+    @Override
+    public <S extends ViewProfile> Iterable<S> saveAll(Iterable<S> viewProfiles) {
+        List<S> result = new ArrayList<>();
+        viewProfiles.forEach(viewProfile -> result.add(save(viewProfile)));
+        return result;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.deleteById(id);
+        if (legacyStore != null) {
+            legacyStore.deleteById(id);
+        }
+        unindex(id);
+        publishWritten(id, null);
+    }
+
+    private void publishWritten(String id, Long version) {
+        eventPublisher.publishEvent(new ViewProfileWrittenEvent(id, version));
+    }
+
+    @Override
+    public void delete(ViewProfile viewProfile) {
+        deleteById(viewProfile.getId());
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends ViewProfile> viewProfiles) {
+        viewProfiles.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        findAllIds().forEach(this::deleteById);
+    }
+
+    @Override
+    public List<String> findIdsByOwnerInitials(String initials) {
+        Set<String> ids = redisTemplate.opsForSet().members(ownerKey(initials));
+        return ids == null ? new ArrayList<>() : new ArrayList<>(ids);
+    }
+
+    private Optional<String> findOwner(String id) {
+        Optional<String> owner = store.findOwner(id);
+        if (owner.isPresent() || legacyStore == null) {
+            return owner;
+        }
+        return legacyStore.findOwner(id);
+    }
+
+    /**
+     * Adds missing and corrects wrong entries, then removes the entries of view profiles that no longer exist or
+     * have another owner. Keys are never deleted as a whole and every entry is checked against the stored view
+     * profile right before it is changed, so saves and deletes running meanwhile keep their own entries.
+     */
+    @Override
+    public long rebuildOwnerIndex() {
+        long indexed = 0;
+        for (String id : findAllIds()) {
+            Optional<String> owner = findOwner(id);
+            if (owner.isPresent()) {
+                index(id, owner.get());
+                // The set may miss the id even if the hash has it
+                redisTemplate.opsForSet().add(ownerKey(owner.get()), id);
+                indexed++;
+            }
+        }
+        redisTemplate.<String, String>opsForHash().entries(OWNERS_KEY).forEach(this::unindexIfStale);
+        for (String key : scanOwnerKeys()) {
+            String owner = key.substring(OWNER_INDEX_PREFIX.length());
+            Set<String> ids = redisTemplate.opsForSet().members(key);
+            if (ids != null) {
+                ids.forEach(id -> unindexIfStale(id, owner));
+            }
+        }
+        LOG.info("Rebuilt owner index for " + indexed + " view profiles");
+        return indexed;
+    }
+
+    /**
+     * Removes <code>id</code> from the index of <code>owner</code> unless the stored view profile is owned by
+     * <code>owner</code>.
+     */
+    private void unindexIfStale(String id, String owner) {
+        Optional<String> currentOwner = findOwner(id);
+        if (currentOwner.isPresent() && currentOwner.get().equals(owner)) {
+            return;
+        }
+        redisTemplate.execute(UNINDEX_SCRIPT, List.of(OWNERS_KEY, ownerKey(owner)), id, owner);
+        currentOwner.ifPresent(current -> index(id, current));
+    }
+
+    private Set<String> scanOwnerKeys() {
+        return redisTemplate.execute((RedisCallback<Set<String>>) connection -> {
+            Set<String> keys = new HashSet<>();
+            ScanOptions options = ScanOptions.scanOptions().match(OWNER_INDEX_PREFIX + "*").count(1000).build();
+            try (Cursor<byte[]> cursor = connection.scan(options)) {
+                cursor.forEachRemaining(key -> keys.add(new String(key, StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not scan owner index", e);
+            }
+            return keys;
+        });
+    }
+
+    @Override
+    public ViewProfileIdPage scanForMigration(String cursor, int count) {
+        return (legacyStore != null ? legacyStore : store).scanIds(cursor, count);
+    }
+
+    @Override
+    public int migrate(Collection<String> ids) {
+        if (legacyStore == null) {
+            int migrated = 0;
+            for (ViewProfile viewProfile : store.findAllById(ids)) {
+                try {
+                    save(viewProfile);
+                    migrated++;
+                } catch (ViewProfileConflictException e) {
+                    LOG.debug("View profile " + viewProfile.getId() + " changed during migration, keeping it as is");
+                }
+            }
+            return migrated;
+        }
+        List<ViewProfile> inserted = store.insertAll(legacyStore.findAllById(ids));
+        Map<String, String> ownerById = new HashMap<>();
+        inserted.stream()
+                .filter(viewProfile -> ownerOf(viewProfile) != null)
+                .forEach(viewProfile -> ownerById.put(viewProfile.getId(), ownerOf(viewProfile)));
+        indexAll(ownerById);
+        legacyStore.deleteAllById(ids);
+        inserted.forEach(viewProfile -> publishWritten(viewProfile.getId(), viewProfile.getVersion()));
+        return inserted.size();
+    }
+
+    /**
+     * Indexes view profiles in one pipeline. Only for view profiles that are not indexed with another owner.
+     */
+    private void indexAll(Map<String, String> ownerById) {
+        if (ownerById.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                ownerById.forEach((id, owner) -> operations.opsForSet().add(ownerKey(owner), id));
+                operations.opsForHash().putAll(OWNERS_KEY, ownerById);
+                return null;
+            }
+        });
+    }
+
+    private void index(String id, String owner) {
+        if (owner == null) {
+            unindex(id);
+            return;
+        }
+        Object previous = redisTemplate.opsForHash().get(OWNERS_KEY, id);
+        if (owner.equals(previous)) {
+            return;
+        }
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<Object> execute(RedisOperations operations) throws DataAccessException {
+                operations.multi();
+                if (previous != null) {
+                    operations.opsForSet().remove(ownerKey(previous.toString()), id);
+                }
+                operations.opsForSet().add(ownerKey(owner), id);
+                operations.opsForHash().put(OWNERS_KEY, id, owner);
+                return operations.exec();
+            }
+        });
+    }
+
+    private void unindex(String id) {
+        Object previous = redisTemplate.opsForHash().get(OWNERS_KEY, id);
+        if (previous != null) {
+            redisTemplate.opsForSet().remove(ownerKey(previous.toString()), id);
+            redisTemplate.opsForHash().delete(OWNERS_KEY, id);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package de.hbt.pwr.view.repo;
+
+/**
+ * Layout in which view profiles are stored in redis, configured by <code>power.view.storage.format</code>.
+ */
+public enum ViewProfileStorageFormat {
+    /**
+     * One redis hash per view profile with one field per leaf value, as mapped by spring data.
+     */
+    HASH,
+
+    /**
+     * One redis hash per view profile with one binary field per {@link de.hbt.pwr.view.model.ViewProfileSection}.
+     */
+    BLOB
+}
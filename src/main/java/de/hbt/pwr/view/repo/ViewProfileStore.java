@@ -0,0 +1,101 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileSection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads and writes view profiles in one {@link ViewProfileStorageFormat}.
+ */
+interface ViewProfileStore {
+
+    Optional<ViewProfile> findById(String id);
+
+    /**
+     * Reads only <code>sections</code> and the version of a view profile. The other sections keep the defaults of a
+     * new {@link ViewProfile}. The result is not tracked, see {@link #saveChanges(ViewProfile)}. Stores that can not
+     * read sections independently read the whole view profile.
+     */
+    default Optional<ViewProfile> findSectionsById(String id, Set<ViewProfileSection> sections) {
+        return findById(id);
+    }
+
+    boolean existsById(String id);
+
+    Set<String> findAllIds();
+
+    /**
+     * @return the stored view profiles of <code>ids</code>, missing ones are left out
+     */
+    default List<ViewProfile> findAllById(Collection<String> ids) {
+        List<ViewProfile> result = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(result::add));
+        return result;
+    }
+
+    /**
+     * @param cursor to continue from, {@link ViewProfileIdPage#START_CURSOR} to start a new scan
+     * @param count  hint for the number of ids to return
+     */
+    ViewProfileIdPage scanIds(String cursor, int count);
+
+    long count();
+
+    /**
+     * @param viewProfile to store, the id must already be set
+     */
+    void save(ViewProfile viewProfile);
+
+    /**
+     * Writes only what changed since <code>viewProfile</code> was last read or written. Stores that do not track
+     * changes write everything.
+     *
+     * @param viewProfile to store, the id must already be set
+     * @return <code>false</code> if nothing was written because nothing changed
+     */
+    default boolean saveChanges(ViewProfile viewProfile) {
+        save(viewProfile);
+        return true;
+    }
+
+    /**
+     * Stores each of <code>viewProfiles</code> unless a view profile with its id is already stored. The default
+     * checks and stores in separate steps.
+     *
+     * @return the view profiles that were stored
+     */
+    default List<ViewProfile> insertAll(Collection<ViewProfile> viewProfiles) {
+        List<ViewProfile> inserted = new ArrayList<>();
+        for (ViewProfile viewProfile : viewProfiles) {
+            if (!existsById(viewProfile.getId())) {
+                viewProfile.setVersion(null);
+                save(viewProfile);
+                inserted.add(viewProfile);
+            }
+        }
+        return inserted;
+    }
+
+    void deleteById(String id);
+
+    default void deleteAllById(Collection<String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    /**
+     * Reads the owner initials without reading the whole view profile.
+     */
+    Optional<String> findOwner(String id);
+
+    /**
+     * Writes everything that is not yet written and releases held resources. Called on shutdown.
+     */
+    default void close() {
+        // Nothing held by default
+    }
+}
@@ -0,0 +1,30 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.model.ViewProfile;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by the {@link ViewProfileRepository} after a {@link ViewProfile} was written or deleted by this node.
+ * Listeners run on the writing thread.
+ */
+@Getter
+@ToString
+public class ViewProfileWrittenEvent {
+
+    private final String viewProfileId;
+
+    /**
+     * Version after the write, <code>null</code> if the view profile was deleted
+     */
+    private final Long version;
+
+    public ViewProfileWrittenEvent(String viewProfileId, Long version) {
+        this.viewProfileId = viewProfileId;
+        this.version = version;
+    }
+
+    public boolean isDeleted() {
+        return version == null;
+    }
+}
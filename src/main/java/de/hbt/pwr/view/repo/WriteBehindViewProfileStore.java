@@ -0,0 +1,253 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers writes to a {@link BlobViewProfileStore} and flushes them once per window, so a burst of operations
+ * on the same view profile results in a single write of the sections changed by the whole burst.
+ * <p>
+ *     Reads of this node are served from the buffer, so they always see the latest save. Other nodes see the
+ *     changes once they are flushed. Deletes are written immediately.
+ * </p>
+ * <p>
+ *     Versions are checked against the buffered version, or the stored one if nothing is buffered. A flush only
+ *     writes if the stored view profile is still at the version the buffered saves started from. If another node
+ *     wrote it meanwhile, the buffered changes are logged as lost and dropped, so the write of the other node wins.
+ * </p>
+ */
+class WriteBehindViewProfileStore implements ViewProfileStore {
+
+    private static final Logger LOG = LogManager.getLogger(WriteBehindViewProfileStore.class);
+
+    private final BlobViewProfileStore delegate;
+
+    /**
+     * Pending writes by view profile id. Entries are replaced, never modified, so a flush can tell whether
+     * an entry changed while it was written.
+     */
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor;
+
+    private final Counter coalescedWrites;
+
+    private final Counter lostWrites;
+
+    /**
+     * Serializes flushing and deleting, so a flush does not write a view profile that was deleted meanwhile.
+     */
+    private final Object writeLock = new Object();
+
+    WriteBehindViewProfileStore(BlobViewProfileStore delegate, Duration window, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "view-profile-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flush, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+        this.coalescedWrites = Counter.builder("viewprofile.writebehind.coalesced")
+                .description("Saves of view profiles that were merged into a pending write")
+                .register(meterRegistry);
+        this.lostWrites = Counter.builder("viewprofile.writebehind.lost")
+                .description("Pending writes dropped because the view profile was written by another node")
+                .register(meterRegistry);
+        Gauge.builder("viewprofile.writebehind.pending", pending, Map::size)
+                .description("View profiles with changes that are not yet written")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<ViewProfile> findById(String id) {
+        PendingWrite write = pending.get(id);
+        if (write != null) {
+            ViewProfile viewProfile = delegate.decode(id, write.sections);
+            viewProfile.setVersion(write.version);
+            return Optional.of(viewProfile);
+        }
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<ViewProfile> findSectionsById(String id, Set<ViewProfileSection> sections) {
+        PendingWrite write = pending.get(id);
+        if (write != null) {
+            ViewProfile viewProfile = delegate.decodeSections(id, write.sections, sections);
+            viewProfile.setVersion(write.version);
+            return Optional.of(viewProfile);
+        }
+        return delegate.findSectionsById(id, sections);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return pending.containsKey(id) || delegate.existsById(id);
+    }
+
+    @Override
+    public Set<String> findAllIds() {
+        Set<String> ids = new HashSet<>(delegate.findAllIds());
+        ids.addAll(pending.keySet());
+        return ids;
+    }
+
+    @Override
+    public ViewProfileIdPage scanIds(String cursor, int count) {
+        return delegate.scanIds(cursor, count);
+    }
+
+    @Override
+    public long count() {
+        return findAllIds().size();
+    }
+
+    @Override
+    public void save(ViewProfile viewProfile) {
+        Map<ViewProfileSection, byte[]> encoded = delegate.encode(viewProfile);
+        buffer(viewProfile, encoded, encoded.keySet());
+        viewProfile.markPersisted(encoded);
+    }
+
+    @Override
+    public boolean saveChanges(ViewProfile viewProfile) {
+        Map<ViewProfileSection, byte[]> encoded = delegate.encode(viewProfile);
+        Set<ViewProfileSection> changed = viewProfile.changedSections(encoded);
+        if (changed.isEmpty()) {
+            return false;
+        }
+        buffer(viewProfile, encoded, changed);
+        viewProfile.markPersisted(encoded);
+        return true;
+    }
+
+    private void buffer(ViewProfile viewProfile, Map<ViewProfileSection, byte[]> encoded, Set<ViewProfileSection> changed) {
+        String id = viewProfile.getId();
+        Long expectedVersion = viewProfile.getVersion();
+        PendingWrite write = null;
+        while (write == null) {
+            // Read before compute, which holds the lock of the map bin while it runs
+            Long storedVersion = pending.containsKey(id) ? null : delegate.currentVersion(id);
+            write = pending.compute(id, (key, previous) -> {
+                if (previous == null && storedVersion == null) {
+                    // Flushed meanwhile, read the stored version again
+                    return null;
+                }
+                long currentVersion = previous != null ? previous.version : storedVersion;
+                if (expectedVersion != null && expectedVersion != currentVersion) {
+                    throw new ViewProfileConflictException(id, expectedVersion, currentVersion);
+                }
+                Set<ViewProfileSection> dirty = EnumSet.copyOf(changed);
+                if (previous != null) {
+                    dirty.addAll(previous.dirty);
+                    coalescedWrites.increment();
+                }
+                long baseVersion = previous != null ? previous.baseVersion : currentVersion;
+                return new PendingWrite(encoded, dirty, baseVersion, currentVersion + 1);
+            });
+        }
+        viewProfile.setVersion(write.version);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        synchronized (writeLock) {
+            pending.remove(id);
+            delegate.deleteById(id);
+        }
+    }
+
+    @Override
+    public Optional<String> findOwner(String id) {
+        PendingWrite write = pending.get(id);
+        if (write != null) {
+            ViewProfileInfo info = (ViewProfileInfo) delegate.decode(ViewProfileSection.VIEW_PROFILE_INFO,
+                    write.sections.get(ViewProfileSection.VIEW_PROFILE_INFO));
+            return Optional.ofNullable(info.getOwnerInitials());
+        }
+        return delegate.findOwner(id);
+    }
+
+    /**
+     * Writes all pending changes. Writes that conflict with a write of another node are dropped, other failed writes
+     * stay pending and are retried with the next flush.
+     */
+    void flush() {
+        synchronized (writeLock) {
+            for (Map.Entry<String, PendingWrite> entry : new ArrayList<>(pending.entrySet())) {
+                PendingWrite write = entry.getValue();
+                Map<ViewProfileSection, byte[]> changes = new EnumMap<>(ViewProfileSection.class);
+                write.dirty.forEach(section -> changes.put(section, write.sections.get(section)));
+                try {
+                    delegate.write(entry.getKey(), changes, write.baseVersion, write.version);
+                    // Saves during the write replaced the entry, they now start from the written version
+                    pending.computeIfPresent(entry.getKey(),
+                            (id, current) -> current == write ? null : current.rebase(write.version));
+                } catch (ViewProfileConflictException e) {
+                    LOG.error("Dropping pending write of view profile " + entry.getKey() + " at version " + write.version
+                            + ", it was written by another node since version " + write.baseVersion
+                            + ". Changed sections " + write.dirty + " are lost", e);
+                    pending.remove(entry.getKey());
+                    lostWrites.increment();
+                } catch (RuntimeException e) {
+                    LOG.error("Could not write view profile " + entry.getKey() + ", retrying with next flush", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        flush();
+        LOG.info("Flushed pending view profile writes");
+    }
+
+    private static class PendingWrite {
+        /**
+         * All encoded sections, to serve reads
+         */
+        private final Map<ViewProfileSection, byte[]> sections;
+
+        /**
+         * Sections changed since the last flush
+         */
+        private final Set<ViewProfileSection> dirty;
+
+        /**
+         * Stored version the buffered saves started from
+         */
+        private final long baseVersion;
+
+        /**
+         * Version after the write
+         */
+        private final long version;
+
+        private PendingWrite(Map<ViewProfileSection, byte[]> sections, Set<ViewProfileSection> dirty, long baseVersion,
+                             long version) {
+            this.sections = sections;
+            this.dirty = dirty;
+            this.baseVersion = baseVersion;
+            this.version = version;
+        }
+
+        private PendingWrite rebase(long baseVersion) {
+            return new PendingWrite(sections, dirty, baseVersion, version);
+        }
+    }
+}
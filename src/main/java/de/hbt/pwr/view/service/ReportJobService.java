@@ -0,0 +1,175 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.client.report.ReportServiceClient;
+import de.hbt.pwr.view.client.report.model.ReportInfo;
+import de.hbt.pwr.view.exception.ReportJobNotFoundException;
+import de.hbt.pwr.view.exception.ReportQueueFullException;
+import de.hbt.pwr.view.model.ReportJob;
+import de.hbt.pwr.view.model.ReportTemplate;
+import de.hbt.pwr.view.model.ViewProfile;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Generates reports in the background, so requests do not wait for the report service.
+ * <p>
+ *     Reports are generated by <code>power.view.report.workers</code> threads. Up to
+ *     <code>power.view.report.queue-capacity</code> further jobs wait for a worker, beyond that new jobs are
+ *     rejected. Jobs are kept in redis for <code>power.view.report.job-time-to-live</code>, so any instance can
+ *     answer for the state of a job.
+ * </p>
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger LOG = LogManager.getLogger(ReportJobService.class);
+
+    static final String JOB_PREFIX = "viewProfile:reportJob:";
+
+    private final ReportServiceClient reportServiceClient;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ThreadPoolExecutor workers;
+
+    private final int queueCapacity;
+
+    private final Duration jobTimeToLive;
+
+    public ReportJobService(ReportServiceClient reportServiceClient,
+                            StringRedisTemplate redisTemplate,
+                            @Value("${power.view.report.workers:4}") int workerCount,
+                            @Value("${power.view.report.queue-capacity:50}") int queueCapacity,
+                            @Value("${power.view.report.job-time-to-live:1h}") Duration jobTimeToLive) {
+        this.reportServiceClient = reportServiceClient;
+        this.redisTemplate = redisTemplate;
+        this.queueCapacity = queueCapacity;
+        this.jobTimeToLive = jobTimeToLive;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private static String jobKey(String jobId) {
+        return JOB_PREFIX + jobId;
+    }
+
+    /**
+     * Queues the generation of a DOC report of the view profile.
+     *
+     * @param template to use, <code>null</code> for the default one
+     * @return the queued job
+     * @throws ReportQueueFullException if the queue is full
+     */
+    public ReportJob submit(String initials, ViewProfile viewProfile, ReportTemplate template) {
+        ReportInfo reportInfo = ReportInfo.builder().viewProfile(viewProfile).initials(initials)
+                .name(viewProfile.getViewProfileInfo().getConsultantName())
+                .birthDate(viewProfile.getViewProfileInfo().getConsultantBirthDate())
+                .reportTemplate(template).build();
+        Integer charsPerLine = viewProfile.getViewProfileInfo().getCharsPerLine();
+        ReportJob job = ReportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .state(ReportJob.State.QUEUED)
+                .initials(initials)
+                .viewProfileId(viewProfile.getId())
+                .createdAt(Instant.now())
+                .build();
+        store(job);
+        try {
+            ReportJob workerCopy = job.toBuilder().build();
+            workers.execute(() -> generate(workerCopy, reportInfo, charsPerLine));
+        } catch (RejectedExecutionException e) {
+            redisTemplate.delete(jobKey(job.getId()));
+            throw new ReportQueueFullException(queueCapacity);
+        }
+        return job;
+    }
+
+    /**
+     * @return the job with the given id, if it was requested by the consultant with the given initials
+     * @throws ReportJobNotFoundException if there is no such job
+     */
+    public ReportJob getJob(String initials, String jobId) {
+        Map<String, String> fields = redisTemplate.<String, String>opsForHash().entries(jobKey(jobId));
+        if (fields.isEmpty() || !initials.equals(fields.get("initials"))) {
+            throw new ReportJobNotFoundException(jobId);
+        }
+        return ReportJob.builder()
+                .id(jobId)
+                .state(ReportJob.State.valueOf(fields.get("state")))
+                .initials(fields.get("initials"))
+                .viewProfileId(fields.get("viewProfileId"))
+                .location(fields.get("location"))
+                .error(fields.get("error"))
+                .createdAt(Instant.parse(fields.get("createdAt")))
+                .updatedAt(Instant.parse(fields.get("updatedAt")))
+                .build();
+    }
+
+    private void generate(ReportJob job, ReportInfo reportInfo, Integer charsPerLine) {
+        job.setState(ReportJob.State.RUNNING);
+        store(job);
+        try {
+            ResponseEntity<String> response = reportServiceClient.generateReport(reportInfo, "DOC", charsPerLine);
+            URI location = ofNullable(response).map(HttpEntity::getHeaders).map(HttpHeaders::getLocation)
+                    .orElse(URI.create(""));
+            job.setLocation(location.toString());
+            job.setState(ReportJob.State.DONE);
+        } catch (RuntimeException e) {
+            LOG.error("Could not generate report of view profile " + job.getViewProfileId(), e);
+            job.setError(e.getMessage());
+            job.setState(ReportJob.State.FAILED);
+        }
+        store(job);
+    }
+
+    private void store(ReportJob job) {
+        job.setUpdatedAt(Instant.now());
+        Map<String, String> fields = new HashMap<>();
+        fields.put("state", job.getState().name());
+        fields.put("initials", job.getInitials());
+        fields.put("viewProfileId", job.getViewProfileId());
+        fields.put("createdAt", job.getCreatedAt().toString());
+        fields.put("updatedAt", job.getUpdatedAt().toString());
+        if (job.getLocation() != null) {
+            fields.put("location", job.getLocation());
+        }
+        if (job.getError() != null) {
+            fields.put("error", job.getError());
+        }
+        String key = jobKey(job.getId());
+        redisTemplate.opsForHash().putAll(key, fields);
+        redisTemplate.expire(key, jobTimeToLive.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
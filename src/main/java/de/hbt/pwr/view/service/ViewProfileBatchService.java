@@ -0,0 +1,176 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.aspects.ViewProfileAutoSaveAspect;
+import de.hbt.pwr.view.exception.InvalidViewProfileOperationException;
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ProfileEntryType;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileOperation;
+import de.hbt.pwr.view.model.entries.sort.NameComparableEntryType;
+import de.hbt.pwr.view.model.entries.sort.StartEndDateComparableEntryType;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Applies a batch of {@link ViewProfileOperation} to a {@link ViewProfile} and writes it once.
+ * <p>
+ *     The operations are applied in order by the {@link ViewProfileOperationService} and the
+ *     {@link ViewProfileSortService} with auto save suspended. Once all succeeded, the changes are written in one
+ *     step that checks {@link ViewProfile#getVersion()} and published as one <code>batch</code> change. If any
+ *     operation fails, nothing is written.
+ * </p>
+ */
+@Service
+public class ViewProfileBatchService {
+
+    private static final Logger LOG = LogManager.getLogger(ViewProfileBatchService.class);
+
+    private final ViewProfileRepository viewProfileRepository;
+
+    private final ViewProfileChangeBroadcaster viewProfileChangeBroadcaster;
+
+    private final ViewProfileOperationService viewProfileOperationService;
+
+    private final ViewProfileSortService viewProfileSortService;
+
+    public ViewProfileBatchService(ViewProfileRepository viewProfileRepository,
+                                   ViewProfileChangeBroadcaster viewProfileChangeBroadcaster,
+                                   ViewProfileOperationService viewProfileOperationService,
+                                   ViewProfileSortService viewProfileSortService) {
+        this.viewProfileRepository = viewProfileRepository;
+        this.viewProfileChangeBroadcaster = viewProfileChangeBroadcaster;
+        this.viewProfileOperationService = viewProfileOperationService;
+        this.viewProfileSortService = viewProfileSortService;
+    }
+
+    /**
+     * Applies all <code>operations</code> to <code>viewProfile</code> and saves it once. If an operation fails,
+     * <code>viewProfile</code> may be partially changed, but nothing is saved.
+     *
+     * @return <code>viewProfile</code> after all operations were applied
+     * @throws InvalidViewProfileOperationException  if an operation can not be applied
+     * @throws ViewProfileConflictException          if the view profile was changed concurrently
+     */
+    public ViewProfile apply(@NotNull ViewProfile viewProfile, @NotNull List<ViewProfileOperation> operations) {
+        ViewProfileAutoSaveAspect.withoutAutoSave(() -> {
+            for (int i = 0; i < operations.size(); i++) {
+                apply(viewProfile, i, operations.get(i));
+            }
+            return viewProfile;
+        });
+        boolean written = viewProfileRepository.saveChanges(viewProfile);
+        if (written) {
+            viewProfileChangeBroadcaster.publish(viewProfile, "batch");
+        }
+        LOG.debug("Applied " + operations.size() + " operations to " + viewProfile.getId()
+                + (written ? "" : ", nothing changed"));
+        return viewProfile;
+    }
+
+    private void apply(ViewProfile viewProfile, int operationIndex, ViewProfileOperation operation) {
+        if (operation.getType() == null) {
+            throw new InvalidViewProfileOperationException(operationIndex, null,
+                    new IllegalArgumentException("No type given"));
+        }
+        try {
+            apply(viewProfile, operation);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | NullPointerException e) {
+            throw new InvalidViewProfileOperationException(operationIndex, operation.getType(), e);
+        }
+    }
+
+    private void apply(ViewProfile viewProfile, ViewProfileOperation operation) {
+        switch (operation.getType()) {
+            case SET_VISIBILITY:
+                viewProfileOperationService.setIsEnabled(viewProfile, operation.getIndex(), operation.getEnabled(),
+                        ProfileEntryType.valueOf(operation.getEntryType()));
+                break;
+            case SET_VISIBILITY_FOR_ALL:
+                viewProfileOperationService.setIsEnabledForAll(viewProfile,
+                        ProfileEntryType.valueOf(operation.getEntryType()), operation.getEnabled());
+                break;
+            case SET_SKILL_VISIBILITY:
+                if (operation.getSkillName() == null) {
+                    viewProfileOperationService.setIsEnabledForAllSkills(viewProfile, operation.getEnabled());
+                } else {
+                    viewProfileOperationService.setIsEnabledForSkill(viewProfile, operation.getSkillName(),
+                            operation.getEnabled());
+                }
+                break;
+            case SET_SKILL_VERSION_VISIBILITY:
+                viewProfileOperationService.setIsEnabledForVersionOfSkill(viewProfile, operation.getSkillName(),
+                        operation.getVersionName(), operation.getEnabled());
+                break;
+            case SET_PROJECT_SKILL_VISIBILITY:
+                if (operation.getSkillIndex() == null) {
+                    viewProfileOperationService.setIsEnabledForAllSkillsInProject(viewProfile,
+                            operation.getProjectIndex(), operation.getEnabled());
+                } else {
+                    viewProfileOperationService.setSkillInProjectEnabled(viewProfile, operation.getProjectIndex(),
+                            operation.getSkillIndex(), operation.getEnabled());
+                }
+                break;
+            case SET_PROJECT_ROLE_VISIBILITY:
+                if (operation.getRoleIndex() == null) {
+                    viewProfileOperationService.setIsEnabledForAllRolesInProject(viewProfile,
+                            operation.getProjectIndex(), operation.getEnabled());
+                } else {
+                    viewProfileOperationService.setRoleInProjectEnabled(viewProfile, operation.getProjectIndex(),
+                            operation.getRoleIndex(), operation.getEnabled());
+                }
+                break;
+            case SET_DISPLAY_CATEGORY:
+                viewProfileOperationService.setDisplayCategory(viewProfile, operation.getSkillName(),
+                        operation.getDisplayCategory());
+                break;
+            case MOVE:
+                viewProfileSortService.move(viewProfile, ProfileEntryType.valueOf(operation.getEntryType()),
+                        operation.getSourceIndex(), operation.getTargetIndex());
+                break;
+            case MOVE_SKILL_IN_DISPLAY_CATEGORY:
+                viewProfileSortService.moveSkillInDisplayCategory(viewProfile, operation.getDisplayCategoryIndex(),
+                        operation.getSourceIndex(), operation.getTargetIndex());
+                break;
+            case MOVE_SKILL_IN_PROJECT:
+                viewProfileSortService.moveSkillInProject(viewProfile, operation.getProjectIndex(),
+                        operation.getSourceIndex(), operation.getTargetIndex());
+                break;
+            case SORT_BY_NAME:
+                viewProfileSortService.sortEntryByName(viewProfile,
+                        NameComparableEntryType.valueOf(operation.getEntryType()), operation.getAscending());
+                break;
+            case SORT_BY_START_DATE:
+                viewProfileSortService.sortEntryByStartDate(viewProfile,
+                        StartEndDateComparableEntryType.valueOf(operation.getEntryType()), operation.getAscending());
+                break;
+            case SORT_BY_END_DATE:
+                viewProfileSortService.sortEntryByEndDate(viewProfile,
+                        StartEndDateComparableEntryType.valueOf(operation.getEntryType()), operation.getAscending());
+                break;
+            case SORT_SKILLS_IN_DISPLAY_CATEGORY_BY_NAME:
+                viewProfileSortService.sortSkillsInDisplayByName(viewProfile, operation.getDisplayCategoryIndex(),
+                        operation.getAscending());
+                break;
+            case SORT_SKILLS_IN_DISPLAY_CATEGORY_BY_RATING:
+                viewProfileSortService.sortSkillsInDisplayByRating(viewProfile, operation.getDisplayCategoryIndex(),
+                        operation.getAscending());
+                break;
+            case SORT_SKILLS_IN_PROJECT_BY_NAME:
+                viewProfileSortService.sortSkillsInProjectByName(viewProfile, operation.getProjectIndex(),
+                        operation.getAscending());
+                break;
+            case SORT_SKILLS_IN_PROJECT_BY_RATING:
+                viewProfileSortService.sortSkillsInProjectByRating(viewProfile, operation.getProjectIndex(),
+                        operation.getAscending());
+                break;
+            case SET_DESCRIPTION:
+                viewProfileOperationService.setDescription(viewProfile, operation.getDescription());
+                break;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package de.hbt.pwr.view.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileChange;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes saved changes of view profiles to the clients that follow them as server-sent events.
+ * <p>
+ *     Changes are published as {@link ViewProfileChange} on the redis channel <code>viewProfile:changes</code>, so
+ *     clients connected to any node receive the changes saved by all nodes. A node only subscribes to the channel
+ *     once the first client follows a view profile on it.
+ * </p>
+ * <p>
+ *     Streams end after <code>power.view.changes.timeout</code>, clients are expected to reconnect. The id of each
+ *     event is the version of the view profile after the change.
+ * </p>
+ */
+@Component
+public class ViewProfileChangeBroadcaster {
+
+    private static final Logger LOG = LogManager.getLogger(ViewProfileChangeBroadcaster.class);
+
+    static final String CHANNEL = "viewProfile:changes";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final long timeoutMillis;
+
+    /**
+     * Open streams by view profile id
+     */
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    /**
+     * Created when the first client follows a view profile
+     */
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    public ViewProfileChangeBroadcaster(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper,
+                                        @Value("${power.view.changes.timeout:30m}") Duration timeout) {
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Publishes the sections of <code>viewProfile</code> that changed with its last write. Failures are logged, the
+     * change itself is saved already.
+     *
+     * @param operation name of the operation that caused the change
+     */
+    public void publish(ViewProfile viewProfile, String operation) {
+        Set<ViewProfileSection> sections = viewProfile.lastWrittenSections();
+        List<String> paths = sections == null
+                ? List.of("")
+                : sections.stream().map(section -> "/" + section.getFieldName()).collect(Collectors.toList());
+        ViewProfileChange change = new ViewProfileChange(viewProfile.getId(), operation, paths, viewProfile.getVersion());
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(change));
+        } catch (JsonProcessingException | RuntimeException e) {
+            LOG.error("Could not publish change of view profile " + viewProfile.getId(), e);
+        }
+    }
+
+    /**
+     * @return a stream of the changes of the view profile <code>viewProfileId</code>, starting now
+     */
+    public SseEmitter subscribe(String viewProfileId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(viewProfileId, emitter);
+        return emitter;
+    }
+
+    void register(String viewProfileId, SseEmitter emitter) {
+        listen();
+        emitters.compute(viewProfileId, (id, followers) -> {
+            Set<SseEmitter> result = followers == null ? new CopyOnWriteArraySet<>() : followers;
+            result.add(emitter);
+            return result;
+        });
+        emitter.onCompletion(() -> unregister(viewProfileId, emitter));
+        emitter.onTimeout(() -> unregister(viewProfileId, emitter));
+        emitter.onError(e -> unregister(viewProfileId, emitter));
+    }
+
+    private void unregister(String viewProfileId, SseEmitter emitter) {
+        emitters.computeIfPresent(viewProfileId, (id, followers) -> {
+            followers.remove(emitter);
+            return followers.isEmpty() ? null : followers;
+        });
+    }
+
+    private synchronized void listen() {
+        if (listenerContainer == null) {
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(redisTemplate.getRequiredConnectionFactory());
+            listenerContainer.addMessageListener(this::onMessage, new ChannelTopic(CHANNEL));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+        }
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        ViewProfileChange change;
+        try {
+            change = objectMapper.readValue(message.getBody(), ViewProfileChange.class);
+        } catch (IOException e) {
+            LOG.error("Could not read change of a view profile", e);
+            return;
+        }
+        Set<SseEmitter> followers = emitters.get(change.getViewProfileId());
+        if (followers == null) {
+            return;
+        }
+        for (SseEmitter emitter : followers) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.getVersion()))
+                        .data(change, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                LOG.debug("Could not push change of view profile " + change.getViewProfileId() + ", closing stream");
+                unregister(change.getViewProfileId(), emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        emitters.values().forEach(followers -> followers.forEach(SseEmitter::complete));
+        emitters.clear();
+        if (listenerContainer != null) {
+            try {
+                listenerContainer.destroy();
+            } catch (Exception e) {
+                LOG.error("Could not stop listening for view profile changes", e);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package de.hbt.pwr.view.service;
 
+import de.hbt.pwr.view.aspects.ViewProfileAutoSaveAspect;
+import de.hbt.pwr.view.client.RemoteCallExecutor;
 import de.hbt.pwr.view.client.profile.ProfileServiceClient;
 import de.hbt.pwr.view.client.profile.model.*;
 import de.hbt.pwr.view.client.skill.SkillServiceClient;
@@ -27,6 +29,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static de.hbt.pwr.view.client.skill.model.SkillServiceCategory.other;
@@ -45,29 +49,48 @@ public class ViewProfileCreatorService {
     private final SkillServiceClient skillServiceClient;
     private final ViewProfileRepository viewProfileRepository;
     private final ViewProfileSortService viewProfileSortService;
+    private final RemoteCallExecutor remoteCallExecutor;
 
     public ViewProfile createViewProfile(String initials, String name, String viewDescription, String localeStr) {
         Locale locale = (localeStr == null || localeStr.equals("")) ? Locale.GERMAN : Locale.forLanguageTag(localeStr);
 
+        // Independent of each other, so both are requested at once
+        CompletableFuture<Profile> profileCall =
+                remoteCallExecutor.submit(() -> profileServiceClient.getSingleProfile(initials));
+        CompletableFuture<ResponseEntity<ConsultantInfo>> consultantCall =
+                remoteCallExecutor.submit(() -> profileServiceClient.findByInitials(initials));
         Profile profile;
         try {
-            profile = profileServiceClient.getSingleProfile(initials);
+            profile = remoteCallExecutor.await(profileCall, "Profile of " + initials);
         } catch (RuntimeException e) {
+            consultantCall.cancel(true);
             LOG.error("Could not get profile from client for " + initials, e);
             // Usually, this will be a HystrixRuntimeException, but docs are missing a bit of information,
             // so we'll catch a general exception
             throw new NoProfileAvailableException(initials);
         }
-        return createViewProfile(profile, initials, name, viewDescription, locale);
+        ViewProfile result = buildViewProfile(profile, consultantCall, initials, name, viewDescription, locale);
+        return viewProfileRepository.save(result);
     }
 
+    /**
+     * Builds a view profile from a profile that was already fetched, without storing it.
+     */
+    public ViewProfile buildViewProfile(Profile profile, String initials, String name, String viewDescription,
+                                        String localeStr) {
+        Locale locale = (localeStr == null || localeStr.equals("")) ? Locale.GERMAN : Locale.forLanguageTag(localeStr);
+        CompletableFuture<ResponseEntity<ConsultantInfo>> consultantCall =
+                remoteCallExecutor.submit(() -> profileServiceClient.findByInitials(initials));
+        return buildViewProfile(profile, consultantCall, initials, name, viewDescription, locale);
+    }
 
-    private ViewProfile createViewProfile(Profile profile, String initials, String name, String viewDescription, Locale locale) {
+
+    private ViewProfile buildViewProfile(Profile profile, CompletableFuture<ResponseEntity<ConsultantInfo>> consultantCall,
+                                         String initials, String name, String viewDescription, Locale locale) {
 
         ViewProfile result = new ViewProfile();
         result.setLocale(locale);
 
-        result.setViewProfileInfo(createInfo(initials, name, viewDescription));
         result.setDescription(profile.getDescription());
         result.setLanguages(profile.getLanguages().stream().map(ModelConvertUtil::mapLanguage).collect(Collectors.toList()));
         result.setQualifications(profile.getQualification().stream().map(ModelConvertUtil::mapQualification).collect(Collectors.toList()));
@@ -82,9 +105,15 @@ public class ViewProfileCreatorService {
 
 
         result.setDisplayCategories(createDisplayCategories(profile.getSkills()));
-        applyInitialSorting(result);
-        result = viewProfileRepository.save(result);
-        return result;
+        // Last, so the consultant lookup overlaps with the skill lookups
+        result.setViewProfileInfo(createInfo(initials, name, viewDescription, consultantCall));
+        result.getViewProfileInfo().setBaseProfileETag(profile.getETag());
+        result.getViewProfileInfo().setBaseProfileLastEdited(profile.getLastEdited());
+        // Not saved yet, the sort operations must not store it on their own
+        return ViewProfileAutoSaveAspect.withoutAutoSave(() -> {
+            applyInitialSorting(result);
+            return result;
+        });
     }
 
     private void applyInitialSorting(ViewProfile viewProfile) {
@@ -147,19 +176,27 @@ public class ViewProfileCreatorService {
         return projects.stream().map(this::mapProject).collect(Collectors.toList());
     }
 
-    private ViewProfileInfo createInfo(String initials, String name, String viewDescription) {
+    private ViewProfileInfo createInfo(String initials, String name, String viewDescription,
+                                       CompletableFuture<ResponseEntity<ConsultantInfo>> consultantCall) {
         ViewProfileInfo viewProfileInfo = new ViewProfileInfo();
         viewProfileInfo.setCreationDate(LocalDate.now());
         viewProfileInfo.setOwnerInitials(initials);
         viewProfileInfo.setViewDescription(viewDescription);
         viewProfileInfo.setName(name);
         viewProfileInfo.setCharsPerLine(45);
-        setConsultantData(viewProfileInfo, initials);
+        setConsultantData(viewProfileInfo, initials, consultantCall);
         return viewProfileInfo;
     }
 
-    private void setConsultantData(ViewProfileInfo viewProfileInfo, String initials) {
-        ResponseEntity<ConsultantInfo> response = profileServiceClient.findByInitials(initials);
+    private void setConsultantData(ViewProfileInfo viewProfileInfo, String initials,
+                                   CompletableFuture<ResponseEntity<ConsultantInfo>> consultantCall) {
+        ResponseEntity<ConsultantInfo> response;
+        try {
+            response = remoteCallExecutor.await(consultantCall, "Consultant info of " + initials);
+        } catch (RuntimeException e) {
+            LOG.error("Could not get consultant info from client for " + initials, e);
+            response = null;
+        }
         if (response != null && response.getBody() != null) {
             ConsultantInfo consultantInfo = response.getBody();
             viewProfileInfo.setConsultantBirthDate(consultantInfo.getBirthDate());
@@ -177,12 +214,16 @@ public class ViewProfileCreatorService {
 
     private List<Category> createDisplayCategories(Collection<ProfileSkill> profileSkills) {
         List<Category> displayCategories = new ArrayList<>();
-        profileSkills.forEach(profileSkill -> getDisplayCategoryForProfileSkill(profileSkill, displayCategories));
+        Map<String, SkillServiceSkill> serviceSkills = skillServiceClient.getSkillsByName(profileSkills.stream()
+                .map(ProfileSkill::getName)
+                .collect(Collectors.toList()));
+        profileSkills.forEach(profileSkill -> getDisplayCategoryForProfileSkill(profileSkill,
+                serviceSkills.get(profileSkill.getName()), displayCategories));
         return displayCategories;
     }
 
-    private void getDisplayCategoryForProfileSkill(ProfileSkill profileSkill, List<Category> displayCategories) {
-        SkillServiceSkill serviceSkill = skillServiceClient.getSkillByName(profileSkill.getName());
+    private void getDisplayCategoryForProfileSkill(ProfileSkill profileSkill, SkillServiceSkill serviceSkill,
+                                                   List<Category> displayCategories) {
         if (serviceSkill == null) {
             serviceSkill = skillServiceClient.getDefaultSkillByName(profileSkill.getName());
         }
@@ -195,10 +236,9 @@ public class ViewProfileCreatorService {
         );
         skill.setVersions(profileSkill.getVersions());
 
-        if (serviceSkill.getCategory() == null) {
-            serviceSkill.setCategory(other());
-        }
-        skill.setDisplayCategory(getDisplayCategory(serviceSkill.getCategory(), displayCategories));
+        // The skill may be cached by the client, so it is not modified
+        SkillServiceCategory serviceCategory = serviceSkill.getCategory() != null ? serviceSkill.getCategory() : other();
+        skill.setDisplayCategory(getDisplayCategory(serviceCategory, displayCategories));
     }
 
 
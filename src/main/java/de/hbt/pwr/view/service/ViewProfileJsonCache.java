@@ -0,0 +1,234 @@
+package de.hbt.pwr.view.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.repo.ViewProfileWrittenEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the JSON representation of recently read view profiles, so reading a view profile again does not
+ * decode and serialize it again. The bytes are written to responses as they are.
+ * <p>
+ *     Entries belong to one {@link ViewProfile#getVersion()} and are only served for that version, so an entry that
+ *     missed a write of another node is never returned. Writes of this node drop the entry right away, see
+ *     {@link ViewProfileWrittenEvent}.
+ * </p>
+ * <p>
+ *     With <code>power.view.json-cache.gzip</code> set, a gzip compressed copy is added to an entry the first time a
+ *     client accepts it. The cache holds at most <code>power.view.json-cache.max-size</code> bytes, including the
+ *     compressed copies, the least recently used entries are evicted first. A size of 0 disables the cache.
+ * </p>
+ */
+@Component
+public class ViewProfileJsonCache {
+
+    private static final Logger LOG = LogManager.getLogger(ViewProfileJsonCache.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final long maxBytes;
+
+    private final boolean gzipEnabled;
+
+    /**
+     * Entries by view profile id in access order, the least recently used one is evicted first
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Sum of the sizes of all entries
+     */
+    private long bytes;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    @Autowired
+    public ViewProfileJsonCache(ObjectMapper objectMapper,
+                                ObjectProvider<MeterRegistry> meterRegistryProvider,
+                                @Value("${power.view.json-cache.max-size:32MB}") DataSize maxSize,
+                                @Value("${power.view.json-cache.gzip:true}") boolean gzipEnabled) {
+        this(objectMapper, meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry), maxSize.toBytes(),
+                gzipEnabled);
+    }
+
+    ViewProfileJsonCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, long maxBytes, boolean gzipEnabled) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+        this.gzipEnabled = gzipEnabled;
+        this.hits = Counter.builder("viewprofile.jsoncache.requests").tag("result", "hit")
+                .description("Reads of serialized view profiles, by result in the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("viewprofile.jsoncache.requests").tag("result", "miss")
+                .description("Reads of serialized view profiles, by result in the cache")
+                .register(meterRegistry);
+        Gauge.builder("viewprofile.jsoncache.bytes", this, ViewProfileJsonCache::size)
+                .description("Bytes held by the cache of serialized view profiles")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+
+    private synchronized long size() {
+        return bytes;
+    }
+
+    /**
+     * @param gzip whether the gzip compressed JSON is wanted, ignored unless {@link #isGzipEnabled()}
+     * @return the cached JSON of <code>version</code> of the view profile <code>id</code>, <code>null</code> if it is
+     * not cached
+     */
+    public byte[] get(String id, long version, boolean gzip) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(id);
+        }
+        if (entry == null || entry.version != version) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (!gzip || !gzipEnabled) {
+            return entry.json;
+        }
+        byte[] compressed = entry.gzip;
+        if (compressed == null) {
+            // Compressed outside the lock, concurrent readers may compress the same entry
+            compressed = gzip(entry.json);
+            addGzip(id, entry, compressed);
+        }
+        return compressed;
+    }
+
+    /**
+     * Serializes <code>viewProfile</code> and caches it if it is versioned.
+     *
+     * @param gzip whether the gzip compressed JSON is wanted, ignored unless {@link #isGzipEnabled()}
+     * @return the JSON of <code>viewProfile</code>
+     */
+    public byte[] put(ViewProfile viewProfile, boolean gzip) {
+        Entry entry = new Entry(viewProfile.getVersion() == null ? -1 : viewProfile.getVersion(), serialize(viewProfile));
+        if (gzip && gzipEnabled) {
+            entry.gzip = gzip(entry.json);
+        }
+        if (viewProfile.getVersion() != null) {
+            cache(viewProfile.getId(), entry);
+        }
+        return entry.gzip != null ? entry.gzip : entry.json;
+    }
+
+    @EventListener
+    public void onWritten(ViewProfileWrittenEvent event) {
+        evict(event.getViewProfileId());
+    }
+
+    private synchronized void cache(String id, Entry entry) {
+        if (entry.size() > maxBytes) {
+            LOG.debug("Not caching the JSON of view profile " + id + ", " + entry.size() + " bytes exceed the cache");
+            return;
+        }
+        Entry existing = entries.get(id);
+        if (existing != null && existing.version > entry.version) {
+            return;
+        }
+        evict(id);
+        entries.put(id, entry);
+        bytes += entry.size();
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= leastRecentlyUsed.next().size();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private synchronized void addGzip(String id, Entry entry, byte[] gzip) {
+        // The entry may have been evicted or replaced meanwhile
+        if (entry.gzip != null || entries.get(id) != entry || entry.size() + gzip.length > maxBytes) {
+            return;
+        }
+        entry.gzip = gzip;
+        bytes += gzip.length;
+        Iterator<Map.Entry<String, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            Map.Entry<String, Entry> eldest = leastRecentlyUsed.next();
+            // Keeps the entry that was just read, it is the most recently used one anyway
+            if (eldest.getValue() != entry) {
+                bytes -= eldest.getValue().size();
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private synchronized void evict(String id) {
+        Entry removed = entries.remove(id);
+        if (removed != null) {
+            bytes -= removed.size();
+        }
+    }
+
+    private byte[] serialize(ViewProfile viewProfile) {
+        try {
+            return objectMapper.writeValueAsBytes(viewProfile);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize view profile " + viewProfile.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compress view profile", e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static class Entry {
+        private final long version;
+
+        private final byte[] json;
+
+        /**
+         * Added on first use, guarded by the cache
+         */
+        private volatile byte[] gzip;
+
+        private Entry(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+
+        private long size() {
+            byte[] compressed = gzip;
+            return json.length + (compressed == null ? 0 : compressed.length);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package de.hbt.pwr.view.service;
 
+import de.hbt.pwr.view.client.profile.ProfileServiceClient;
+import de.hbt.pwr.view.client.profile.model.Profile;
+import de.hbt.pwr.view.exception.NoProfileAvailableException;
 import de.hbt.pwr.view.exception.ViewProfileNotFoundException;
 import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
 import de.hbt.pwr.view.model.entries.Project;
 import de.hbt.pwr.view.model.entries.ProjectRole;
 import de.hbt.pwr.view.model.entries.ToggleableEntry;
@@ -14,8 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Slf4j
@@ -24,24 +28,74 @@ public class ViewProfileMergeService {
 
     private final ViewProfileRepository viewProfileRepository;
     private final ViewProfileCreatorService viewProfileCreatorService;
+    private final ProfileServiceClient profileServiceClient;
 
 
     @Autowired
-    public ViewProfileMergeService(ViewProfileRepository viewProfileRepository, ViewProfileCreatorService viewProfileCreatorService) {
+    public ViewProfileMergeService(ViewProfileRepository viewProfileRepository, ViewProfileCreatorService viewProfileCreatorService,
+                                   ProfileServiceClient profileServiceClient) {
 
         this.viewProfileRepository = viewProfileRepository;
         this.viewProfileCreatorService = viewProfileCreatorService;
+        this.profileServiceClient = profileServiceClient;
     }
 
+    /**
+     * Rebuilds the view profile from the current base profile, keeping the choices made in the old one. If the base
+     * profile did not change since the view profile was built, nothing is rebuilt and only name and description
+     * are updated.
+     */
     public ViewProfile updateViewProfile(String oldId, String initials, ViewProfile.ViewProfileMergeOptions options) {
         //1. get old ViewProfile (VP)
         ViewProfile oldView = viewProfileRepository.findById(oldId).orElseThrow(() -> new ViewProfileNotFoundException(oldId));
 
-        // 3. create new ViewProfile
-        ViewProfile newView = viewProfileCreatorService.createViewProfile(initials, options.name, options.viewDescription, "");
+        // 2. get the base profile, if it changed
+        ViewProfileInfo oldInfo = oldView.getViewProfileInfo();
+        Optional<Profile> profile;
+        try {
+            profile = profileServiceClient.getSingleProfileIfChanged(initials, oldInfo.getBaseProfileETag(),
+                    oldInfo.getBaseProfileLastEdited());
+        } catch (RuntimeException e) {
+            log.error("Could not get profile from client for " + initials, e);
+            throw new NoProfileAvailableException(initials);
+        }
+        if (profile.isEmpty() || isSameRevision(oldInfo, profile.get())) {
+            log.debug("Base profile of " + oldId + " did not change, skipping rebuild");
+            return updateUnchanged(oldView, options);
+        }
+
+        // 3. build new ViewProfile, stored once merged
+        ViewProfile newView = viewProfileCreatorService.buildViewProfile(profile.get(), initials, options.name,
+                options.viewDescription, "");
         return mergeViewProfiles(oldView, newView, options);
     }
 
+    /**
+     * @return whether the profile is the revision the view profile was built from, for profile services that do not
+     * answer conditional requests
+     */
+    private boolean isSameRevision(ViewProfileInfo info, Profile profile) {
+        if (info.getBaseProfileETag() != null && profile.getETag() != null) {
+            return info.getBaseProfileETag().equals(profile.getETag());
+        }
+        return info.getBaseProfileLastEdited() != null
+                && info.getBaseProfileLastEdited().equals(profile.getLastEdited());
+    }
+
+    private ViewProfile updateUnchanged(ViewProfile oldView, ViewProfile.ViewProfileMergeOptions options) {
+        ViewProfile result = oldView;
+        if (options.keepOld) {
+            // A fresh instance is an independent copy, stored as a new view profile
+            result = viewProfileRepository.findById(oldView.getId())
+                    .orElseThrow(() -> new ViewProfileNotFoundException(oldView.getId()));
+            result.setId(null);
+            result.setVersion(null);
+        }
+        result.getViewProfileInfo().setName(options.name);
+        result.getViewProfileInfo().setViewDescription(options.viewDescription);
+        return viewProfileRepository.save(result);
+    }
+
     ViewProfile mergeViewProfiles(ViewProfile oldView, ViewProfile newView, ViewProfile.ViewProfileMergeOptions options) {
 
         newView.getViewProfileInfo().setName(options.name);
@@ -67,25 +121,23 @@ public class ViewProfileMergeService {
         newView.setDisplayCategories(mergeDisplayCategories(oldView.getDisplayCategories(), newView.getDisplayCategories()));
 
         if (!options.keepOld) {
-            // delete the old one
-            viewProfileRepository.delete(oldView);
+            // Replaces the old one in a single write, which fails if it changed since it was read
+            newView.setId(oldView.getId());
+            newView.setVersion(oldView.getVersion());
         }
-        newView = viewProfileRepository.save(newView);
-        return newView;
+        return viewProfileRepository.save(newView);
     }
 
     private List<Project> mergeProjects(List<Project> oldList, List<Project> newList) {
+        Map<Long, Project> oldById = firstBy(oldList, Project::getId);
+        Map<Long, Integer> oldIndexById = indexBy(oldList, Project::getId);
         return newList.stream()
                 .map(newProject -> {
-                    Optional<Project> maybeOldProject = oldList.stream()
-                            .filter(oldProject -> Objects.equals(oldProject.getId(), newProject.getId()))
-                            .findAny();
-                    return maybeOldProject
-                            .map(project -> mergeProject(newProject, project))
-                            .orElse(newProject);
+                    Project oldProject = oldById.get(newProject.getId());
+                    return oldProject != null ? mergeProject(newProject, oldProject) : newProject;
                 })
                 .filter(Objects::nonNull)
-                .sorted(Comparator.comparing(newProject -> findIndexIn(oldList, newProject)))
+                .sorted(Comparator.comparing(newProject -> oldIndexById.get(newProject.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -98,70 +150,64 @@ public class ViewProfileMergeService {
     }
 
     private List<ProjectRole> mergeProjectRoles(List<ProjectRole> newProjectRoles, List<ProjectRole> oldProjectRoles) {
+        Map<String, ProjectRole> oldByName = firstBy(oldProjectRoles, ProjectRole::getName);
+        Map<String, Integer> oldIndexByName = indexBy(oldProjectRoles, ProjectRole::getName);
         return newProjectRoles.stream()
-                .map(newRole -> {
-                    Boolean roleActive = oldProjectRoles.stream()
-                            .filter(oldRole -> Objects.equals(oldRole.getName(), newRole.getName()))
-                            .findAny()
-                            .map(ProjectRole::getEnabled)
-                            .orElse(true);
-                    return newRole.toBuilder()
-                            .enabled(roleActive)
-                            .build();
-                })
-                .sorted(Comparator.comparing(newProject -> findIndexIn(oldProjectRoles, newProject)))
+                .map(newRole -> newRole.toBuilder()
+                        .enabled(enabledOf(oldByName.get(newRole.getName())))
+                        .build())
+                .sorted(Comparator.comparing(newRole -> oldIndexByName.get(newRole.getName())))
                 .collect(Collectors.toList());
     }
 
     private List<Skill> mergeProjectSkills(List<Skill> newSkills, List<Skill> oldSkills) {
+        Map<String, Skill> oldByName = firstBy(oldSkills, Skill::getName);
+        Map<Long, Integer> oldIndexById = indexBy(oldSkills, Skill::getId);
         return newSkills.stream()
-                .map(newSkill -> {
-                    Boolean skillActive = oldSkills.stream()
-                            .filter(oldSkill -> Objects.equals(oldSkill.getName(), newSkill.getName()))
-                            .findAny()
-                            .map(Skill::getEnabled)
-                            .orElse(true);
-                    return newSkill.toBuilder()
-                            .enabled(skillActive)
-                            .build();
-                })
-                .sorted(Comparator.comparing(newProject -> findIndexIn(oldSkills, newProject)))
+                .map(newSkill -> newSkill.toBuilder()
+                        .enabled(enabledOf(oldByName.get(newSkill.getName())))
+                        .build())
+                .sorted(Comparator.comparing(newSkill -> oldIndexById.get(newSkill.getId())))
                 .collect(Collectors.toList());
     }
 
-    private Integer findIndexIn(List<Skill> oldList, Skill newSkill) {
-        return IntStream
-                .range(0, oldList.size())
-                .filter(index -> Objects.equals(oldList.get(index).getId(), newSkill.getId()))
-                .boxed()
-                .findAny()
-                .orElse(null);
+    /**
+     * @return whether the entry is enabled, <code>true</code> if there is no entry or it does not say
+     */
+    private static Boolean enabledOf(ToggleableEntry oldEntry) {
+        return oldEntry != null && oldEntry.getEnabled() != null ? oldEntry.getEnabled() : Boolean.TRUE;
     }
 
-    private Integer findIndexIn(List<Project> oldList, Project newProject) {
-        return IntStream
-                .range(0, oldList.size())
-                .filter(index -> Objects.equals(oldList.get(index).getId(), newProject.getId()))
-                .boxed()
-                .findAny()
-                .orElse(null);
+    /**
+     * @return the first entry of the list for each key, nothing if there is no list
+     */
+    private static <T, K> Map<K, T> firstBy(List<T> list, Function<T, K> key) {
+        Map<K, T> result = new HashMap<>();
+        if (list != null) {
+            list.forEach(entry -> result.putIfAbsent(key.apply(entry), entry));
+        }
+        return result;
     }
 
-    private Integer findIndexIn(List<ProjectRole> oldList, ProjectRole oldRole) {
-        return IntStream
-                .range(0, oldList.size())
-                .filter(index -> Objects.equals(oldList.get(index).getName(), oldRole.getName()))
-                .boxed()
-                .findAny()
-                .orElse(null);
+    /**
+     * @return the index of the first entry of the list for each key, nothing if there is no list
+     */
+    private static <T, K> Map<K, Integer> indexBy(List<T> list, Function<T, K> key) {
+        Map<K, Integer> result = new HashMap<>();
+        for (int index = 0; list != null && index < list.size(); index++) {
+            result.putIfAbsent(key.apply(list.get(index)), index);
+        }
+        return result;
     }
 
     private <T extends NameComparable & ToggleableEntry> List<T> mergeEntities(List<T> oldList, List<T> newList) {
+        Map<String, T> oldByName = firstBy(oldList, T::getName);
         List<T> toReturn = new ArrayList<>();
         newList.forEach(newEntry -> {
-            oldList.stream()
-                    .filter(entry -> entry.getName().equals(newEntry.getName()))
-                    .findFirst().ifPresent(entry -> newEntry.setEnabled(entry.getEnabled()));
+            T oldEntry = newEntry.getName() != null ? oldByName.get(newEntry.getName()) : null;
+            if (oldEntry != null) {
+                newEntry.setEnabled(oldEntry.getEnabled());
+            }
             toReturn.add(newEntry);
         });
         return toReturn;
@@ -169,44 +215,46 @@ public class ViewProfileMergeService {
 
 
     private List<Category> mergeDisplayCategories(List<Category> oldDisplays, List<Category> newDisplays) {
-        List<Skill> oldSkills = oldDisplays.stream()
+        Set<Skill> oldSkills = oldDisplays.stream()
                 .flatMap(cat -> cat != null && cat.getDisplaySkills() != null ? cat.getDisplaySkills().stream() : Stream.empty())
-                .collect(Collectors.toList());
+                .collect(Collectors.toSet());
         List<Skill> newSkills = newDisplays.stream()
                 .flatMap(cat -> cat != null && cat.getDisplaySkills() != null ? cat.getDisplaySkills().stream() : Stream.empty())
                 .collect(Collectors.toList());
+        Set<Skill> newSkillSet = new HashSet<>(newSkills);
 
 
         // 1. delete all skills no more existing in the profile
-        List<Skill> deletedSkills = oldSkills.stream()
-                .filter(skill -> !newSkills.contains(skill))
-                .collect(Collectors.toList());
-
         oldDisplays = oldDisplays.stream()
                 .peek(category -> category.setDisplaySkills(
                         category.getDisplaySkills().stream()
-                                .filter(skill -> !deletedSkills.contains(skill))
+                                .filter(newSkillSet::contains)
                                 .collect(Collectors.toList())))
                 .filter(category -> category.getDisplaySkills().size() > 0)
                 .collect(Collectors.toList());
 
+        // 2. add the new skills to their categories, adding the categories that are missing
         List<Category> result = oldDisplays;
-        List<Skill> skills = newSkills.stream()
+        Map<Long, Category> resultById = new HashMap<>();
+        result.stream()
+                .filter(category -> category.getId() != null)
+                .forEach(category -> resultById.putIfAbsent(category.getId(), category));
+        newSkills.stream()
                 .filter(skill -> !oldSkills.contains(skill))
-                .collect(Collectors.toList());
-        skills.forEach(skill -> {
-            if (result.stream().anyMatch(category -> category.getId().equals(skill.getDisplayCategory().getId()))) {
-
-                result.stream()
-                        .filter(category -> category.getId().equals(skill.getDisplayCategory().getId()))
-                        .findAny()
-                        .ifPresent(category -> category.getDisplaySkills().add(skill));
-            } else {
-                skill.getDisplayCategory().setEnabled(true);
-                skill.getDisplayCategory().setIsDisplay(true);
-                result.add(skill.getDisplayCategory());
-            }
-        });
+                .forEach(skill -> {
+                    Long categoryId = skill.getDisplayCategory().getId();
+                    Category category = categoryId != null ? resultById.get(categoryId) : null;
+                    if (category != null) {
+                        category.getDisplaySkills().add(skill);
+                    } else {
+                        skill.getDisplayCategory().setEnabled(true);
+                        skill.getDisplayCategory().setIsDisplay(true);
+                        result.add(skill.getDisplayCategory());
+                        if (categoryId != null) {
+                            resultById.putIfAbsent(categoryId, skill.getDisplayCategory());
+                        }
+                    }
+                });
         return result;
     }
 }
@@ -0,0 +1,262 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.model.MigrationProgress;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.repo.ViewProfileIdPage;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Migrates all {@link ViewProfile}s into the configured storage format in the background.
+ * <p>
+ *     Ids are scanned page by page with a cursor. Up to <code>power.view.migration.parallelism</code> pages are
+ *     migrated concurrently, each with pipelined reads and writes. Once all pages of a round are done, the cursor is
+ *     stored as checkpoint in redis. A migration that failed or was interrupted by a shutdown resumes from the
+ *     checkpoint when started again, migrating at most the last round once more.
+ * </p>
+ * <p>
+ *     Only one instance migrates at a time. It holds the lock <code>viewProfile:migration:lock</code>, which expires
+ *     after <code>power.view.migration.lock-timeout</code> unless renewed with every round. Starting the migration on
+ *     another instance meanwhile only returns the progress. A migration that is still marked as running once the
+ *     lock expired is treated as interrupted and resumed.
+ * </p>
+ */
+@Service
+public class ViewProfileMigrationService {
+
+    private static final Logger LOG = LogManager.getLogger(ViewProfileMigrationService.class);
+
+    static final String CHECKPOINT_KEY = "viewProfile:migration";
+
+    static final String LOCK_KEY = "viewProfile:migration:lock";
+
+    /**
+     * Extends the lock if it is still held. KEYS: lock. ARGV: token, timeout in milliseconds.
+     */
+    private static final RedisScript<Long> RENEW_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end\n" +
+            "return 0", Long.class);
+
+    /**
+     * Releases the lock if it is still held. KEYS: lock. ARGV: token.
+     */
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end\n" +
+            "return 0", Long.class);
+
+    private final ViewProfileRepository viewProfileRepository;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final int batchSize;
+
+    private final int parallelism;
+
+    private final ExecutorService runner;
+
+    private final ExecutorService batchExecutor;
+
+    private final Duration lockTimeout;
+
+    /**
+     * Identifies the lock of this instance
+     */
+    private final String lockToken = UUID.randomUUID().toString();
+
+    /**
+     * Set while this instance migrates and holds the lock
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ViewProfileMigrationService(ViewProfileRepository viewProfileRepository,
+                                       StringRedisTemplate redisTemplate,
+                                       @Value("${power.view.migration.batch-size:100}") int batchSize,
+                                       @Value("${power.view.migration.parallelism:4}") int parallelism,
+                                       @Value("${power.view.migration.lock-timeout:5m}") Duration lockTimeout) {
+        this.viewProfileRepository = viewProfileRepository;
+        this.redisTemplate = redisTemplate;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.lockTimeout = lockTimeout;
+        this.runner = Executors.newSingleThreadExecutor(daemonThreads("view-profile-migration"));
+        this.batchExecutor = Executors.newFixedThreadPool(parallelism, daemonThreads("view-profile-migration-batch"));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Starts the migration in the background, resuming from the checkpoint of a failed or interrupted one.
+     * Does nothing if a migration is already running on this or another instance.
+     *
+     * @return the progress at the start
+     */
+    public MigrationProgress start() {
+        if (!running.compareAndSet(false, true)) {
+            return getProgress();
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, lockToken, lockTimeout))) {
+                LOG.info("View profile migration is running on another instance");
+                running.set(false);
+                return getProgress();
+            }
+            MigrationProgress progress = resume();
+            runner.submit(() -> run(progress));
+            return progress;
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    private MigrationProgress resume() {
+        MigrationProgress checkpoint = getProgress();
+        MigrationProgress progress;
+        if (checkpoint.getState() == MigrationProgress.State.RUNNING || checkpoint.getState() == MigrationProgress.State.FAILED) {
+            LOG.info("Resuming view profile migration from cursor " + checkpoint.getCursor());
+            progress = checkpoint;
+            progress.setError(null);
+        } else {
+            progress = MigrationProgress.builder()
+                    .cursor(ViewProfileIdPage.START_CURSOR)
+                    .startedAt(Instant.now())
+                    .build();
+        }
+        progress.setState(MigrationProgress.State.RUNNING);
+        storeCheckpoint(progress);
+        return progress;
+    }
+
+    /**
+     * Releases the lock and allows to start again, also if redis fails
+     */
+    private void release() {
+        try {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(LOCK_KEY), lockToken);
+        } catch (RuntimeException e) {
+            LOG.error("Could not release view profile migration lock, it expires after " + lockTimeout, e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void renewLock() {
+        Long renewed = redisTemplate.execute(RENEW_LOCK_SCRIPT, List.of(LOCK_KEY), lockToken,
+                String.valueOf(lockTimeout.toMillis()));
+        if (renewed == null || renewed != 1L) {
+            throw new IllegalStateException("Lost view profile migration lock");
+        }
+    }
+
+    /**
+     * @return the progress of the current or last migration, as stored in the checkpoint
+     */
+    public MigrationProgress getProgress() {
+        Map<String, String> fields = redisTemplate.<String, String>opsForHash().entries(CHECKPOINT_KEY);
+        if (fields.isEmpty()) {
+            return MigrationProgress.builder().state(MigrationProgress.State.NOT_STARTED).build();
+        }
+        return MigrationProgress.builder()
+                .state(MigrationProgress.State.valueOf(fields.get("state")))
+                .cursor(fields.get("cursor"))
+                .scanned(Long.parseLong(fields.getOrDefault("scanned", "0")))
+                .migrated(Long.parseLong(fields.getOrDefault("migrated", "0")))
+                .startedAt(fields.containsKey("startedAt") ? Instant.parse(fields.get("startedAt")) : null)
+                .updatedAt(fields.containsKey("updatedAt") ? Instant.parse(fields.get("updatedAt")) : null)
+                .error(fields.get("error"))
+                .build();
+    }
+
+    private void storeCheckpoint(MigrationProgress progress) {
+        progress.setUpdatedAt(Instant.now());
+        Map<String, String> fields = new HashMap<>();
+        fields.put("state", progress.getState().name());
+        fields.put("cursor", progress.getCursor());
+        fields.put("scanned", String.valueOf(progress.getScanned()));
+        fields.put("migrated", String.valueOf(progress.getMigrated()));
+        fields.put("startedAt", progress.getStartedAt().toString());
+        fields.put("updatedAt", progress.getUpdatedAt().toString());
+        if (progress.getError() != null) {
+            fields.put("error", progress.getError());
+        }
+        redisTemplate.opsForHash().putAll(CHECKPOINT_KEY, fields);
+        if (progress.getError() == null) {
+            redisTemplate.opsForHash().delete(CHECKPOINT_KEY, "error");
+        }
+    }
+
+    private void run(MigrationProgress progress) {
+        try {
+            String cursor = progress.getCursor();
+            do {
+                List<List<String>> round = new ArrayList<>();
+                do {
+                    ViewProfileIdPage page = viewProfileRepository.scanForMigration(cursor, batchSize);
+                    round.add(page.getIds());
+                    cursor = page.getCursor();
+                } while (round.size() < parallelism && !ViewProfileIdPage.START_CURSOR.equals(cursor));
+                List<Future<Integer>> batches = new ArrayList<>();
+                round.forEach(ids -> batches.add(batchExecutor.submit(() -> viewProfileRepository.migrate(ids))));
+                for (int i = 0; i < batches.size(); i++) {
+                    progress.setMigrated(progress.getMigrated() + batches.get(i).get());
+                    progress.setScanned(progress.getScanned() + round.get(i).size());
+                }
+                progress.setCursor(cursor);
+                storeCheckpoint(progress);
+                renewLock();
+            } while (!ViewProfileIdPage.START_CURSOR.equals(cursor));
+            progress.setState(MigrationProgress.State.DONE);
+            LOG.info("Migrated " + progress.getMigrated() + " view profiles");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(progress, "Interrupted");
+        } catch (Exception e) {
+            LOG.error("View profile migration failed at cursor " + progress.getCursor(), e);
+            fail(progress, e instanceof ExecutionException ? e.getCause().toString() : e.toString());
+        } finally {
+            try {
+                storeCheckpoint(progress);
+            } catch (RuntimeException e) {
+                LOG.error("Could not store view profile migration checkpoint", e);
+            } finally {
+                release();
+            }
+        }
+    }
+
+    private static void fail(MigrationProgress progress, String error) {
+        progress.setState(MigrationProgress.State.FAILED);
+        progress.setError(error);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdownNow();
+        batchExecutor.shutdownNow();
+    }
+}
@@ -1,7 +1,8 @@
 package de.hbt.pwr.view.service;
 
 import de.hbt.pwr.view.aspects.ViewProfileAutoSave;
-import de.hbt.pwr.view.client.skill.SkillServiceClient;
+import de.hbt.pwr.view.aspects.ViewProfileRetryOnConflict;
+import de.hbt.pwr.view.client.skill.SkillTree;
 import de.hbt.pwr.view.client.skill.model.SkillServiceCategory;
 import de.hbt.pwr.view.client.skill.model.SkillServiceSkill;
 import de.hbt.pwr.view.exception.DisplayCategoryNotFoundException;
@@ -11,19 +12,17 @@ import de.hbt.pwr.view.exception.ViewProfileNotFoundException;
 import de.hbt.pwr.view.model.ProfileEntryType;
 import de.hbt.pwr.view.model.ViewProfile;
 import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
 import de.hbt.pwr.view.model.entries.ToggleableEntry;
 import de.hbt.pwr.view.model.skill.Category;
 import de.hbt.pwr.view.model.skill.Skill;
 import de.hbt.pwr.view.repo.ViewProfileRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.data.util.StreamUtils;
 import org.springframework.stereotype.Service;
 
 import javax.validation.constraints.NotNull;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @ViewProfileAutoSave
@@ -33,12 +32,12 @@ public class ViewProfileOperationService {
 
     private final ViewProfileRepository viewProfileRepository;
 
-    private final SkillServiceClient skillServiceClient;
+    private final SkillTree skillTree;
 
     ViewProfileOperationService(ViewProfileRepository viewProfileRepository,
-                                SkillServiceClient skillServiceClient) {
+                                SkillTree skillTree) {
         this.viewProfileRepository = viewProfileRepository;
-        this.skillServiceClient = skillServiceClient;
+        this.skillTree = skillTree;
     }
 
     private ViewProfile findViewProfile(String id) {
@@ -54,12 +53,16 @@ public class ViewProfileOperationService {
      */
     @NotNull
     public List<String> getViewProfileIdsForInitials(@NotNull String initials) {
-        try (Stream<ViewProfile> streamFromIterator = StreamUtils
-                .createStreamFromIterator(viewProfileRepository.findAll().iterator())) {
-            return streamFromIterator
-                    .filter(viewProfile -> viewProfile.getViewProfileInfo().getOwnerInitials()
-                            .equals(initials)).map(ViewProfile::getId).collect(Collectors.toList());
-        }
+        return viewProfileRepository.findIdsByOwnerInitials(initials);
+    }
+
+    /**
+     * Rebuilds the owner index used by {@link #getViewProfileIdsForInitials(String)} from the stored view profiles.
+     *
+     * @return the number of indexed view profiles
+     */
+    public long rebuildOwnerIndex() {
+        return viewProfileRepository.rebuildOwnerIndex();
     }
 
     /**
@@ -75,10 +78,31 @@ public class ViewProfileOperationService {
     @NotNull
     public ViewProfile getByIdAndCheckOwner(@NotNull String id, @NotNull String owner) {
         ViewProfile viewProfile = findViewProfile(id);
+        checkOwner(viewProfile, owner);
+        return viewProfile;
+    }
+
+    /**
+     * Like {@link #getByIdAndCheckOwner(String, String)}, but only reads <code>sections</code>, the
+     * {@link ViewProfileInfo} and the version. The result is meant to be returned, it can not be saved.
+     *
+     * @see ViewProfile#hasAllSections()
+     */
+    @NotNull
+    public ViewProfile getSectionsByIdAndCheckOwner(@NotNull String id, @NotNull String owner,
+                                                    @NotNull Set<ViewProfileSection> sections) {
+        Set<ViewProfileSection> read = EnumSet.of(ViewProfileSection.VIEW_PROFILE_INFO);
+        read.addAll(sections);
+        ViewProfile viewProfile = viewProfileRepository.findSectionsById(id, read)
+                .orElseThrow(() -> new ViewProfileNotFoundException(id));
+        checkOwner(viewProfile, owner);
+        return viewProfile;
+    }
+
+    private static void checkOwner(ViewProfile viewProfile, String owner) {
         if (!viewProfile.getViewProfileInfo().getOwnerInitials().equals(owner)) {
-            throw new InvalidOwnerException(id, owner);
+            throw new InvalidOwnerException(viewProfile.getId(), owner);
         }
-        return viewProfile;
     }
 
     /**
@@ -113,6 +137,7 @@ public class ViewProfileOperationService {
         setEnabled(toggleableEntries, index, isEnabled);
     }
 
+    @ViewProfileRetryOnConflict
     public void setIsEnabledForAll(ViewProfile viewProfile, ProfileEntryType profileEntryType,
                                    Boolean isEnabled) {
         List<? extends ToggleableEntry> toggleableEntries =
@@ -155,6 +180,7 @@ public class ViewProfileOperationService {
                 .findAny().ifPresent(skill -> skill.setEnabled(isEnabled));
     }
 
+    @ViewProfileRetryOnConflict
     public void setIsEnabledForSkill(ViewProfile viewProfile, String skillName, boolean isEnabled) {
         viewProfile.getDisplayCategories().forEach(category -> setIsEnabledForSkill(category, skillName, isEnabled));
     }
@@ -165,8 +191,10 @@ public class ViewProfileOperationService {
     }
 
 
+    @ViewProfileRetryOnConflict
     public void setIsEnabledForVersionOfSkill(ViewProfile viewProfile, String skillName, String versionName, boolean isEnabled) {
-        Skill skill = viewProfile.findSkillByName(skillName).orElseThrow(RuntimeException::new);
+        Skill skill = viewProfile.findSkillByName(skillName)
+                .orElseThrow(() -> new IllegalArgumentException("No skill named " + skillName));
         skill.setEnabledForVersion(versionName, isEnabled);
     }
 
@@ -176,15 +204,18 @@ public class ViewProfileOperationService {
      * @param viewProfile that is affected
      * @param isEnabled   new statue of {@link Skill#getEnabled()}
      */
+    @ViewProfileRetryOnConflict
     public void setIsEnabledForAllSkills(ViewProfile viewProfile, boolean isEnabled) {
         viewProfile.getDisplayCategories()
                 .forEach(category -> setIsEnabledForAllSkills(category, isEnabled));
     }
 
+    @ViewProfileRetryOnConflict
     public void setDescription(ViewProfile viewProfile, String newDescription) {
         viewProfile.setDescription(newDescription);
     }
 
+    @ViewProfileRetryOnConflict
     public void updateInfo(ViewProfile viewProfile, ViewProfileInfo viewProfileInfo) {
         if (viewProfileInfo.getConsultantBirthDate() != null) {
             viewProfile.getViewProfileInfo()
@@ -215,7 +246,7 @@ public class ViewProfileOperationService {
     }
 
     public Category getDisplayCategoryForSkillName(String skillName) {
-        SkillServiceSkill serviceSkill = skillServiceClient.getSkillByName(skillName);
+        SkillServiceSkill serviceSkill = skillTree.getSkillByName(skillName);
         SkillServiceCategory category = null;
         if (serviceSkill != null) {
             category = serviceSkill.getCategory();
@@ -243,6 +274,7 @@ public class ViewProfileOperationService {
      * @param name                   name of the skill
      * @param newDisplayCategoryName of the category that is supposed to be the new display category.
      */
+    @ViewProfileRetryOnConflict
     public ViewProfile setDisplayCategory(ViewProfile viewProfile, String name,
                                           String newDisplayCategoryName) {
         Optional<Skill> mayBeSkill = viewProfile.findSkillByName(name);
@@ -278,7 +310,7 @@ public class ViewProfileOperationService {
     }
 
     private Category getNewDisplayCategory(String skillName, String newDisplayCategoryName) {
-        SkillServiceSkill serviceSkill = skillServiceClient.getSkillByName(skillName);
+        SkillServiceSkill serviceSkill = skillTree.getSkillByName(skillName);
         SkillServiceCategory category = null;
         if (serviceSkill != null && serviceSkill.getCategory() != null) {
             category = serviceSkill.getCategory();
@@ -293,7 +325,7 @@ public class ViewProfileOperationService {
     }
 
     public Map<Integer, Category> getParentsForSkill(String skillName) {
-        SkillServiceSkill serviceSkill = skillServiceClient.getSkillByName(skillName);
+        SkillServiceSkill serviceSkill = skillTree.getSkillByName(skillName);
         if (serviceSkill != null) {
             Map<Integer, Category> result = new HashMap<>();
             SkillServiceCategory c = serviceSkill.getCategory();
@@ -307,14 +339,4 @@ public class ViewProfileOperationService {
             throw new ServiceSkillNotFoundException(skillName);
         }
     }
-
-    public void migrateViewProfiles() {
-        Iterable<ViewProfile> allOldViewProfiles =
-                viewProfileRepository.findAll();
-        allOldViewProfiles.forEach(viewProfile -> {
-            String id = viewProfile.getId();
-            viewProfileRepository.deleteById(id);
-            viewProfileRepository.save(viewProfile);
-        });
-    }
 }
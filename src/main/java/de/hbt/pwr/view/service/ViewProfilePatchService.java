@@ -0,0 +1,116 @@
+package de.hbt.pwr.view.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.hbt.pwr.view.exception.InvalidViewProfilePatchException;
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import de.hbt.pwr.view.util.JsonPatchUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Service;
+
+import javax.validation.constraints.NotNull;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies <a href="https://tools.ietf.org/html/rfc6902">RFC 6902 JSON Patches</a> to a {@link ViewProfile} and writes
+ * it once.
+ * <p>
+ *     Paths are relative to the JSON representation of the {@link ViewProfile} and start with the field name of a
+ *     {@link ViewProfileSection}. Only the sections addressed by the patch are converted to JSON and back, so the
+ *     back references of {@link de.hbt.pwr.view.model.skill.Skill#getDisplayCategory()} are restored while reading
+ *     them. If any operation fails, nothing is written, otherwise one <code>patch</code> change is published.
+ * </p>
+ */
+@Service
+public class ViewProfilePatchService {
+
+    private static final Logger LOG = LogManager.getLogger(ViewProfilePatchService.class);
+
+    private final ViewProfileRepository viewProfileRepository;
+
+    private final ViewProfileChangeBroadcaster viewProfileChangeBroadcaster;
+
+    private final ObjectMapper objectMapper;
+
+    public ViewProfilePatchService(ViewProfileRepository viewProfileRepository,
+                                   ViewProfileChangeBroadcaster viewProfileChangeBroadcaster,
+                                   ObjectMapper objectMapper) {
+        this.viewProfileRepository = viewProfileRepository;
+        this.viewProfileChangeBroadcaster = viewProfileChangeBroadcaster;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Applies <code>patch</code> to <code>viewProfile</code> and saves it once. If an operation fails, nothing is
+     * saved.
+     *
+     * @param patch array of JSON Patch operations
+     * @return the patched <code>viewProfile</code>
+     * @throws InvalidViewProfilePatchException  if an operation can not be applied
+     * @throws ViewProfileConflictException      if the view profile was changed concurrently
+     */
+    public ViewProfile patch(@NotNull ViewProfile viewProfile, @NotNull JsonNode patch) {
+        if (!patch.isArray()) {
+            throw new InvalidViewProfilePatchException(0, new IllegalArgumentException("A patch must be an array"));
+        }
+        ObjectNode document = objectMapper.createObjectNode();
+        // Last operation that touched each section, to blame it if the section can not be read back
+        Map<ViewProfileSection, Integer> patchedSections = new EnumMap<>(ViewProfileSection.class);
+        for (int i = 0; i < patch.size(); i++) {
+            JsonNode operation = patch.get(i);
+            try {
+                addSection(viewProfile, document, patchedSections, operation.path("path").asText(), i);
+                if (operation.has("from")) {
+                    addSection(viewProfile, document, patchedSections, operation.path("from").asText(), i);
+                }
+                JsonPatchUtil.apply(document, operation);
+                checkSectionsPresent(document, patchedSections.keySet());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidViewProfilePatchException(i, e);
+            }
+        }
+        patchedSections.forEach((section, operationIndex) -> {
+            try {
+                section.apply(viewProfile, objectMapper.convertValue(document.get(section.getFieldName()),
+                        section.getJavaType(objectMapper.getTypeFactory())));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidViewProfilePatchException(operationIndex, e);
+            }
+        });
+        boolean written = viewProfileRepository.saveChanges(viewProfile);
+        if (written) {
+            viewProfileChangeBroadcaster.publish(viewProfile, "patch");
+        }
+        LOG.debug("Patched " + patchedSections.keySet() + " of " + viewProfile.getId()
+                + (written ? "" : ", nothing changed"));
+        return viewProfile;
+    }
+
+    /**
+     * Sections can be changed, but not removed or set to <code>null</code> as a whole
+     */
+    private static void checkSectionsPresent(ObjectNode document, Set<ViewProfileSection> sections) {
+        for (ViewProfileSection section : sections) {
+            JsonNode value = document.get(section.getFieldName());
+            if (value == null || value.isNull()) {
+                throw new IllegalArgumentException("Section /" + section.getFieldName() + " can not be removed");
+            }
+        }
+    }
+
+    private void addSection(ViewProfile viewProfile, ObjectNode document,
+                            Map<ViewProfileSection, Integer> patchedSections, String path, int operationIndex) {
+        ViewProfileSection section = ViewProfileSection.fromFieldName(JsonPatchUtil.topLevelProperty(path));
+        if (!document.has(section.getFieldName())) {
+            document.set(section.getFieldName(), objectMapper.valueToTree(section.extract(viewProfile)));
+        }
+        patchedSections.put(section, operationIndex);
+    }
+}
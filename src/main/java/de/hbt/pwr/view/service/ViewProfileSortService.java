@@ -1,6 +1,7 @@
 package de.hbt.pwr.view.service;
 
 import de.hbt.pwr.view.aspects.ViewProfileAutoSave;
+import de.hbt.pwr.view.aspects.ViewProfileRetryOnConflict;
 import de.hbt.pwr.view.model.ProfileEntryType;
 import de.hbt.pwr.view.model.ViewProfile;
 import de.hbt.pwr.view.model.entries.Project;
@@ -65,16 +66,19 @@ public class ViewProfileSortService {
         return sortAscending ? SkillByRatingAsc : SkillByRatingDesc;
     }
 
+    @ViewProfileRetryOnConflict
     public void sortEntryByName(ViewProfile viewProfile, NameComparableEntryType entryType, boolean sortAscending) {
         Comparator<NameComparable> comparator = getNameComparator(sortAscending);
         entryType.getComparable(viewProfile).sort(comparator);
     }
 
+    @ViewProfileRetryOnConflict
     public void sortEntryByStartDate(ViewProfile viewProfile, StartEndDateComparableEntryType entryType, boolean sortAscending) {
         Comparator<StartEndDateComparable> comparator = sortAscending ? StartDateAsc : StartDateDesc;
         entryType.getComparable(viewProfile).sort(comparator);
     }
 
+    @ViewProfileRetryOnConflict
     public void sortEntryByEndDate(ViewProfile viewProfile, StartEndDateComparableEntryType entryType, boolean sortAscending) {
         Comparator<StartEndDateComparable> comparator = sortAscending ? EndDateAsc : EndDateDesc;
         entryType.getComparable(viewProfile).sort(comparator);
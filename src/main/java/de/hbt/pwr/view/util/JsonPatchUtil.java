@@ -0,0 +1,146 @@
+package de.hbt.pwr.view.util;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Applies operations of a <a href="https://tools.ietf.org/html/rfc6902">RFC 6902 JSON Patch</a> to a JSON document.
+ * <p>
+ *     Supports <code>add</code>, <code>remove</code>, <code>replace</code>, <code>move</code>, <code>copy</code> and
+ *     <code>test</code>. The document is changed in place. Replacing the document itself, with the path
+ *     <code>""</code>, is not supported.
+ * </p>
+ */
+public class JsonPatchUtil {
+
+    private JsonPatchUtil() {
+        // Avoid construction
+    }
+
+    /**
+     * Applies a single <code>operation</code> of a patch to <code>document</code>.
+     *
+     * @throws IllegalArgumentException if the operation is malformed, addresses a location that does not exist or
+     *                                  a <code>test</code> fails
+     */
+    public static void apply(ObjectNode document, JsonNode operation) {
+        String op = requiredText(operation, "op");
+        JsonPointer path = pointer(requiredText(operation, "path"));
+        switch (op) {
+            case "add":
+                add(document, path, requiredValue(operation));
+                break;
+            case "remove":
+                remove(document, path);
+                break;
+            case "replace":
+                remove(document, path);
+                add(document, path, requiredValue(operation));
+                break;
+            case "move": {
+                JsonPointer from = pointer(requiredText(operation, "from"));
+                if (!from.equals(path) && path.toString().startsWith(from.toString() + "/")) {
+                    throw new IllegalArgumentException("Can not move " + from + " into one of its children");
+                }
+                add(document, path, remove(document, from));
+                break;
+            }
+            case "copy":
+                add(document, path, get(document, pointer(requiredText(operation, "from"))).deepCopy());
+                break;
+            case "test":
+                if (!get(document, path).equals(requiredValue(operation))) {
+                    throw new IllegalArgumentException("Test of " + path + " failed");
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + op);
+        }
+    }
+
+    /**
+     * @return the first reference token of <code>path</code>, the name of a top level property
+     * @throws IllegalArgumentException if <code>path</code> is not a JSON pointer to a location below the document
+     */
+    public static String topLevelProperty(String path) {
+        return pointer(path).getMatchingProperty();
+    }
+
+    private static JsonPointer pointer(String path) {
+        JsonPointer pointer = JsonPointer.compile(path);
+        if (pointer.matches()) {
+            throw new IllegalArgumentException("The whole document can not be patched");
+        }
+        return pointer;
+    }
+
+    private static String requiredText(JsonNode operation, String field) {
+        JsonNode value = operation.get(field);
+        if (value == null || !value.isTextual()) {
+            throw new IllegalArgumentException("Operation without " + field);
+        }
+        return value.asText();
+    }
+
+    private static JsonNode requiredValue(JsonNode operation) {
+        JsonNode value = operation.get("value");
+        if (value == null) {
+            throw new IllegalArgumentException("Operation without value");
+        }
+        return value;
+    }
+
+    private static JsonNode get(ObjectNode document, JsonPointer path) {
+        JsonNode node = document.at(path);
+        if (node.isMissingNode()) {
+            throw new IllegalArgumentException("No value at " + path);
+        }
+        return node;
+    }
+
+    private static JsonNode parent(ObjectNode document, JsonPointer path) {
+        JsonNode parent = document.at(path.head());
+        if (!parent.isContainerNode()) {
+            throw new IllegalArgumentException("No object or array containing " + path);
+        }
+        return parent;
+    }
+
+    /**
+     * @param size of the array
+     * @param end  whether <code>-</code> or <code>size</code> address the end of the array
+     */
+    private static int arrayIndex(JsonPointer path, int size, boolean end) {
+        String token = path.last().getMatchingProperty();
+        int index = "-".equals(token) ? size : path.last().getMatchingIndex();
+        if (index < 0 || index > size || (index == size && !end)) {
+            throw new IllegalArgumentException("Index out of bounds at " + path);
+        }
+        return index;
+    }
+
+    private static void add(ObjectNode document, JsonPointer path, JsonNode value) {
+        JsonNode parent = parent(document, path);
+        if (parent.isObject()) {
+            ((ObjectNode) parent).set(path.last().getMatchingProperty(), value);
+        } else {
+            ArrayNode array = (ArrayNode) parent;
+            array.insert(arrayIndex(path, array.size(), true), value);
+        }
+    }
+
+    private static JsonNode remove(ObjectNode document, JsonPointer path) {
+        JsonNode parent = parent(document, path);
+        if (parent.isObject()) {
+            String field = path.last().getMatchingProperty();
+            if (!parent.has(field)) {
+                throw new IllegalArgumentException("No value at " + path);
+            }
+            return ((ObjectNode) parent).remove(field);
+        }
+        ArrayNode array = (ArrayNode) parent;
+        return array.remove(arrayIndex(path, array.size(), false));
+    }
+}
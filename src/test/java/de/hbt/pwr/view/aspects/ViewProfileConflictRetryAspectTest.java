@@ -0,0 +1,110 @@
+package de.hbt.pwr.view.aspects;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ProfileEntryType;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.entries.Sector;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import de.hbt.pwr.view.service.ViewProfileOperationService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import redis.embedded.RedisServer;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates that the {@link ViewProfileConflictRetryAspect} re-applies idempotent operations on concurrently
+ * modified view profiles.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"spring.redis.port = " + ViewProfileConflictRetryAspectTest.TEST_REDIS_PORT_STRING})
+public class ViewProfileConflictRetryAspectTest {
+
+    private static final Integer TEST_REDIS_PORT_INT = 24315;
+    static final String TEST_REDIS_PORT_STRING = "24315";
+
+    private static RedisServer redisServer;
+
+    @Autowired
+    private ViewProfileRepository viewProfileRepository;
+
+    @Autowired
+    private ViewProfileOperationService viewProfileOperationService;
+
+    @BeforeClass
+    public static void setUpRedis() {
+        redisServer = RedisServer.builder()
+                .port(TEST_REDIS_PORT_INT)
+                .setting("maxmemory 128M")
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        redisServer.start();
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId("VP1");
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials("tst").name("VP1").build());
+        viewProfile.getSectors().add(new Sector("Sector", true));
+        viewProfileRepository.save(viewProfile);
+    }
+
+    @After
+    public void stopRedis() {
+        redisServer.stop();
+    }
+
+    private void modifyConcurrently() {
+        ViewProfile concurrent = viewProfileRepository.findById("VP1").orElseThrow();
+        concurrent.setLocale(Locale.ENGLISH);
+        viewProfileRepository.saveChanges(concurrent);
+    }
+
+    @Test
+    public void shouldReapplyRetryableOperationOnCurrentState() {
+        ViewProfile stale = viewProfileRepository.findById("VP1").orElseThrow();
+        modifyConcurrently();
+
+        viewProfileOperationService.setDescription(stale, "Changed");
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getDescription()).isEqualTo("Changed");
+        assertThat(loaded.getLocale()).isEqualTo(Locale.ENGLISH);
+        assertThat(stale).isEqualTo(loaded);
+    }
+
+    @Test
+    public void shouldNotRetryPositionalOperation() {
+        ViewProfile stale = viewProfileRepository.findById("VP1").orElseThrow();
+        modifyConcurrently();
+
+        assertThatThrownBy(() -> viewProfileOperationService.setIsEnabled(stale, 0, false, ProfileEntryType.SECTOR))
+                .isInstanceOf(ViewProfileConflictException.class);
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getSectors().get(0).getEnabled()).isTrue();
+    }
+
+    @Test
+    public void shouldNotRetryOnPinnedVersion() {
+        ViewProfile stale = viewProfileRepository.findById("VP1").orElseThrow();
+        stale.pinVersion();
+        modifyConcurrently();
+
+        assertThatThrownBy(() -> viewProfileOperationService.setDescription(stale, "Changed"))
+                .isInstanceOf(ViewProfileConflictException.class);
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getDescription()).isNotEqualTo("Changed");
+    }
+}
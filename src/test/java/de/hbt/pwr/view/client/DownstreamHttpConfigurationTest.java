@@ -0,0 +1,96 @@
+package de.hbt.pwr.view.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates the transport built by {@link DownstreamHttpConfiguration}.
+ */
+public class DownstreamHttpConfigurationTest {
+
+    private final DownstreamHttpConfiguration configuration = new DownstreamHttpConfiguration();
+
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private CloseableHttpClient httpClient;
+
+    @Before
+    public void setUp() {
+        connectionManager = configuration.downstreamConnectionManager(50, 10);
+        httpClient = configuration.downstreamHttpClient(connectionManager, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                Duration.ofSeconds(1), Duration.ofSeconds(30));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpClient.close();
+    }
+
+    @Test
+    public void shouldSendRequestsThroughThePool() {
+        RestTemplate restTemplate = configuration.downstreamRestTemplate(httpClient);
+
+        assertThat(restTemplate.getRequestFactory()).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+        assertThat(connectionManager.getMaxTotal()).isEqualTo(50);
+        assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldAbortRequestOfCallPastItsDeadline() throws Exception {
+        RestTemplate restTemplate = configuration.downstreamRestTemplate(httpClient);
+        RemoteCallExecutor remoteCallExecutor = new RemoteCallExecutor(2, Duration.ofMillis(200));
+        // Accepts the connection, but never answers
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread acceptor = new Thread(() -> {
+                try (Socket ignored = server.accept()) {
+                    Thread.sleep(10_000);
+                } catch (IOException | InterruptedException e) {
+                    // Ends with the test
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+            String url = "http://localhost:" + server.getLocalPort() + "/stalled";
+
+            CompletableFuture<String> call = remoteCallExecutor.submit(() -> restTemplate.getForObject(url, String.class));
+
+            assertThatThrownBy(() -> remoteCallExecutor.await(call, "Stalled call"))
+                    .isInstanceOf(ResourceAccessException.class);
+            for (int i = 0; i < 50 && connectionManager.getTotalStats().getLeased() > 0; i++) {
+                Thread.sleep(20);
+            }
+            // Released long before the read timeout of 5 seconds
+            assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+            acceptor.interrupt();
+        } finally {
+            remoteCallExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldExposePoolMetrics() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        configuration.downstreamConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max").tag("httpclient", "downstream")
+                .gauge().value()).isEqualTo(50);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.pending").gauge().value()).isZero();
+    }
+}
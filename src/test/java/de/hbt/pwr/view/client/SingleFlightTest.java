@@ -0,0 +1,130 @@
+package de.hbt.pwr.view.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates the coalescing of calls by the {@link SingleFlight}.
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 5;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SingleFlight<String, String> singleFlight;
+
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    private double calls(String result) {
+        return meterRegistry.get("downstream.calls").tag("call", "test").tag("result", result).counter().count();
+    }
+
+    /**
+     * Starts all callers and releases the call once all but the executing one joined it.
+     */
+    private List<Future<String>> callConcurrently(String key, RuntimeException failure) throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> singleFlight.execute(key, () -> {
+                executions.incrementAndGet();
+                awaitQuietly(release);
+                if (failure != null) {
+                    throw failure;
+                }
+                return "result of " + key;
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (calls("coalesced") < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        assertThat(calls("coalesced")).isEqualTo(CALLERS - 1);
+        for (Future<String> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+            } catch (Exception ignored) {
+                // Checked by the tests
+            }
+        }
+        assertThat(executions).hasValue(1);
+        return results;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void shouldShareResultOfCallInFlight() throws Exception {
+        List<Future<String>> results = callConcurrently("Java", null);
+
+        for (Future<String> result : results) {
+            assertThat(result.get()).isEqualTo("result of Java");
+        }
+        assertThat(calls("executed")).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldShareFailureOfCallInFlight() throws Exception {
+        IllegalArgumentException failure = new IllegalArgumentException("Unknown skill");
+
+        List<Future<String>> results = callConcurrently("Java", failure);
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(result::get).hasCause(failure);
+        }
+    }
+
+    @Test
+    public void shouldNotCoalesceConsecutiveCalls() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("Java", () -> "call " + executions.incrementAndGet());
+        String second = singleFlight.execute("Java", () -> "call " + executions.incrementAndGet());
+
+        assertThat(second).isEqualTo("call 2");
+        assertThat(calls("executed")).isEqualTo(2);
+        assertThat(calls("coalesced")).isZero();
+    }
+
+    @Test
+    public void shouldNotCoalesceDifferentKeys() {
+        assertThat(singleFlight.execute("Java", () -> "Java")).isEqualTo("Java");
+        assertThat(singleFlight.execute("Kotlin", () -> "Kotlin")).isEqualTo("Kotlin");
+        assertThat(calls("coalesced")).isZero();
+    }
+}
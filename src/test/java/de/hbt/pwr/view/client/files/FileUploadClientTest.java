@@ -0,0 +1,85 @@
+package de.hbt.pwr.view.client.files;
+
+import de.hbt.pwr.view.model.UploadFileResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Validates that the {@link FileUploadClient} passes files on unchanged.
+ */
+public class FileUploadClientTest {
+
+    private static final String URL = "http://report-service";
+
+    private MockRestServiceServer server;
+
+    private MockRestServiceServer streamingServer;
+
+    private FileUploadClient fileUploadClient;
+
+    @Before
+    public void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate streamingRestTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        streamingServer = MockRestServiceServer.bindTo(streamingRestTemplate).build();
+        fileUploadClient = new FileUploadClient(restTemplate, streamingRestTemplate);
+        ReflectionTestUtils.setField(fileUploadClient, "pwrReportServiceUrl", URL);
+    }
+
+    @Test
+    public void shouldUploadStreamAsFilePart() {
+        streamingServer.expect(requestTo(URL + "/file"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().string(allOf(
+                        containsString("name=\"file\"; filename=\"template.docx\""),
+                        containsString("template content"))))
+                .andRespond(withSuccess("{\"fileId\": \"F1\"}", MediaType.APPLICATION_JSON));
+
+        ResponseEntity<UploadFileResponse> response = fileUploadClient.uploadFile("template.docx",
+                new ByteArrayInputStream("template content".getBytes(StandardCharsets.UTF_8)));
+
+        streamingServer.verify();
+        assertThat(response.getBody().getFileId()).isEqualTo("F1");
+    }
+
+    @Test
+    public void shouldCopyDownloadToSink() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDispositionFormData("file", "template.docx");
+        server.expect(requestTo(URL + "/file/F1"))
+                .andRespond(withSuccess("template content", MediaType.APPLICATION_OCTET_STREAM).headers(headers));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicReference<HttpHeaders> receivedHeaders = new AtomicReference<>();
+
+        fileUploadClient.serveFile("F1", (status, responseHeaders) -> {
+            assertThat(status).isEqualTo(HttpStatus.OK);
+            receivedHeaders.set(responseHeaders);
+            return out;
+        });
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("template content");
+        assertThat(receivedHeaders.get().getContentDisposition().getFilename()).isEqualTo("template.docx");
+    }
+}
@@ -0,0 +1,80 @@
+package de.hbt.pwr.view.client.profile;
+
+import de.hbt.pwr.view.client.profile.model.Profile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Validates the conditional profile requests of the {@link ProfileServiceClient}.
+ */
+public class ProfileServiceClientTest {
+
+    private static final String URL = "http://profile-service";
+
+    private MockRestServiceServer server;
+
+    private ProfileServiceClient profileServiceClient;
+
+    @Before
+    public void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        profileServiceClient = new ProfileServiceClient(restTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(profileServiceClient, "pwrProfileServiceUrl", URL);
+    }
+
+    @Test
+    public void shouldRecordETagOfProfile() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"7\"");
+        server.expect(requestTo(URL + "/profiles/tst"))
+                .andRespond(withSuccess("{\"id\": 1, \"lastEdited\": \"2019-10-01T12:00:00\"}",
+                        MediaType.APPLICATION_JSON).headers(headers));
+
+        Profile profile = profileServiceClient.getSingleProfile("tst");
+
+        assertThat(profile.getETag()).isEqualTo("\"7\"");
+        assertThat(profile.getLastEdited()).isEqualTo(LocalDateTime.of(2019, 10, 1, 12, 0));
+    }
+
+    @Test
+    public void shouldReturnNothingIfProfileIsNotModified() {
+        server.expect(requestTo(URL + "/profiles/tst"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        Optional<Profile> profile = profileServiceClient.getSingleProfileIfChanged("tst", "\"7\"", null);
+
+        server.verify();
+        assertThat(profile).isEmpty();
+    }
+
+    @Test
+    public void shouldFallBackToLastEditedWithoutETag() {
+        server.expect(requestTo(URL + "/profiles/tst"))
+                .andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, "Tue, 01 Oct 2019 12:00:00 GMT"))
+                .andRespond(withSuccess("{\"id\": 1}", MediaType.APPLICATION_JSON));
+
+        Optional<Profile> profile = profileServiceClient.getSingleProfileIfChanged("tst", null,
+                LocalDateTime.of(2019, 10, 1, 12, 0));
+
+        server.verify();
+        assertThat(profile).isPresent();
+    }
+}
@@ -0,0 +1,196 @@
+package de.hbt.pwr.view.client.skill;
+
+import de.hbt.pwr.view.client.skill.model.SkillServiceSkill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Validates the caching of the {@link SkillServiceClient}.
+ */
+public class SkillServiceClientTest {
+
+    private static final String URL = "http://skill-service";
+
+    private MockRestServiceServer server;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RestTemplate restTemplate;
+
+    @Before
+    public void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private SkillServiceClient client(int maxSize, Duration timeToLive) {
+        return new SkillServiceClient(URL, restTemplate, meterRegistry, maxSize, timeToLive, timeToLive, 4, false);
+    }
+
+    private SkillServiceClient bulkClient() {
+        Duration timeToLive = Duration.ofMinutes(10);
+        return new SkillServiceClient(URL, restTemplate, meterRegistry, 10, timeToLive, timeToLive, 4, true);
+    }
+
+    private void expectSkill(String qualifier, ExpectedCount count) {
+        server.expect(count, requestTo(URL + "/skill/byName?qualifier=" + qualifier))
+                .andRespond(withSuccess("{\"id\": 1, \"qualifier\": \"" + qualifier + "\"}", MediaType.APPLICATION_JSON));
+    }
+
+    private double count(String name, String tag, String value) {
+        return meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    @Test
+    public void shouldAskSkillServiceOncePerSkill() {
+        expectSkill("Java", ExpectedCount.once());
+        SkillServiceClient client = client(10, Duration.ofMinutes(10));
+
+        SkillServiceSkill first = client.getSkillByName("Java");
+        SkillServiceSkill second = client.getSkillByName("Java");
+
+        server.verify();
+        assertThat(first.getQualifier()).isEqualTo("Java");
+        assertThat(second).isSameAs(first);
+        assertThat(count("skillservice.cache.requests", "result", "hit")).isEqualTo(1);
+        assertThat(count("skillservice.cache.requests", "result", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCacheUnknownSkills() {
+        server.expect(ExpectedCount.once(), requestTo(URL + "/skill/byName?qualifier=Unknown"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        SkillServiceClient client = client(10, Duration.ofMinutes(10));
+
+        assertThat(client.getSkillByName("Unknown")).isNull();
+        assertThat(client.getSkillByName("Unknown")).isNull();
+
+        server.verify();
+    }
+
+    @Test
+    public void shouldAskAgainAfterExpiry() {
+        expectSkill("Java", ExpectedCount.twice());
+        SkillServiceClient client = client(10, Duration.ZERO);
+
+        client.getSkillByName("Java");
+        client.getSkillByName("Java");
+
+        server.verify();
+        assertThat(count("skillservice.cache.evictions", "cause", "expired")).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedSkill() {
+        expectSkill("Java", ExpectedCount.twice());
+        expectSkill("Kotlin", ExpectedCount.once());
+        SkillServiceClient client = client(1, Duration.ofMinutes(10));
+
+        client.getSkillByName("Java");
+        client.getSkillByName("Kotlin");
+        client.getSkillByName("Java");
+
+        server.verify();
+        assertThat(count("skillservice.cache.evictions", "cause", "size")).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldResolveUncachedSkillsWithOneBulkRequest() {
+        expectSkill("Java", ExpectedCount.once());
+        server.expect(ExpectedCount.once(), requestTo(URL + "/skill/byNames"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("[\"Kotlin\", \"Unknown\"]"))
+                .andRespond(withSuccess("[{\"id\": 2, \"qualifier\": \"Kotlin\"}]", MediaType.APPLICATION_JSON));
+        SkillServiceClient client = bulkClient();
+        client.getSkillByName("Java");
+
+        Map<String, SkillServiceSkill> skills = client.getSkillsByName(List.of("Java", "Kotlin", "Unknown", "Kotlin"));
+
+        server.verify();
+        assertThat(skills).containsOnlyKeys("Java", "Kotlin", "Unknown");
+        assertThat(skills.get("Kotlin").getId()).isEqualTo(2);
+        assertThat(skills.get("Unknown")).isNull();
+        assertThat(client.getSkillByName("Unknown")).isNull();
+    }
+
+    @Test
+    public void shouldMatchNormalizedQualifiersToRequestedNames() {
+        server.expect(ExpectedCount.once(), requestTo(URL + "/skill/byNames"))
+                .andRespond(withSuccess("[{\"id\": 2, \"qualifier\": \"Kotlin\"}, {\"id\": 3, \"qualifier\": \"java\"}]",
+                        MediaType.APPLICATION_JSON));
+        SkillServiceClient client = bulkClient();
+
+        Map<String, SkillServiceSkill> skills = client.getSkillsByName(List.of(" kotlin", "Java"));
+
+        server.verify();
+        assertThat(skills.get(" kotlin").getId()).isEqualTo(2);
+        assertThat(skills.get("Java").getId()).isEqualTo(3);
+        assertThat(client.getSkillByName("Java").getId()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldNotUseBulkEndpointUnlessEnabled() {
+        expectSkill("Java", ExpectedCount.once());
+        expectSkill("Kotlin", ExpectedCount.once());
+        SkillServiceClient client = client(10, Duration.ofMinutes(10));
+
+        Map<String, SkillServiceSkill> skills = client.getSkillsByName(List.of("Java", "Kotlin"));
+
+        server.verify();
+        assertThat(skills.get("Java").getQualifier()).isEqualTo("Java");
+        assertThat(skills.get("Kotlin").getQualifier()).isEqualTo("Kotlin");
+    }
+
+    @Test
+    public void shouldLookUpConcurrentlyIfBulkRequestIsRejected() {
+        server.expect(ExpectedCount.twice(), requestTo(URL + "/skill/byNames"))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+        expectSkill("Java", ExpectedCount.once());
+        expectSkill("Kotlin", ExpectedCount.once());
+        expectSkill("Scala", ExpectedCount.once());
+        SkillServiceClient client = bulkClient();
+
+        Map<String, SkillServiceSkill> first = client.getSkillsByName(List.of("Java", "Kotlin"));
+        Map<String, SkillServiceSkill> second = client.getSkillsByName(List.of("Java", "Scala"));
+
+        server.verify();
+        assertThat(first.get("Kotlin").getQualifier()).isEqualTo("Kotlin");
+        assertThat(second.get("Scala").getQualifier()).isEqualTo("Scala");
+    }
+
+    @Test
+    public void shouldLookUpConcurrentlyWithoutBulkEndpoint() {
+        server.expect(ExpectedCount.once(), requestTo(URL + "/skill/byNames"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+        expectSkill("Java", ExpectedCount.once());
+        expectSkill("Kotlin", ExpectedCount.once());
+        expectSkill("Scala", ExpectedCount.once());
+        SkillServiceClient client = bulkClient();
+
+        Map<String, SkillServiceSkill> first = client.getSkillsByName(List.of("Java", "Kotlin"));
+        Map<String, SkillServiceSkill> second = client.getSkillsByName(List.of("Java", "Scala"));
+
+        server.verify();
+        assertThat(first.get("Kotlin").getQualifier()).isEqualTo("Kotlin");
+        assertThat(second.get("Scala").getQualifier()).isEqualTo("Scala");
+    }
+}
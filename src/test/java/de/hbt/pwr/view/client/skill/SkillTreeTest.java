@@ -0,0 +1,97 @@
+package de.hbt.pwr.view.client.skill;
+
+import de.hbt.pwr.view.client.skill.model.SkillServiceSkill;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Validates the snapshots of the {@link SkillTree}.
+ */
+public class SkillTreeTest {
+
+    private static final String URL = "http://skill-service";
+
+    private static final String TREE = "[" +
+            "{\"id\": 1, \"qualifier\": \"Java\", \"category\": {\"id\": 10, \"qualifier\": \"JVM\", " +
+            "\"category\": {\"id\": 100, \"qualifier\": \"Languages\"}}}," +
+            "{\"id\": 2, \"qualifier\": \"Kotlin\", \"category\": {\"id\": 10, \"qualifier\": \"JVM\", " +
+            "\"category\": {\"id\": 100, \"qualifier\": \"Languages\"}}}]";
+
+    private MockRestServiceServer server;
+
+    private SkillServiceClient skillServiceClient;
+
+    private SkillTree skillTree;
+
+    @Before
+    public void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        skillServiceClient = mock(SkillServiceClient.class);
+        skillTree = new SkillTree(URL, restTemplate, skillServiceClient, Duration.ZERO);
+    }
+
+    private void expectTree() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"1\"");
+        server.expect(requestTo(URL + "/skill"))
+                .andRespond(withSuccess(TREE, MediaType.APPLICATION_JSON).headers(headers));
+    }
+
+    @Test
+    public void shouldResolveSkillsAndCategoriesFromSnapshot() {
+        expectTree();
+
+        skillTree.refresh();
+
+        SkillServiceSkill java = skillTree.getSkillByName("Java");
+        SkillServiceSkill kotlin = skillTree.getSkillByName("Kotlin");
+        assertThat(java.getCategory().getCategory().getQualifier()).isEqualTo("Languages");
+        assertThat(kotlin.getCategory()).isSameAs(java.getCategory());
+        assertThat(skillTree.getCategoryById(100)).isSameAs(java.getCategory().getCategory());
+        assertThat(skillTree.getVersion()).isEqualTo(1);
+        verifyNoInteractions(skillServiceClient);
+    }
+
+    @Test
+    public void shouldKeepSnapshotIfTreeDidNotChange() {
+        expectTree();
+        server.expect(requestTo(URL + "/skill"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        skillTree.refresh();
+        skillTree.refresh();
+
+        server.verify();
+        assertThat(skillTree.getVersion()).isEqualTo(1);
+        assertThat(skillTree.getSkillByName("Java")).isNotNull();
+    }
+
+    @Test
+    public void shouldAskSkillServiceForSkillsMissingInSnapshot() {
+        expectTree();
+        SkillServiceSkill scala = new SkillServiceSkill("Scala");
+        given(skillServiceClient.getSkillByName("Scala")).willReturn(scala);
+
+        skillTree.refresh();
+
+        assertThat(skillTree.getSkillByName("Scala")).isSameAs(scala);
+    }
+}
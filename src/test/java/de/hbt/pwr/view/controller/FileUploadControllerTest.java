@@ -0,0 +1,110 @@
+package de.hbt.pwr.view.controller;
+
+import de.hbt.pwr.view.client.files.FileUploadClient;
+import de.hbt.pwr.view.model.UploadFileResponse;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Validates that files are passed through the {@link FileUploadController} as streams.
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(FileUploadController.class)
+@Import(MultipartStreamReader.class)
+@ActiveProfiles("test")
+public class FileUploadControllerTest {
+
+    private static final String BOUNDARY = "test-boundary";
+
+    @SuppressWarnings("unused")
+    @MockBean
+    // DO NOT REMOVE. Stops the container for crashing. Don't ask why ~nt
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @MockBean
+    private FileUploadClient fileUploadClient;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static byte[] multipartBody(String fieldName, String filename, String content) {
+        return ("--" + BOUNDARY + "\r\n" +
+                "Content-Disposition: form-data; name=\"" + fieldName + "\"; filename=\"" + filename + "\"\r\n" +
+                "Content-Type: application/octet-stream\r\n" +
+                "\r\n" +
+                content + "\r\n" +
+                "--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void shouldPassUploadedFileOnAsStream() throws Exception {
+        AtomicReference<String> uploaded = new AtomicReference<>();
+        given(fileUploadClient.uploadFile(eq("template.docx"), any(InputStream.class))).willAnswer(invocation -> {
+            uploaded.set(StreamUtils.copyToString(invocation.getArgument(1), StandardCharsets.UTF_8));
+            return ResponseEntity.ok(new UploadFileResponse("F1", "template.docx", "", "", 16));
+        });
+
+        mockMvc.perform(post("/file")
+                .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                .content(multipartBody("file", "template.docx", "template content")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fileId").value("F1"));
+
+        assertThat(uploaded.get()).isEqualTo("template content");
+    }
+
+    @Test
+    public void shouldRejectUploadWithoutFile() throws Exception {
+        mockMvc.perform(post("/file")
+                .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                .content(multipartBody("other", "template.docx", "template content")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldPassDownloadedFileOn() throws Exception {
+        willAnswer(invocation -> {
+            FileUploadClient.FileSink sink = invocation.getArgument(1);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.set(HttpHeaders.SERVER, "report-service");
+            sink.open(HttpStatus.OK, headers).write("template content".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(fileUploadClient).serveFile(eq("F1"), any());
+
+        mockMvc.perform(get("/file/F1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/octet-stream"))
+                .andExpect(header().doesNotExist(HttpHeaders.SERVER))
+                .andExpect(content().string("template content"));
+    }
+}
@@ -0,0 +1,183 @@
+package de.hbt.pwr.view.controller;
+
+import de.hbt.pwr.view.client.report.ReportServiceClient;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import de.hbt.pwr.view.service.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Validates the conditional and partial reads of the {@link ViewProfileController}.
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(ViewProfileController.class)
+@ActiveProfiles("test")
+public class ViewProfileControllerTest {
+
+    @SuppressWarnings("unused")
+    @MockBean
+    // DO NOT REMOVE. Stops the container for crashing. Don't ask why ~nt
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @MockBean
+    private ViewProfileOperationService viewProfileService;
+
+    @MockBean
+    private ReportServiceClient reportServiceClient;
+
+    @MockBean
+    private ReportTemplateService reportTemplateService;
+
+    @MockBean
+    private ViewProfileCreatorService viewProfileCreatorService;
+
+    @MockBean
+    private ViewProfileMergeService viewProfileMergeService;
+
+    @MockBean
+    private ViewProfileMigrationService viewProfileMigrationService;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private ViewProfilePatchService viewProfilePatchService;
+
+    @MockBean
+    private ViewProfileJsonCache viewProfileJsonCache;
+
+    @MockBean
+    private ViewProfileChangeBroadcaster viewProfileChangeBroadcaster;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId("VP1");
+        viewProfile.setVersion(7L);
+        given(viewProfileService.getByIdAndCheckOwner("VP1", "tst")).willReturn(viewProfile);
+    }
+
+    @Test
+    public void shouldReturnViewProfileWithVersionAsETag() throws Exception {
+        mockMvc.perform(get("/view/tst/VP1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(jsonPath("$.id").value("VP1"));
+    }
+
+    @Test
+    public void shouldReturnNotModifiedForCurrentVersion() throws Exception {
+        mockMvc.perform(get("/view/tst/VP1").header(HttpHeaders.IF_NONE_MATCH, "\"6\", W/\"7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void shouldReturnViewProfileForOutdatedVersion() throws Exception {
+        mockMvc.perform(get("/view/tst/VP1").header(HttpHeaders.IF_NONE_MATCH, "\"6\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("VP1"));
+    }
+
+    @Test
+    public void shouldOnlyReadAndReturnRequestedSections() throws Exception {
+        ViewProfile partial = new ViewProfile();
+        partial.setId("VP1");
+        partial.setVersion(7L);
+        given(viewProfileService.getSectionsByIdAndCheckOwner("VP1", "tst",
+                EnumSet.of(ViewProfileSection.PROJECTS, ViewProfileSection.DISPLAY_CATEGORIES))).willReturn(partial);
+
+        mockMvc.perform(get("/view/tst/VP1").param("fields", "projects, displayCategories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(jsonPath("$.id").value("VP1"))
+                .andExpect(jsonPath("$.projects").isArray())
+                .andExpect(jsonPath("$.displayCategories").isArray())
+                .andExpect(jsonPath("$.careers").doesNotExist());
+        then(viewProfileService).should(never()).getByIdAndCheckOwner(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldRejectUnknownSection() throws Exception {
+        mockMvc.perform(get("/view/tst/VP1").param("fields", "secrets"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.innerError.field").value("secrets"));
+    }
+
+    @Test
+    public void shouldWriteCachedJsonOfCurrentVersion() throws Exception {
+        ViewProfile current = new ViewProfile();
+        current.setId("VP1");
+        current.setVersion(7L);
+        given(viewProfileJsonCache.isEnabled()).willReturn(true);
+        given(viewProfileService.getSectionsByIdAndCheckOwner("VP1", "tst", EnumSet.noneOf(ViewProfileSection.class)))
+                .willReturn(current);
+        given(viewProfileJsonCache.get("VP1", 7L, false)).willReturn("{\"id\":\"cached\"}".getBytes());
+
+        mockMvc.perform(get("/view/tst/VP1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7\""))
+                .andExpect(jsonPath("$.id").value("cached"));
+        then(viewProfileService).should(never()).getByIdAndCheckOwner(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldCacheJsonOfUncachedVersion() throws Exception {
+        ViewProfile current = new ViewProfile();
+        current.setVersion(7L);
+        given(viewProfileJsonCache.isEnabled()).willReturn(true);
+        given(viewProfileJsonCache.isGzipEnabled()).willReturn(true);
+        given(viewProfileService.getSectionsByIdAndCheckOwner("VP1", "tst", EnumSet.noneOf(ViewProfileSection.class)))
+                .willReturn(current);
+        given(viewProfileJsonCache.put(any(ViewProfile.class), eq(true))).willReturn(new byte[]{31, -117});
+
+        mockMvc.perform(get("/view/tst/VP1").header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(result -> assertThat(result.getResponse().getHeaders(HttpHeaders.VARY))
+                        .contains(HttpHeaders.ACCEPT_ENCODING));
+        then(viewProfileService).should().getByIdAndCheckOwner("VP1", "tst");
+    }
+
+    @Test
+    public void shouldStreamChangesOfOwnViewProfile() throws Exception {
+        given(viewProfileChangeBroadcaster.subscribe("VP1")).willReturn(new SseEmitter());
+
+        mockMvc.perform(get("/view/tst/VP1/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        then(viewProfileService).should().getSectionsByIdAndCheckOwner("VP1", "tst",
+                EnumSet.noneOf(ViewProfileSection.class));
+    }
+}
@@ -4,6 +4,8 @@ import de.hbt.pwr.view.model.ProfileEntryType;
 import de.hbt.pwr.view.model.ViewProfile;
 import de.hbt.pwr.view.model.entries.sort.NameComparableEntryType;
 import de.hbt.pwr.view.model.entries.sort.StartEndDateComparableEntryType;
+import de.hbt.pwr.view.model.ViewProfileOperation;
+import de.hbt.pwr.view.service.ViewProfileBatchService;
 import de.hbt.pwr.view.service.ViewProfileOperationService;
 import de.hbt.pwr.view.service.ViewProfileSortService;
 import org.junit.Before;
@@ -13,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -23,6 +26,8 @@ import java.util.Arrays;
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SuppressWarnings("ConstantConditions")
@@ -47,6 +52,9 @@ public class ViewProfileOperationsControllerTest {
     @MockBean
     private ViewProfileSortService viewProfileSortService;
 
+    @MockBean
+    private ViewProfileBatchService viewProfileBatchService;
+
     @SuppressWarnings("unused")
     @MockBean
     // DO NOT REMOVE. Stops the container for crashing. Don't ask why ~nt
@@ -320,4 +328,62 @@ public class ViewProfileOperationsControllerTest {
                 .should(times(1))
                 .moveSkillInProject(viewProfileReturned, projectIndex, sourceIndex, targetIndex);
     }
+
+    @Test
+    public void shouldApplyBatchOfOperationsAndReturn200() throws Exception {
+        String url = urlBasePath() + "batch";
+        given(viewProfileBatchService.apply(eq(viewProfileReturned), anyList())).willReturn(viewProfileReturned);
+        String body = "[{\"type\": \"MOVE\", \"entryType\": \"CAREER\", \"sourceIndex\": 0, \"targetIndex\": 2}," +
+                "{\"type\": \"SET_DESCRIPTION\", \"description\": \"Foo\"}]";
+        mockMvc.perform(patch(url).contentType(MediaType.APPLICATION_JSON).content(body)).andExpect(status().isOk());
+        assertOwnerCheckAndRetrieval();
+        then(viewProfileBatchService).should(times(1)).apply(viewProfileReturned, Arrays.asList(
+                ViewProfileOperation.builder().type(ViewProfileOperation.Type.MOVE).entryType("CAREER")
+                        .sourceIndex(0).targetIndex(2).build(),
+                ViewProfileOperation.builder().type(ViewProfileOperation.Type.SET_DESCRIPTION).description("Foo").build()));
+    }
+
+    @Test
+    public void shouldReturnVersionAsETag() throws Exception {
+        viewProfileReturned.setVersion(3L);
+        mockMvc.perform(patch(urlBasePath() + "CAREER/0/visibility/true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    public void shouldApplyOperationOnMatchingVersion() throws Exception {
+        viewProfileReturned.setVersion(3L);
+        mockMvc.perform(patch(urlBasePath() + "CAREER/0/visibility/true").header(HttpHeaders.IF_MATCH, "\"3\""))
+                .andExpect(status().isOk());
+        then(viewProfileService).should(times(1)).setIsEnabled(viewProfileReturned, 0, true, ProfileEntryType.CAREER);
+    }
+
+    @Test
+    public void shouldRejectOperationOnOtherVersion() throws Exception {
+        viewProfileReturned.setVersion(3L);
+        mockMvc.perform(patch(urlBasePath() + "CAREER/0/visibility/true").header(HttpHeaders.IF_MATCH, "\"2\""))
+                .andExpect(status().isPreconditionFailed());
+        then(viewProfileService).should(never()).setIsEnabled(any(), anyInt(), anyBoolean(), any());
+    }
+
+    @Test
+    public void shouldReturnRequestedSectionsOnly() throws Exception {
+        viewProfileReturned.setId(viewProfileId);
+        viewProfileReturned.setVersion(3L);
+        mockMvc.perform(patch(urlBasePath() + "CAREER/0/visibility/true").param("fields", "careers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(viewProfileId))
+                .andExpect(jsonPath("$.version").value(3))
+                .andExpect(jsonPath("$.careers").isArray())
+                .andExpect(jsonPath("$.projects").doesNotExist())
+                .andExpect(jsonPath("$.viewProfileInfo").doesNotExist());
+    }
+
+    @Test
+    public void shouldRejectUnknownSectionBeforeApplyingOperation() throws Exception {
+        mockMvc.perform(patch(urlBasePath() + "CAREER/0/visibility/true").param("sections", "careers,foo"))
+                .andExpect(status().isBadRequest());
+        then(viewProfileService).should(never()).setIsEnabled(any(), anyInt(), anyBoolean(), any());
+    }
 }
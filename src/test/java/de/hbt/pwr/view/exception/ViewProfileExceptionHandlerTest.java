@@ -4,6 +4,7 @@ import de.hbt.pwr.view.client.profile.ProfileServiceClient;
 import de.hbt.pwr.view.client.report.ReportServiceClient;
 import de.hbt.pwr.view.client.skill.SkillServiceClient;
 import de.hbt.pwr.view.controller.ViewProfileController;
+import de.hbt.pwr.view.model.ViewProfile;
 import de.hbt.pwr.view.repo.ViewProfileRepository;
 import de.hbt.pwr.view.service.*;
 import lombok.extern.slf4j.Slf4j;
@@ -18,8 +19,11 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -66,6 +70,21 @@ public class ViewProfileExceptionHandlerTest {
     @MockBean
     private ViewProfileMergeService viewProfileMergeService;
 
+    @MockBean
+    private ViewProfileMigrationService viewProfileMigrationService;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private ViewProfilePatchService viewProfilePatchService;
+
+    @MockBean
+    private ViewProfileJsonCache viewProfileJsonCache;
+
+    @MockBean
+    private ViewProfileChangeBroadcaster viewProfileChangeBroadcaster;
+
 
     @Test
     public void shouldReturnForbidden403() throws Exception {
@@ -121,4 +140,50 @@ public class ViewProfileExceptionHandlerTest {
         String url = "/template/" + id;
         mockMvc.perform(get(url)).andExpect(status().isNotFound());
     }
+
+    @Test
+    public void shouldReturnConflict409WithCurrentVersion() throws Exception {
+        given(viewProfileService.getViewProfileIdsForInitials("fooBar")).willThrow(new ViewProfileConflictException("12", 3, 5));
+        String url = "/view/fooBar";
+        mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error.innerError.currentVersion").value(5));
+    }
+
+    @Test
+    public void shouldReturnNotFound404ForUnknownReportJob() throws Exception {
+        given(reportJobService.getJob("fooBar", "42")).willThrow(new ReportJobNotFoundException("42"));
+        mockMvc.perform(get("/view/fooBar/report/jobs/42").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void shouldReturnServiceUnavailable503IfReportQueueIsFull() throws Exception {
+        given(reportJobService.getJob("fooBar", "42")).willThrow(new ReportQueueFullException(50));
+        mockMvc.perform(get("/view/fooBar/report/jobs/42").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void shouldReturnBadRequest400ForInvalidPatch() throws Exception {
+        given(viewProfileService.getByIdAndCheckOwner("42", "fooBar")).willReturn(new ViewProfile());
+        given(viewProfilePatchService.patch(any(), any()))
+                .willThrow(new InvalidViewProfilePatchException(1, new IllegalArgumentException("No value at /foo")));
+        mockMvc.perform(patch("/view/fooBar/42").contentType("application/json-patch+json").content("[]")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.innerError.operationIndex").value(1));
+    }
+
+    @Test
+    public void shouldReturnPreconditionFailed412WithCurrentVersion() throws Exception {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setVersion(5L);
+        given(viewProfileService.getByIdAndCheckOwner("42", "fooBar")).willReturn(viewProfile);
+        mockMvc.perform(patch("/view/fooBar/42").contentType("application/json-patch+json").content("[]")
+                .header("If-Match", "\"4\"")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error.innerError.currentVersion").value(5));
+    }
 }
@@ -0,0 +1,166 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.time.Duration;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates the {@link NearCacheViewProfileStore} against an embedded redis, with two caches acting as two nodes.
+ */
+public class NearCacheViewProfileStoreTest {
+
+    private static final int TEST_REDIS_PORT = 24316;
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private BlobViewProfileStore blobStore;
+
+    private NearCacheViewProfileStore node1;
+
+    private NearCacheViewProfileStore node2;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        redisServer = RedisServer.builder().port(TEST_REDIS_PORT).setting("maxmemory 128M").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", TEST_REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        meterRegistry = new SimpleMeterRegistry();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        ViewProfileCodec codec = new ViewProfileCodec(new ViewProfileCompressor(1024, meterRegistry), meterRegistry);
+        blobStore = new BlobViewProfileStore(ViewProfileRepositoryCustomImpl.binaryTemplate(connectionFactory),
+                redisTemplate, codec);
+        node1 = new NearCacheViewProfileStore(blobStore, blobStore, redisTemplate, 10, Duration.ofMinutes(5), meterRegistry);
+        node2 = new NearCacheViewProfileStore(blobStore, blobStore, redisTemplate, 10, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+    }
+
+    @After
+    public void tearDown() {
+        node1.close();
+        node2.close();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    private ViewProfile viewProfileOf(String id, String owner) {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId(id);
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials(owner).name(id).build());
+        return viewProfile;
+    }
+
+    private double hits() {
+        return meterRegistry.get("viewprofile.nearcache.requests").tag("result", "hit").counter().count();
+    }
+
+    @Test
+    public void shouldServeRepeatedReadsFromMemory() {
+        node1.save(viewProfileOf("VP1", "tst"));
+        ViewProfile bypassed = blobStore.findById("VP1").orElseThrow();
+        bypassed.setDescription("Written around the cache");
+        blobStore.save(bypassed);
+
+        ViewProfile first = node1.findById("VP1").orElseThrow();
+        ViewProfile second = node1.findById("VP1").orElseThrow();
+
+        assertThat(hits()).isEqualTo(2);
+        assertThat(first.getDescription()).isEmpty();
+        assertThat(first).isNotSameAs(second);
+        assertThat(node1.findOwner("VP1")).contains("tst");
+    }
+
+    @Test
+    public void shouldNotShareCachedInstances() {
+        node1.save(viewProfileOf("VP1", "tst"));
+
+        node1.findById("VP1").orElseThrow().setDescription("Modified but not saved");
+
+        assertThat(node1.findById("VP1").orElseThrow().getDescription()).isEmpty();
+    }
+
+    @Test
+    public void shouldDropEntryWhenAnotherNodeWrites() throws InterruptedException {
+        node1.save(viewProfileOf("VP1", "tst"));
+        node1.findById("VP1");
+
+        ViewProfile viewProfile = node2.findById("VP1").orElseThrow();
+        viewProfile.setDescription("Changed on node 2");
+        node2.saveChanges(viewProfile);
+
+        String description = node1.findById("VP1").orElseThrow().getDescription();
+        for (int i = 0; i < 100 && !"Changed on node 2".equals(description); i++) {
+            Thread.sleep(20);
+            description = node1.findById("VP1").orElseThrow().getDescription();
+        }
+        assertThat(description).isEqualTo("Changed on node 2");
+    }
+
+    @Test
+    public void shouldDropStaleEntryOnConflict() {
+        node1.save(viewProfileOf("VP1", "tst"));
+        ViewProfile concurrent = blobStore.findById("VP1").orElseThrow();
+        concurrent.setDescription("Concurrent");
+        blobStore.saveChanges(concurrent);
+
+        ViewProfile stale = node1.findById("VP1").orElseThrow();
+        stale.setDescription("Stale");
+        assertThatThrownBy(() -> node1.saveChanges(stale)).isInstanceOf(ViewProfileConflictException.class);
+
+        assertThat(node1.findById("VP1").orElseThrow().getDescription()).isEqualTo("Concurrent");
+    }
+
+    @Test
+    public void shouldForgetDeletedViewProfile() {
+        node1.save(viewProfileOf("VP1", "tst"));
+        node1.findById("VP1");
+
+        node1.deleteById("VP1");
+
+        assertThat(node1.findById("VP1")).isNotPresent();
+        assertThat(node1.existsById("VP1")).isFalse();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        for (int i = 0; i < 11; i++) {
+            node1.save(viewProfileOf("VP" + i, "tst"));
+        }
+
+        node1.findById("VP0");
+
+        assertThat(hits()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldServeRequestedSectionsFromMemory() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        viewProfile.setDescription("Cached");
+        node1.save(viewProfile);
+
+        ViewProfile partial = node1.findSectionsById("VP1", EnumSet.of(ViewProfileSection.DESCRIPTION)).orElseThrow();
+
+        assertThat(hits()).isEqualTo(1);
+        assertThat(partial.getDescription()).isEqualTo("Cached");
+        assertThat(partial.getVersion()).isEqualTo(viewProfile.getVersion());
+        assertThat(partial.getViewProfileInfo().getOwnerInitials()).isEmpty();
+    }
+}
@@ -0,0 +1,380 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.fixture.ViewProfileFixtures;
+import de.hbt.pwr.view.exception.ViewProfileConflictException;
+import de.hbt.pwr.view.model.MigrationProgress;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import de.hbt.pwr.view.model.skill.Category;
+import de.hbt.pwr.view.model.skill.Skill;
+import de.hbt.pwr.view.model.skill.SkillVersion;
+import de.hbt.pwr.view.service.ViewProfileMigrationService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import redis.embedded.RedisServer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Validates the {@link ViewProfileRepository} against an embedded redis.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"spring.redis.port = " + ViewProfileRepositoryIntegrationTest.TEST_REDIS_PORT_STRING})
+public class ViewProfileRepositoryIntegrationTest {
+
+    private static final Integer TEST_REDIS_PORT_INT = 24313;
+    static final String TEST_REDIS_PORT_STRING = "24313";
+
+    private static RedisServer redisServer;
+
+    @Autowired
+    private ViewProfileRepository viewProfileRepository;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisKeyValueTemplate redisKeyValueTemplate;
+
+    @Autowired
+    private ViewProfileMigrationService viewProfileMigrationService;
+
+    @BeforeClass
+    public static void setUpRedis() {
+        redisServer = RedisServer.builder()
+                .port(TEST_REDIS_PORT_INT)
+                .setting("maxmemory 128M")
+                .build();
+    }
+
+    @Before
+    public void startRedis() {
+        redisServer.start();
+    }
+
+    @After
+    public void stopRedis() {
+        redisServer.stop();
+    }
+
+    private ViewProfile viewProfileOf(String id, String owner) {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId(id);
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials(owner).name(id).build());
+        return viewProfile;
+    }
+
+    @Test
+    public void shouldFindIdsByOwner() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        viewProfileRepository.save(viewProfileOf("VP2", "tst"));
+        viewProfileRepository.save(viewProfileOf("O1", "oth"));
+
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).containsExactlyInAnyOrder("VP1", "VP2");
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("oth")).containsExactly("O1");
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("xyz")).isEmpty();
+    }
+
+    @Test
+    public void shouldGenerateIdAndIndexOnInsert() {
+        ViewProfile saved = viewProfileRepository.save(viewProfileOf(null, "tst"));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).containsExactly(saved.getId());
+        assertThat(viewProfileRepository.findById(saved.getId())).isPresent();
+    }
+
+    @Test
+    public void shouldRemoveFromIndexOnDelete() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        viewProfileRepository.save(viewProfileOf("VP2", "tst"));
+
+        viewProfileRepository.deleteById("VP1");
+
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).containsExactly("VP2");
+        assertThat(viewProfileRepository.findById("VP1")).isNotPresent();
+    }
+
+    @Test
+    public void shouldRebuildIndexForExistingData() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        viewProfileRepository.save(viewProfileOf("O1", "oth"));
+        stringRedisTemplate.delete(ViewProfileRepositoryCustomImpl.OWNER_INDEX_PREFIX + "tst");
+        stringRedisTemplate.delete(ViewProfileRepositoryCustomImpl.OWNERS_KEY);
+
+        long indexed = viewProfileRepository.rebuildOwnerIndex();
+
+        assertThat(indexed).isEqualTo(2);
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).containsExactly("VP1");
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("oth")).containsExactly("O1");
+    }
+
+    @Test
+    public void shouldRemoveStaleEntriesWhenRebuildingIndex() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        viewProfileRepository.save(viewProfileOf("VP2", "tst"));
+        // Deleted without updating the index, and indexed with a wrong owner
+        stringRedisTemplate.opsForSet().add(ViewProfileRepositoryCustomImpl.OWNER_INDEX_PREFIX + "tst", "GONE");
+        stringRedisTemplate.opsForHash().put(ViewProfileRepositoryCustomImpl.OWNERS_KEY, "GONE", "tst");
+        stringRedisTemplate.opsForSet().add(ViewProfileRepositoryCustomImpl.OWNER_INDEX_PREFIX + "oth", "VP2");
+        stringRedisTemplate.opsForHash().put(ViewProfileRepositoryCustomImpl.OWNERS_KEY, "VP2", "oth");
+
+        long indexed = viewProfileRepository.rebuildOwnerIndex();
+
+        assertThat(indexed).isEqualTo(2);
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).containsExactlyInAnyOrder("VP1", "VP2");
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("oth")).isEmpty();
+        assertThat(stringRedisTemplate.<String, String>opsForHash().entries(ViewProfileRepositoryCustomImpl.OWNERS_KEY))
+                .containsOnly(entry("VP1", "tst"), entry("VP2", "tst"));
+    }
+
+    @Test
+    public void shouldStoreAsBlobAndReadBackTheWholeGraph() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        viewProfile.setLocale(Locale.GERMAN);
+        viewProfile.getViewProfileInfo().setCreationDate(LocalDate.of(2019, 1, 2));
+        viewProfile.getProjects().add(ViewProfileFixtures.validProject());
+        Category category = new Category(3L, "Programming", true, true);
+        Skill skill = new Skill(55L, "Java", 4, true, new ArrayList<>(List.of(new SkillVersion("11", false))), category);
+        viewProfile.getDisplayCategories().add(category);
+
+        viewProfileRepository.save(viewProfile);
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+
+        assertThat(stringRedisTemplate.hasKey(BlobViewProfileStore.docKey("VP1"))).isTrue();
+        assertThat(loaded.getLocale()).isEqualTo(Locale.GERMAN);
+        assertThat(loaded.getViewProfileInfo()).isEqualTo(viewProfile.getViewProfileInfo());
+        assertThat(loaded.getProjects()).containsExactly(ViewProfileFixtures.validProject());
+        assertThat(loaded.getProjects().get(0).getSkills()).containsExactly(ViewProfileFixtures.validSkill());
+        Skill loadedSkill = loaded.findSkillByName("Java").orElseThrow();
+        assertThat(loadedSkill).isEqualTo(skill);
+        assertThat(loadedSkill.getVersions()).extracting(SkillVersion::getEnabled).containsExactly(false);
+        assertThat(loadedSkill.getDisplayCategory()).isSameAs(loaded.getDisplayCategories().get(0));
+    }
+
+    @Test
+    public void shouldMigrateHashLayoutToBlob() {
+        for (int i = 0; i < 25; i++) {
+            redisKeyValueTemplate.insert(viewProfileOf("OLD" + i, "tst"));
+        }
+        assertThat(viewProfileRepository.findById("OLD0")).isPresent();
+
+        int migrated = 0;
+        String cursor = ViewProfileIdPage.START_CURSOR;
+        do {
+            ViewProfileIdPage page = viewProfileRepository.scanForMigration(cursor, 10);
+            migrated += viewProfileRepository.migrate(page.getIds());
+            cursor = page.getCursor();
+        } while (!ViewProfileIdPage.START_CURSOR.equals(cursor));
+
+        assertThat(migrated).isEqualTo(25);
+        assertThat(redisKeyValueTemplate.findById("OLD0", ViewProfile.class)).isNotPresent();
+        assertThat(stringRedisTemplate.hasKey(BlobViewProfileStore.docKey("OLD0"))).isTrue();
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).hasSize(25);
+        assertThat(viewProfileRepository.count()).isEqualTo(25);
+        assertThat(viewProfileRepository.findById("OLD7").orElseThrow().getViewProfileInfo().getName()).isEqualTo("OLD7");
+    }
+
+    @Test
+    public void shouldRunMigrationInBackgroundAndReportProgress() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            redisKeyValueTemplate.insert(viewProfileOf("OLD" + i, "tst"));
+        }
+
+        assertThat(viewProfileMigrationService.start().getState()).isEqualTo(MigrationProgress.State.RUNNING);
+        MigrationProgress progress = viewProfileMigrationService.getProgress();
+        for (int i = 0; i < 100 && progress.getState() == MigrationProgress.State.RUNNING; i++) {
+            Thread.sleep(50);
+            progress = viewProfileMigrationService.getProgress();
+        }
+
+        assertThat(progress.getState()).isEqualTo(MigrationProgress.State.DONE);
+        assertThat(progress.getMigrated()).isEqualTo(5);
+        assertThat(progress.getCursor()).isEqualTo(ViewProfileIdPage.START_CURSOR);
+        assertThat(viewProfileRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldNotMigrateWhileAnotherInstanceHoldsTheLock() throws InterruptedException {
+        redisKeyValueTemplate.insert(viewProfileOf("OLD0", "tst"));
+        stringRedisTemplate.opsForValue().set("viewProfile:migration:lock", "other instance");
+
+        assertThat(viewProfileMigrationService.start().getState()).isEqualTo(MigrationProgress.State.NOT_STARTED);
+        Thread.sleep(200);
+        assertThat(stringRedisTemplate.hasKey(BlobViewProfileStore.docKey("OLD0"))).isFalse();
+
+        stringRedisTemplate.delete("viewProfile:migration:lock");
+        assertThat(viewProfileMigrationService.start().getState()).isEqualTo(MigrationProgress.State.RUNNING);
+    }
+
+    @Test
+    public void shouldNotOverwriteAlreadyMigratedViewProfile() {
+        redisKeyValueTemplate.insert(viewProfileOf("VP1", "old"));
+        viewProfileRepository.save(viewProfileOf("VP1", "new"));
+
+        assertThat(viewProfileRepository.migrate(List.of("VP1"))).isEqualTo(0);
+
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getViewProfileInfo().getOwnerInitials())
+                .isEqualTo("new");
+        assertThat(redisKeyValueTemplate.findById("VP1", ViewProfile.class)).isNotPresent();
+    }
+
+    @Test
+    public void shouldCompressLargeSectionsAndReadThemBack() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        viewProfile.setDescription("A rather repetitive description. ".repeat(200));
+
+        viewProfileRepository.save(viewProfile);
+
+        byte[] description = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hGet(
+                BlobViewProfileStore.docKey("VP1").getBytes(), ViewProfileSection.DESCRIPTION.getFieldName().getBytes()));
+        byte[] info = stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.hGet(
+                BlobViewProfileStore.docKey("VP1").getBytes(), ViewProfileSection.VIEW_PROFILE_INFO.getFieldName().getBytes()));
+        assertThat(description[0]).isEqualTo(ViewProfileCompressor.LZ4_MARKER);
+        assertThat(description.length).isLessThan(viewProfile.getDescription().length());
+        assertThat(info[0]).isNotEqualTo(ViewProfileCompressor.LZ4_MARKER);
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getDescription())
+                .isEqualTo(viewProfile.getDescription());
+    }
+
+    @Test
+    public void shouldSkipSavingUnchangedViewProfile() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+
+        assertThat(viewProfileRepository.saveChanges(loaded)).isFalse();
+        loaded.setDescription("Changed");
+        assertThat(viewProfileRepository.saveChanges(loaded)).isTrue();
+        assertThat(viewProfileRepository.saveChanges(loaded)).isFalse();
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getDescription()).isEqualTo("Changed");
+    }
+
+    @Test
+    public void shouldOnlyWriteChangedSections() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        ViewProfile first = viewProfileRepository.findById("VP1").orElseThrow();
+        ViewProfile second = viewProfileRepository.findById("VP1").orElseThrow();
+
+        first.setDescription("Changed");
+        second.setLocale(Locale.ENGLISH);
+        viewProfileRepository.saveChanges(first);
+        // Skips the version check, so only the section write is validated
+        second.setVersion(null);
+        viewProfileRepository.saveChanges(second);
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getDescription()).isEqualTo("Changed");
+        assertThat(loaded.getLocale()).isEqualTo(Locale.ENGLISH);
+    }
+
+    @Test
+    public void shouldWriteEverythingWhenNotTracked() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        viewProfile.setDescription("New");
+
+        assertThat(viewProfileRepository.saveChanges(viewProfile)).isTrue();
+
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow()).isEqualTo(viewProfile);
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).containsExactly("VP1");
+    }
+
+    @Test
+    public void shouldIncrementVersionOnSave() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        viewProfileRepository.save(viewProfile);
+        assertThat(viewProfile.getVersion()).isEqualTo(1L);
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getVersion()).isEqualTo(1L);
+        loaded.setDescription("Changed");
+        viewProfileRepository.saveChanges(loaded);
+        assertThat(loaded.getVersion()).isEqualTo(2L);
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldRejectSaveOfOutdatedVersion() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        ViewProfile first = viewProfileRepository.findById("VP1").orElseThrow();
+        ViewProfile second = viewProfileRepository.findById("VP1").orElseThrow();
+        first.setDescription("First");
+        viewProfileRepository.saveChanges(first);
+        second.setDescription("Second");
+
+        assertThatThrownBy(() -> viewProfileRepository.saveChanges(second))
+                .isInstanceOf(ViewProfileConflictException.class)
+                .extracting("currentVersion").isEqualTo(2L);
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getDescription()).isEqualTo("First");
+    }
+
+    @Test
+    public void shouldRejectSaveOfOutdatedVersionInHashLayout() {
+        HashViewProfileStore hashStore = new HashViewProfileStore(redisKeyValueTemplate, stringRedisTemplate);
+        hashStore.save(viewProfileOf("VP1", "tst"));
+        ViewProfile first = hashStore.findById("VP1").orElseThrow();
+        ViewProfile second = hashStore.findById("VP1").orElseThrow();
+        first.setDescription("First");
+        hashStore.save(first);
+        second.setDescription("Second");
+
+        assertThatThrownBy(() -> hashStore.save(second))
+                .isInstanceOf(ViewProfileConflictException.class)
+                .extracting("currentVersion").isEqualTo(2L);
+        ViewProfile loaded = hashStore.findById("VP1").orElseThrow();
+        assertThat(loaded.getDescription()).isEqualTo("First");
+        assertThat(loaded.getVersion()).isEqualTo(2L);
+        assertThat(loaded.getViewProfileInfo().getName()).isEqualTo("VP1");
+        assertThat(hashStore.findAllIds()).containsExactly("VP1");
+    }
+
+    @Test
+    public void shouldReadOnlyRequestedSections() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        viewProfile.setDescription("Described");
+        viewProfile.getProjects().add(ViewProfileFixtures.validProject());
+        viewProfileRepository.save(viewProfile);
+
+        ViewProfile partial = viewProfileRepository.findSectionsById("VP1",
+                EnumSet.of(ViewProfileSection.PROJECTS, ViewProfileSection.VIEW_PROFILE_INFO)).orElseThrow();
+
+        assertThat(partial.getVersion()).isEqualTo(1L);
+        assertThat(partial.getProjects()).containsExactly(ViewProfileFixtures.validProject());
+        assertThat(partial.getViewProfileInfo()).isEqualTo(viewProfile.getViewProfileInfo());
+        assertThat(partial.getDescription()).isEmpty();
+        assertThat(viewProfileRepository.findSectionsById("VP2", EnumSet.of(ViewProfileSection.PROJECTS))).isNotPresent();
+    }
+
+    @Test
+    public void shouldRejectSaveOfPartiallyReadViewProfile() {
+        viewProfileRepository.save(viewProfileOf("VP1", "tst"));
+        ViewProfile partial = viewProfileRepository.findSectionsById("VP1",
+                EnumSet.of(ViewProfileSection.DESCRIPTION)).orElseThrow();
+        partial.setDescription("Changed");
+
+        assertThatThrownBy(() -> viewProfileRepository.saveChanges(partial)).isInstanceOf(IllegalStateException.class);
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getViewProfileInfo().getOwnerInitials())
+                .isEqualTo("tst");
+    }
+}
@@ -0,0 +1,147 @@
+package de.hbt.pwr.view.repo;
+
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Validates the {@link WriteBehindViewProfileStore} against an embedded redis.
+ */
+public class WriteBehindViewProfileStoreTest {
+
+    private static final int TEST_REDIS_PORT = 24314;
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private BlobViewProfileStore blobStore;
+
+    private WriteBehindViewProfileStore writeBehindStore;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        redisServer = RedisServer.builder().port(TEST_REDIS_PORT).setting("maxmemory 128M").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", TEST_REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        meterRegistry = new SimpleMeterRegistry();
+        ViewProfileCodec codec = new ViewProfileCodec(new ViewProfileCompressor(1024, meterRegistry), meterRegistry);
+        blobStore = new BlobViewProfileStore(ViewProfileRepositoryCustomImpl.binaryTemplate(connectionFactory),
+                new StringRedisTemplate(connectionFactory), codec);
+        // Long window, flushes are triggered by the tests
+        writeBehindStore = new WriteBehindViewProfileStore(blobStore, Duration.ofHours(1), meterRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        writeBehindStore.close();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    private ViewProfile viewProfileOf(String id, String owner) {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId(id);
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials(owner).name(id).build());
+        return viewProfile;
+    }
+
+    @Test
+    public void shouldReadOwnWritesBeforeFlush() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        writeBehindStore.save(viewProfile);
+
+        assertThat(blobStore.findById("VP1")).isNotPresent();
+        assertThat(writeBehindStore.findById("VP1")).contains(viewProfile);
+        assertThat(writeBehindStore.existsById("VP1")).isTrue();
+        assertThat(writeBehindStore.findAllIds()).containsExactly("VP1");
+        assertThat(writeBehindStore.findOwner("VP1")).contains("tst");
+    }
+
+    @Test
+    public void shouldCoalesceSavesIntoOneWrite() {
+        ViewProfile viewProfile = viewProfileOf("VP1", "tst");
+        writeBehindStore.save(viewProfile);
+        writeBehindStore.flush();
+
+        ViewProfile loaded = writeBehindStore.findById("VP1").orElseThrow();
+        loaded.setDescription("First");
+        writeBehindStore.saveChanges(loaded);
+        loaded.setDescription("Second");
+        writeBehindStore.saveChanges(loaded);
+
+        assertThat(blobStore.findById("VP1").orElseThrow().getDescription()).isEmpty();
+        assertThat(meterRegistry.get("viewprofile.writebehind.coalesced").counter().count()).isEqualTo(1);
+        writeBehindStore.flush();
+        assertThat(blobStore.findById("VP1").orElseThrow().getDescription()).isEqualTo("Second");
+    }
+
+    @Test
+    public void shouldDropPendingWriteIfOtherNodeWroteMeanwhile() {
+        writeBehindStore.save(viewProfileOf("VP1", "tst"));
+        writeBehindStore.flush();
+        ViewProfile loaded = writeBehindStore.findById("VP1").orElseThrow();
+        loaded.setDescription("Buffered");
+        writeBehindStore.saveChanges(loaded);
+
+        ViewProfile otherNode = blobStore.findById("VP1").orElseThrow();
+        otherNode.setDescription("Other node");
+        blobStore.save(otherNode);
+        writeBehindStore.flush();
+
+        assertThat(blobStore.findById("VP1").orElseThrow().getDescription()).isEqualTo("Other node");
+        assertThat(writeBehindStore.findById("VP1").orElseThrow().getDescription()).isEqualTo("Other node");
+        assertThat(meterRegistry.get("viewprofile.writebehind.lost").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldFlushSavesMadeAfterPreviousFlush() {
+        writeBehindStore.save(viewProfileOf("VP1", "tst"));
+        writeBehindStore.flush();
+        ViewProfile loaded = writeBehindStore.findById("VP1").orElseThrow();
+        loaded.setDescription("First");
+        writeBehindStore.saveChanges(loaded);
+        writeBehindStore.flush();
+        loaded.setDescription("Second");
+        writeBehindStore.saveChanges(loaded);
+        writeBehindStore.flush();
+
+        ViewProfile stored = blobStore.findById("VP1").orElseThrow();
+        assertThat(stored.getDescription()).isEqualTo("Second");
+        assertThat(stored.getVersion()).isEqualTo(3L);
+        assertThat(meterRegistry.get("viewprofile.writebehind.lost").counter().count()).isZero();
+    }
+
+    @Test
+    public void shouldFlushOnClose() {
+        writeBehindStore.save(viewProfileOf("VP1", "tst"));
+
+        writeBehindStore.close();
+
+        assertThat(blobStore.findById("VP1")).isPresent();
+    }
+
+    @Test
+    public void shouldNotWriteDeletedViewProfile() {
+        writeBehindStore.save(viewProfileOf("VP1", "tst"));
+
+        writeBehindStore.deleteById("VP1");
+        writeBehindStore.flush();
+
+        assertThat(writeBehindStore.findById("VP1")).isNotPresent();
+        assertThat(blobStore.existsById("VP1")).isFalse();
+    }
+}
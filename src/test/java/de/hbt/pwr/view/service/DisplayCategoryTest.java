@@ -1,6 +1,7 @@
 package de.hbt.pwr.view.service;
 
 import de.hbt.pwr.view.client.skill.SkillServiceClient;
+import de.hbt.pwr.view.client.skill.SkillTree;
 import de.hbt.pwr.view.client.skill.model.SkillServiceCategory;
 import de.hbt.pwr.view.client.skill.model.SkillServiceSkill;
 import de.hbt.pwr.view.model.ViewProfile;
@@ -12,7 +13,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -51,7 +54,8 @@ public class DisplayCategoryTest {
 
     @Before
     public void setUp() {
-        viewProfileService = new ViewProfileOperationService(viewProfileRepository, skillServiceClient);
+        viewProfileService = new ViewProfileOperationService(viewProfileRepository,
+                new SkillTree("http://skill-service", new RestTemplate(), skillServiceClient, Duration.ZERO));
         makeViewProfile();
     }
 
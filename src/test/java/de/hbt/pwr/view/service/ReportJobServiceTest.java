@@ -0,0 +1,137 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.client.report.ReportServiceClient;
+import de.hbt.pwr.view.exception.ReportJobNotFoundException;
+import de.hbt.pwr.view.exception.ReportQueueFullException;
+import de.hbt.pwr.view.model.ReportJob;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import redis.embedded.RedisServer;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Validates the {@link ReportJobService} against an embedded redis.
+ */
+public class ReportJobServiceTest {
+
+    private static final int TEST_REDIS_PORT = 24317;
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private ReportServiceClient reportServiceClient;
+
+    private ReportJobService reportJobService;
+
+    @Before
+    public void setUp() {
+        redisServer = RedisServer.builder().port(TEST_REDIS_PORT).setting("maxmemory 128M").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", TEST_REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        reportServiceClient = mock(ReportServiceClient.class);
+        reportJobService = new ReportJobService(reportServiceClient, new StringRedisTemplate(connectionFactory),
+                1, 1, Duration.ofMinutes(5));
+    }
+
+    @After
+    public void tearDown() {
+        reportJobService.shutdown();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    private ViewProfile viewProfileOf(String id) {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId(id);
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials("tst").name(id).build());
+        return viewProfile;
+    }
+
+    private ReportJob awaitCompletion(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ReportJob job = reportJobService.getJob("tst", jobId);
+        while (job.getState() != ReportJob.State.DONE && job.getState() != ReportJob.State.FAILED
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = reportJobService.getJob("tst", jobId);
+        }
+        return job;
+    }
+
+    @Test
+    public void shouldGenerateReportInBackground() throws Exception {
+        given(reportServiceClient.generateReport(any(), anyString(), any()))
+                .willReturn(ResponseEntity.created(URI.create("http://files/report.docx")).build());
+
+        ReportJob job = reportJobService.submit("tst", viewProfileOf("VP1"), null);
+        ReportJob done = awaitCompletion(job.getId());
+
+        assertThat(job.getState()).isEqualTo(ReportJob.State.QUEUED);
+        assertThat(done.getState()).isEqualTo(ReportJob.State.DONE);
+        assertThat(done.getLocation()).isEqualTo("http://files/report.docx");
+        assertThat(done.getViewProfileId()).isEqualTo("VP1");
+    }
+
+    @Test
+    public void shouldRecordFailedReport() throws Exception {
+        given(reportServiceClient.generateReport(any(), anyString(), any()))
+                .willThrow(new ResourceAccessException("Report service unavailable"));
+
+        ReportJob job = reportJobService.submit("tst", viewProfileOf("VP1"), null);
+        ReportJob failed = awaitCompletion(job.getId());
+
+        assertThat(failed.getState()).isEqualTo(ReportJob.State.FAILED);
+        assertThat(failed.getError()).isEqualTo("Report service unavailable");
+    }
+
+    @Test
+    public void shouldNotRevealJobsOfOtherConsultants() {
+        given(reportServiceClient.generateReport(any(), anyString(), any())).willReturn(ResponseEntity.ok().build());
+
+        ReportJob job = reportJobService.submit("tst", viewProfileOf("VP1"), null);
+
+        assertThatThrownBy(() -> reportJobService.getJob("abc", job.getId()))
+                .isInstanceOf(ReportJobNotFoundException.class);
+        assertThatThrownBy(() -> reportJobService.getJob("tst", "unknown"))
+                .isInstanceOf(ReportJobNotFoundException.class);
+    }
+
+    @Test
+    public void shouldRejectJobsIfQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        given(reportServiceClient.generateReport(any(), anyString(), any())).willAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return ResponseEntity.ok().build();
+        });
+
+        reportJobService.submit("tst", viewProfileOf("VP1"), null);
+        started.await(10, TimeUnit.SECONDS);
+        reportJobService.submit("tst", viewProfileOf("VP2"), null);
+
+        assertThatThrownBy(() -> reportJobService.submit("tst", viewProfileOf("VP3"), null))
+                .isInstanceOf(ReportQueueFullException.class);
+        release.countDown();
+    }
+}
@@ -0,0 +1,150 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.exception.InvalidViewProfileOperationException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.ViewProfileOperation;
+import de.hbt.pwr.view.model.entries.Sector;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import redis.embedded.RedisServer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static de.hbt.pwr.view.model.ViewProfileOperation.Type.MOVE;
+import static de.hbt.pwr.view.model.ViewProfileOperation.Type.SET_DESCRIPTION;
+import static de.hbt.pwr.view.model.ViewProfileOperation.Type.SET_SKILL_VERSION_VISIBILITY;
+import static de.hbt.pwr.view.model.ViewProfileOperation.Type.SET_VISIBILITY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates that the {@link ViewProfileBatchService} saves all operations of a batch at once or none of them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"spring.redis.port = " + ViewProfileBatchServiceTest.TEST_REDIS_PORT_STRING})
+public class ViewProfileBatchServiceTest {
+
+    private static final Integer TEST_REDIS_PORT_INT = 24318;
+    static final String TEST_REDIS_PORT_STRING = "24318";
+
+    private static RedisServer redisServer;
+
+    @Autowired
+    private ViewProfileRepository viewProfileRepository;
+
+    @Autowired
+    private ViewProfileBatchService viewProfileBatchService;
+
+    private long initialVersion;
+
+    @BeforeClass
+    public static void setUpRedis() {
+        redisServer = RedisServer.builder()
+                .port(TEST_REDIS_PORT_INT)
+                .setting("maxmemory 128M")
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        redisServer.start();
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId("VP1");
+        viewProfile.setDescription("Initial");
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials("tst").name("VP1").build());
+        viewProfile.getSectors().add(new Sector("Sector 1", true));
+        viewProfile.getSectors().add(new Sector("Sector 2", true));
+        initialVersion = viewProfileRepository.save(viewProfile).getVersion();
+    }
+
+    @After
+    public void stopRedis() {
+        redisServer.stop();
+    }
+
+    private ViewProfile load() {
+        return viewProfileRepository.findById("VP1").orElseThrow();
+    }
+
+    private static ViewProfileOperation setVisibility(int index, boolean enabled) {
+        return ViewProfileOperation.builder().type(SET_VISIBILITY).entryType("SECTOR").index(index).enabled(enabled)
+                .build();
+    }
+
+    private static ViewProfileOperation move(int sourceIndex, int targetIndex) {
+        return ViewProfileOperation.builder().type(MOVE).entryType("SECTOR").sourceIndex(sourceIndex)
+                .targetIndex(targetIndex).build();
+    }
+
+    private static ViewProfileOperation setDescription(String description) {
+        return ViewProfileOperation.builder().type(SET_DESCRIPTION).description(description).build();
+    }
+
+    @Test
+    public void shouldApplyAllOperationsInOrderAndSaveOnce() {
+        List<ViewProfileOperation> operations = Arrays.asList(setVisibility(0, false), move(0, 1),
+                setDescription("Changed"));
+
+        ViewProfile result = viewProfileBatchService.apply(load(), operations);
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getSectors()).extracting(Sector::getName).containsExactly("Sector 2", "Sector 1");
+        assertThat(loaded.getSectors().get(1).getEnabled()).isFalse();
+        assertThat(loaded.getDescription()).isEqualTo("Changed");
+        assertThat(loaded.getVersion()).isEqualTo(initialVersion + 1);
+        assertThat(result).isEqualTo(loaded);
+    }
+
+    @Test
+    public void shouldSaveNothingIfAnOperationFails() {
+        List<ViewProfileOperation> operations = Arrays.asList(setDescription("Changed"), setVisibility(5, false));
+
+        assertThatThrownBy(() -> viewProfileBatchService.apply(load(), operations))
+                .isInstanceOf(InvalidViewProfileOperationException.class)
+                .hasFieldOrPropertyWithValue("operationIndex", 1);
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getDescription()).isEqualTo("Initial");
+        assertThat(loaded.getVersion()).isEqualTo(initialVersion);
+    }
+
+    @Test
+    public void shouldRejectUnknownEntryType() {
+        List<ViewProfileOperation> operations = Arrays.asList(ViewProfileOperation.builder().type(MOVE)
+                .entryType("UNKNOWN").sourceIndex(0).targetIndex(1).build());
+
+        assertThatThrownBy(() -> viewProfileBatchService.apply(load(), operations))
+                .isInstanceOf(InvalidViewProfileOperationException.class)
+                .hasFieldOrPropertyWithValue("operationIndex", 0);
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getVersion()).isEqualTo(initialVersion);
+    }
+
+    @Test
+    public void shouldRejectVersionOfUnknownSkill() {
+        List<ViewProfileOperation> operations = Arrays.asList(setDescription("Changed"),
+                ViewProfileOperation.builder().type(SET_SKILL_VERSION_VISIBILITY).skillName("Unknown")
+                        .versionName("1.0").enabled(false).build());
+
+        assertThatThrownBy(() -> viewProfileBatchService.apply(load(), operations))
+                .isInstanceOf(InvalidViewProfileOperationException.class)
+                .hasFieldOrPropertyWithValue("operationIndex", 1)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("No skill named Unknown");
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getDescription()).isEqualTo("Initial");
+        assertThat(loaded.getVersion()).isEqualTo(initialVersion);
+    }
+}
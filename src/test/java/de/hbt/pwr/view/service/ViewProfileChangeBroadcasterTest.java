@@ -0,0 +1,137 @@
+package de.hbt.pwr.view.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileChange;
+import de.hbt.pwr.view.model.ViewProfileSection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Validates the {@link ViewProfileChangeBroadcaster} against an embedded redis, with two broadcasters acting as two
+ * nodes.
+ */
+public class ViewProfileChangeBroadcasterTest {
+
+    private static final int TEST_REDIS_PORT = 24320;
+
+    private RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private ViewProfileChangeBroadcaster node1;
+
+    private ViewProfileChangeBroadcaster node2;
+
+    @Before
+    public void setUp() {
+        redisServer = RedisServer.builder().port(TEST_REDIS_PORT).setting("maxmemory 128M").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("localhost", TEST_REDIS_PORT);
+        connectionFactory.afterPropertiesSet();
+        node1 = new ViewProfileChangeBroadcaster(connectionFactory, new ObjectMapper(), Duration.ofMinutes(1));
+        node2 = new ViewProfileChangeBroadcaster(connectionFactory, new ObjectMapper(), Duration.ofMinutes(1));
+    }
+
+    @After
+    public void tearDown() {
+        node1.close();
+        node2.close();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    private ViewProfile writtenViewProfile(String id, long version, ViewProfileSection changed) {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId(id);
+        viewProfile.setVersion(version);
+        Map<ViewProfileSection, byte[]> persisted = new EnumMap<>(ViewProfileSection.class);
+        for (ViewProfileSection section : ViewProfileSection.values()) {
+            persisted.put(section, new byte[]{0});
+        }
+        viewProfile.markPersisted(persisted);
+        persisted.put(changed, new byte[]{1});
+        viewProfile.markPersisted(persisted);
+        return viewProfile;
+    }
+
+    @Test
+    public void shouldPushChangesSavedOnOtherNode() throws InterruptedException {
+        RecordingEmitter follower = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        node2.register("VP1", follower);
+        node2.register("VP2", other);
+        // Subscribing is asynchronous, publish until the subscription is in place
+        ViewProfileChange change = null;
+        for (int i = 0; i < 50 && change == null; i++) {
+            node1.publish(writtenViewProfile("VP1", 4, ViewProfileSection.PROJECTS), "setIsEnabled");
+            change = follower.changes.poll(100, TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(change).isEqualTo(new ViewProfileChange("VP1", "setIsEnabled", List.of("/projects"), 4L));
+        assertThat(other.changes).isEmpty();
+    }
+
+    @Test
+    public void shouldStopPushingToCompletedStream() throws InterruptedException {
+        RecordingEmitter follower = new RecordingEmitter();
+        RecordingEmitter remaining = new RecordingEmitter();
+        node1.register("VP1", follower);
+        node1.register("VP1", remaining);
+        ViewProfileChange change = null;
+        for (int i = 0; i < 50 && change == null; i++) {
+            node1.publish(writtenViewProfile("VP1", 4, ViewProfileSection.DESCRIPTION), "setDescription");
+            change = remaining.changes.poll(100, TimeUnit.MILLISECONDS);
+        }
+        follower.failing = true;
+        follower.changes.clear();
+        remaining.changes.clear();
+
+        node1.publish(writtenViewProfile("VP1", 5, ViewProfileSection.DESCRIPTION), "setDescription");
+        assertThat(remaining.changes.poll(5, TimeUnit.SECONDS)).extracting(ViewProfileChange::getVersion).isEqualTo(5L);
+        node1.publish(writtenViewProfile("VP1", 6, ViewProfileSection.DESCRIPTION), "setDescription");
+        assertThat(remaining.changes.poll(5, TimeUnit.SECONDS)).extracting(ViewProfileChange::getVersion).isEqualTo(6L);
+
+        assertThat(follower.attempts).isEqualTo(1);
+    }
+
+    /**
+     * Records the pushed changes instead of writing them to a response
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<ViewProfileChange> changes = new LinkedBlockingQueue<>();
+
+        private volatile boolean failing;
+
+        private volatile int attempts;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                attempts++;
+                throw new IOException("Client went away");
+            }
+            builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(ViewProfileChange.class::isInstance)
+                    .map(ViewProfileChange.class::cast)
+                    .forEach(changes::add);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package de.hbt.pwr.view.service;
 
 
+import de.hbt.pwr.view.client.RemoteCallExecutor;
 import de.hbt.pwr.view.client.profile.ProfileServiceClient;
 import de.hbt.pwr.view.client.profile.model.*;
 import de.hbt.pwr.view.client.skill.SkillServiceClient;
@@ -23,9 +24,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -83,7 +87,8 @@ public class ViewProfileImporterEntryTest {
         profileToReturn = new Profile();
         given(profileServiceClient.getSingleProfile(initials)).willReturn(profileToReturn);
         given(viewProfileRepository.save(any())).will(invocationOnMock -> invocationOnMock.getArgument(0));
-        viewProfileCreatorService = new ViewProfileCreatorService(profileServiceClient, skillServiceClient, viewProfileRepository, viewProfileSortService);
+        viewProfileCreatorService = new ViewProfileCreatorService(profileServiceClient, skillServiceClient, viewProfileRepository,
+                viewProfileSortService, new RemoteCallExecutor(2, Duration.ofSeconds(10)));
     }
 
     @After
@@ -424,4 +429,42 @@ public class ViewProfileImporterEntryTest {
         assertThat(viewProfile.getViewProfileInfo().getConsultantName()).isEqualTo(fullName.trim());
         assertThat(viewProfile.getViewProfileInfo().getConsultantBirthDate()).isEqualTo(birthDate);
     }
+
+    @Test
+    public void requestsProfileAndConsultantConcurrently() {
+        // Each call only returns once the other one started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ConsultantInfo consultantInfo = new ConsultantInfo();
+        consultantInfo.setFirstName("John");
+        consultantInfo.setLastName("Doe");
+        given(profileServiceClient.getSingleProfile(initials)).will(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return profileToReturn;
+        });
+        given(profileServiceClient.findByInitials(initials)).will(invocation -> {
+            bothStarted.countDown();
+            bothStarted.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(consultantInfo);
+        });
+
+        invokeImport();
+
+        assertThat(bothStarted.getCount()).isZero();
+        assertThat(viewProfile.getViewProfileInfo().getConsultantName()).isEqualTo("John Doe");
+    }
+
+    @Test
+    public void fallsBackWhenConsultantLookupMissesItsDeadline() {
+        viewProfileCreatorService = new ViewProfileCreatorService(profileServiceClient, skillServiceClient,
+                viewProfileRepository, viewProfileSortService, new RemoteCallExecutor(2, Duration.ofMillis(200)));
+        given(profileServiceClient.findByInitials(initials)).will(invocation -> {
+            Thread.sleep(2000);
+            return ResponseEntity.ok(new ConsultantInfo());
+        });
+
+        invokeImport();
+
+        assertThat(viewProfile.getViewProfileInfo().getConsultantName()).isEqualTo("ERROR COULD NOT RESOLVE NAME");
+    }
 }
@@ -1,5 +1,6 @@
 package de.hbt.pwr.view.service;
 
+import de.hbt.pwr.view.client.RemoteCallExecutor;
 import de.hbt.pwr.view.client.profile.ProfileServiceClient;
 import de.hbt.pwr.view.client.profile.model.Profile;
 import de.hbt.pwr.view.client.profile.model.ProfileSkill;
@@ -18,10 +19,8 @@ import org.junit.runner.RunWith;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.time.Duration;
+import java.util.*;
 
 import static junit.framework.TestCase.fail;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -74,7 +73,14 @@ public class ViewProfileImporterSkillTest {
     public void setUp() {
         profile = new Profile();
         given(profileServiceClient.getSingleProfile(initials)).willReturn(profile);
-        viewProfileCreatorService = new ViewProfileCreatorService(profileServiceClient, skillServiceClient, viewProfileRepository, viewProfileSortService);
+        given(skillServiceClient.getSkillsByName(any())).willAnswer(invocation -> {
+            Map<String, SkillServiceSkill> skills = new HashMap<>();
+            Collection<String> names = invocation.getArgument(0);
+            names.forEach(name -> skills.put(name, skillServiceClient.getSkillByName(name)));
+            return skills;
+        });
+        viewProfileCreatorService = new ViewProfileCreatorService(profileServiceClient, skillServiceClient, viewProfileRepository,
+                viewProfileSortService, new RemoteCallExecutor(2, Duration.ofSeconds(10)));
     }
 
     @After
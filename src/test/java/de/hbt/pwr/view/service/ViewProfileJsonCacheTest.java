@@ -0,0 +1,78 @@
+package de.hbt.pwr.view.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.repo.ViewProfileWrittenEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ViewProfileJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ViewProfileJsonCache cacheOf(long maxBytes) {
+        return new ViewProfileJsonCache(objectMapper, new SimpleMeterRegistry(), maxBytes, true);
+    }
+
+    private ViewProfile viewProfileOf(String id, long version) {
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId(id);
+        viewProfile.setVersion(version);
+        viewProfile.setDescription("Description of " + id);
+        return viewProfile;
+    }
+
+    @Test
+    public void shouldOnlyServeCachedVersion() throws IOException {
+        ViewProfileJsonCache cache = cacheOf(1 << 20);
+        byte[] json = cache.put(viewProfileOf("VP1", 3), false);
+
+        assertThat(cache.get("VP1", 3, false)).isSameAs(json);
+        assertThat(cache.get("VP1", 4, false)).isNull();
+        assertThat(objectMapper.readValue(json, ViewProfile.class).getDescription()).isEqualTo("Description of VP1");
+    }
+
+    @Test
+    public void shouldServeGzipCompressedJson() throws IOException {
+        ViewProfileJsonCache cache = cacheOf(1 << 20);
+        byte[] json = cache.put(viewProfileOf("VP1", 3), false);
+
+        byte[] compressed = cache.get("VP1", 3, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(in.readAllBytes()).isEqualTo(json);
+        }
+        assertThat(cache.get("VP1", 3, true)).isSameAs(compressed);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedBeyondMaxBytes() {
+        int size = cacheOf(1 << 20).put(viewProfileOf("VP1", 1), false).length;
+        ViewProfileJsonCache cache = cacheOf(size * 2 + 1);
+        cache.put(viewProfileOf("VP1", 1), false);
+        cache.put(viewProfileOf("VP2", 1), false);
+        cache.get("VP1", 1, false);
+
+        cache.put(viewProfileOf("VP3", 1), false);
+
+        assertThat(cache.get("VP1", 1, false)).isNotNull();
+        assertThat(cache.get("VP2", 1, false)).isNull();
+        assertThat(cache.get("VP3", 1, false)).isNotNull();
+    }
+
+    @Test
+    public void shouldDropEntryWhenWritten() {
+        ViewProfileJsonCache cache = cacheOf(1 << 20);
+        cache.put(viewProfileOf("VP1", 1), false);
+
+        cache.onWritten(new ViewProfileWrittenEvent("VP1", 2L));
+
+        assertThat(cache.get("VP1", 1, false)).isNull();
+    }
+}
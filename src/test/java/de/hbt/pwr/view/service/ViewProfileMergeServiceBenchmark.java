@@ -0,0 +1,143 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.model.LanguageLevel;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.entries.Language;
+import de.hbt.pwr.view.model.entries.Project;
+import de.hbt.pwr.view.model.entries.ProjectRole;
+import de.hbt.pwr.view.model.skill.Category;
+import de.hbt.pwr.view.model.skill.Skill;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures how {@link ViewProfileMergeService#mergeViewProfiles} scales with the size of the view profiles.
+ * <p>
+ *     Not run with the unit tests. Run it with <code>mvn test -Dtest=ViewProfileMergeServiceBenchmark</code>.
+ *     Merges view profiles with 100 to 800 projects, each with 10 skills, and 50 display skills per project
+ *     in categories of 25. A linear merge takes about the same time per project at every size, a quadratic one
+ *     eight times as long per project at 800 projects as at 100.
+ * </p>
+ */
+@Slf4j
+public class ViewProfileMergeServiceBenchmark {
+
+    private static final int[] SIZES = {100, 200, 400, 800};
+
+    /**
+     * How much longer a merge may take per project at the largest size than at the fastest one
+     */
+    private static final double MAX_SLOWDOWN_PER_PROJECT = 2;
+
+    private static final int RUNS = 7;
+
+    private ViewProfileMergeService viewProfileMergeService;
+
+    private ViewProfile.ViewProfileMergeOptions options;
+
+    @Before
+    public void setUp() {
+        ViewProfileRepository viewProfileRepository = mock(ViewProfileRepository.class);
+        when(viewProfileRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        viewProfileMergeService = new ViewProfileMergeService(viewProfileRepository, null, null);
+        options = new ViewProfile.ViewProfileMergeOptions();
+        options.name = "benchmark";
+        options.viewDescription = "benchmark";
+        options.keepOld = true;
+    }
+
+    /**
+     * @param seed order of the entries, so old and new view profile list them differently
+     */
+    private static ViewProfile viewProfileOf(int projects, long seed) {
+        Random random = new Random(seed);
+        ViewProfile viewProfile = new ViewProfile();
+        List<Project> projectList = new ArrayList<>();
+        for (int p = 0; p < projects; p++) {
+            List<ProjectRole> roles = new ArrayList<>();
+            for (int r = 0; r < 5; r++) {
+                roles.add(new ProjectRole("Role " + r + " of " + p, random.nextBoolean()));
+            }
+            List<Skill> skills = new ArrayList<>();
+            for (int s = 0; s < 10; s++) {
+                skills.add(new Skill((long) (p * 10 + s), "Skill " + s + " of " + p, 3, random.nextBoolean(), null));
+            }
+            Collections.shuffle(roles, random);
+            Collections.shuffle(skills, random);
+            projectList.add(new Project((long) p, "Project " + p, "", "", "", LocalDate.of(2000, 1, 1),
+                    LocalDate.of(2001, 1, 1), roles, skills, random.nextBoolean()));
+        }
+        Collections.shuffle(projectList, random);
+        viewProfile.setProjects(projectList);
+
+        List<Skill> displaySkills = new ArrayList<>();
+        for (int s = 0; s < projects * 50; s++) {
+            displaySkills.add(new Skill("Display skill " + s));
+        }
+        Collections.shuffle(displaySkills, random);
+        List<Category> categories = new ArrayList<>();
+        for (int c = 0; c < displaySkills.size() / 25; c++) {
+            Category category = new Category((long) c, "Category " + c, true, true);
+            category.setDisplaySkills(new ArrayList<>(displaySkills.subList(c * 25, c * 25 + 25)));
+            categories.add(category);
+        }
+        viewProfile.setDisplayCategories(categories);
+
+        List<Language> languages = new ArrayList<>();
+        for (int l = 0; l < projects; l++) {
+            languages.add(new Language("Language " + l, LanguageLevel.ADVANCED, random.nextBoolean()));
+        }
+        Collections.shuffle(languages, random);
+        viewProfile.setLanguages(languages);
+        return viewProfile;
+    }
+
+    /**
+     * @return median duration of a merge per project in nanoseconds
+     */
+    private double measure(int projects) {
+        long[] durations = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            ViewProfile oldView = viewProfileOf(projects, 1);
+            ViewProfile newView = viewProfileOf(projects, 2);
+            // Collect the garbage of building the view profiles before, not during the merge
+            System.gc();
+            long start = System.nanoTime();
+            viewProfileMergeService.mergeViewProfiles(oldView, newView, options);
+            durations[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        return (double) durations[RUNS / 2] / projects;
+    }
+
+    @Test
+    public void mergeShouldScaleLinearly() {
+        // Warm up
+        for (int projects : SIZES) {
+            measure(projects);
+        }
+
+        double fastest = Double.MAX_VALUE;
+        double largest = 0;
+        for (int projects : SIZES) {
+            largest = measure(projects);
+            fastest = Math.min(fastest, largest);
+            log.info(String.format("Merge of %d projects: %.0f ns per project", projects, largest));
+        }
+        assertThat(largest / fastest).isLessThan(MAX_SLOWDOWN_PER_PROJECT);
+    }
+}
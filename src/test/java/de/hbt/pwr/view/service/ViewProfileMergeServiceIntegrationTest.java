@@ -0,0 +1,96 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.client.profile.ProfileServiceClient;
+import de.hbt.pwr.view.client.profile.model.NameEntity;
+import de.hbt.pwr.view.client.profile.model.Profile;
+import de.hbt.pwr.view.client.profile.model.ProfileEntry;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.entries.Sector;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import redis.embedded.RedisServer;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Validates that rebuilding a view profile with the {@link ViewProfileMergeService} stores nothing but the merged
+ * view profile, with the auto saving services that sort the rebuilt view profile in place.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"spring.redis.port = " + ViewProfileMergeServiceIntegrationTest.TEST_REDIS_PORT_STRING})
+public class ViewProfileMergeServiceIntegrationTest {
+
+    private static final Integer TEST_REDIS_PORT_INT = 24321;
+    static final String TEST_REDIS_PORT_STRING = "24321";
+
+    private static RedisServer redisServer;
+
+    @Autowired
+    private ViewProfileRepository viewProfileRepository;
+
+    @Autowired
+    private ViewProfileMergeService viewProfileMergeService;
+
+    @MockBean
+    private ProfileServiceClient profileServiceClient;
+
+    @BeforeClass
+    public static void setUpRedis() {
+        redisServer = RedisServer.builder()
+                .port(TEST_REDIS_PORT_INT)
+                .setting("maxmemory 128M")
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        redisServer.start();
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId("VP1");
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials("tst").name("VP1")
+                .baseProfileETag("\"1\"").build());
+        viewProfile.getSectors().add(new Sector("Sector B", false));
+        viewProfileRepository.save(viewProfile);
+    }
+
+    @After
+    public void stopRedis() {
+        redisServer.stop();
+    }
+
+    @Test
+    public void shouldReplaceMergedViewProfileWithoutStoringCopies() {
+        Profile profile = new Profile();
+        profile.setETag("\"2\"");
+        profile.getSectors().add(new ProfileEntry(1L, NameEntity.builder().id(1L).name("Sector B").build()));
+        profile.getSectors().add(new ProfileEntry(2L, NameEntity.builder().id(2L).name("Sector A").build()));
+        given(profileServiceClient.getSingleProfileIfChanged("tst", "\"1\"", null)).willReturn(Optional.of(profile));
+        ViewProfile.ViewProfileMergeOptions options = new ViewProfile.ViewProfileMergeOptions();
+        options.name = "Merged";
+        options.keepOld = false;
+
+        viewProfileMergeService.updateViewProfile("VP1", "tst", options);
+
+        assertThat(viewProfileRepository.findIdsByOwnerInitials("tst")).containsExactly("VP1");
+        assertThat(viewProfileRepository.count()).isEqualTo(1);
+        ViewProfile merged = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(merged.getViewProfileInfo().getName()).isEqualTo("Merged");
+        assertThat(merged.getSectors()).extracting(Sector::getName).containsExactly("Sector A", "Sector B");
+    }
+}
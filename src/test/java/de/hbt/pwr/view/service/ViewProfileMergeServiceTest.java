@@ -1,6 +1,8 @@
 package de.hbt.pwr.view.service;
 
 import de.hbt.pwr.fixture.ViewProfileFixtures;
+import de.hbt.pwr.view.client.profile.ProfileServiceClient;
+import de.hbt.pwr.view.client.profile.model.Profile;
 import de.hbt.pwr.view.model.LanguageLevel;
 import de.hbt.pwr.view.model.ViewProfile;
 import de.hbt.pwr.view.model.entries.Career;
@@ -16,10 +18,14 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @Slf4j
@@ -31,6 +37,9 @@ public class ViewProfileMergeServiceTest {
     private Project p1;
     private Project p2;
     private ViewProfile.ViewProfileMergeOptions options;
+    private ProfileServiceClient profileServiceClient;
+    private ViewProfileCreatorService viewProfileCreatorService;
+    private ViewProfileRepository viewProfileRepository;
 
     private ViewProfile makeViewProfile() {
         ViewProfile view = new ViewProfile();
@@ -70,7 +79,7 @@ public class ViewProfileMergeServiceTest {
         options.keepOld = true;
         ViewProfileRepository viewProfileRepository = mock(ViewProfileRepository.class);
         when(viewProfileRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
-        viewProfileMergeService = new ViewProfileMergeService(viewProfileRepository, null);
+        viewProfileMergeService = new ViewProfileMergeService(viewProfileRepository, null, null);
     }
 
     @Test
@@ -169,4 +178,72 @@ public class ViewProfileMergeServiceTest {
         assertThat(updatedProject.getName()).isEqualTo(newProject.getName());
         assertThat(updatedProject.getEnabled()).isFalse(); // The old project was disabled, so this is, too
     }
+
+    private ViewProfileMergeService mergeServiceWithBaseProfile(Optional<Profile> baseProfile) {
+        oldView.setId("VP1");
+        oldView.getViewProfileInfo().setBaseProfileETag("\"1\"");
+        viewProfileRepository = mock(ViewProfileRepository.class);
+        when(viewProfileRepository.findById("VP1")).thenReturn(Optional.of(oldView));
+        when(viewProfileRepository.save(any())).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        profileServiceClient = mock(ProfileServiceClient.class);
+        when(profileServiceClient.getSingleProfileIfChanged("tst", "\"1\"", null)).thenReturn(baseProfile);
+        viewProfileCreatorService = mock(ViewProfileCreatorService.class);
+        return new ViewProfileMergeService(viewProfileRepository, viewProfileCreatorService, profileServiceClient);
+    }
+
+    @Test
+    public void shouldSkipRebuildIfBaseProfileIsNotModified() {
+        options.keepOld = false;
+        ViewProfileMergeService mergeService = mergeServiceWithBaseProfile(Optional.empty());
+
+        ViewProfile updated = mergeService.updateViewProfile("VP1", "tst", options);
+
+        verifyNoInteractions(viewProfileCreatorService);
+        assertThat(updated).isSameAs(oldView);
+        assertThat(updated.getViewProfileInfo().getName()).isEqualTo("test");
+        assertThat(updated.getLanguages()).containsExactly(l1, l2);
+    }
+
+    @Test
+    public void shouldSkipRebuildIfBaseProfileHasSameETag() {
+        options.keepOld = false;
+        Profile profile = new Profile();
+        profile.setETag("\"1\"");
+        ViewProfileMergeService mergeService = mergeServiceWithBaseProfile(Optional.of(profile));
+
+        mergeService.updateViewProfile("VP1", "tst", options);
+
+        verifyNoInteractions(viewProfileCreatorService);
+    }
+
+    @Test
+    public void shouldRebuildFromChangedBaseProfile() {
+        Profile profile = new Profile();
+        profile.setETag("\"2\"");
+        ViewProfileMergeService mergeService = mergeServiceWithBaseProfile(Optional.of(profile));
+        when(viewProfileCreatorService.buildViewProfile(profile, "tst", "test", "test description", ""))
+                .thenReturn(new ViewProfile());
+
+        mergeService.updateViewProfile("VP1", "tst", options);
+
+        verify(viewProfileCreatorService).buildViewProfile(profile, "tst", "test", "test description", "");
+    }
+
+    @Test
+    public void shouldReplaceOldViewProfileWithSingleWrite() {
+        options.keepOld = false;
+        oldView.setVersion(4L);
+        Profile profile = new Profile();
+        profile.setETag("\"2\"");
+        ViewProfileMergeService mergeService = mergeServiceWithBaseProfile(Optional.of(profile));
+        when(viewProfileCreatorService.buildViewProfile(profile, "tst", "test", "test description", ""))
+                .thenReturn(new ViewProfile());
+
+        ViewProfile merged = mergeService.updateViewProfile("VP1", "tst", options);
+
+        assertThat(merged.getId()).isEqualTo("VP1");
+        assertThat(merged.getVersion()).isEqualTo(4L);
+        verify(viewProfileRepository).save(merged);
+        verify(viewProfileRepository, never()).delete(any());
+    }
 }
@@ -0,0 +1,102 @@
+package de.hbt.pwr.view.service;
+
+import de.hbt.pwr.view.model.MigrationProgress;
+import de.hbt.pwr.view.repo.ViewProfileIdPage;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Validates that the {@link ViewProfileMigrationService} can be started again after redis failed.
+ */
+public class ViewProfileMigrationServiceTest {
+
+    private ViewProfileRepository viewProfileRepository;
+
+    private HashOperations<String, Object, Object> hashOperations;
+
+    private ViewProfileMigrationService viewProfileMigrationService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        viewProfileRepository = mock(ViewProfileRepository.class);
+        given(viewProfileRepository.scanForMigration(anyString(), anyInt()))
+                .willReturn(new ViewProfileIdPage(ViewProfileIdPage.START_CURSOR, new ArrayList<>()));
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        given(redisTemplate.opsForValue()).willReturn(valueOperations);
+        given(valueOperations.setIfAbsent(eq(ViewProfileMigrationService.LOCK_KEY), anyString(), any(Duration.class)))
+                .willReturn(true);
+        // Renews and releases the lock
+        given(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).willReturn(1L);
+        given(redisTemplate.execute(any(RedisScript.class), anyList(), any())).willReturn(1L);
+        hashOperations = mock(HashOperations.class);
+        given(redisTemplate.opsForHash()).willReturn(hashOperations);
+        given(hashOperations.entries(ViewProfileMigrationService.CHECKPOINT_KEY)).willReturn(Map.of());
+        viewProfileMigrationService = new ViewProfileMigrationService(viewProfileRepository, redisTemplate, 10, 1,
+                Duration.ofMinutes(1));
+    }
+
+    @After
+    public void tearDown() {
+        viewProfileMigrationService.shutdown();
+    }
+
+    @Test
+    public void shouldStartAgainIfFirstCheckpointCouldNotBeStored() {
+        willThrow(new RedisConnectionFailureException("Redis is down"))
+                .willDoNothing()
+                .given(hashOperations).putAll(eq(ViewProfileMigrationService.CHECKPOINT_KEY), anyMap());
+
+        assertThatThrownBy(() -> viewProfileMigrationService.start())
+                .isInstanceOf(RedisConnectionFailureException.class);
+
+        assertThat(viewProfileMigrationService.start().getState()).isEqualTo(MigrationProgress.State.RUNNING);
+        verify(viewProfileRepository, timeout(1000)).scanForMigration(ViewProfileIdPage.START_CURSOR, 10);
+    }
+
+    @Test
+    public void shouldStartAgainIfLastCheckpointCouldNotBeStored() throws InterruptedException {
+        // The first checkpoint and the one of the only round are stored, the final one fails
+        willDoNothing().willDoNothing()
+                .willThrow(new RedisConnectionFailureException("Redis is down"))
+                .willDoNothing()
+                .given(hashOperations).putAll(eq(ViewProfileMigrationService.CHECKPOINT_KEY), anyMap());
+
+        viewProfileMigrationService.start();
+        verify(hashOperations, timeout(1000).times(3)).putAll(eq(ViewProfileMigrationService.CHECKPOINT_KEY), anyMap());
+
+        MigrationProgress progress = null;
+        for (int i = 0; i < 20 && (progress == null || progress.getState() != MigrationProgress.State.RUNNING); i++) {
+            Thread.sleep(50);
+            progress = viewProfileMigrationService.start();
+        }
+        assertThat(progress.getState()).isEqualTo(MigrationProgress.State.RUNNING);
+    }
+}
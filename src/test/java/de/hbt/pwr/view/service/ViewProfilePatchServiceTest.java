@@ -0,0 +1,173 @@
+package de.hbt.pwr.view.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.hbt.pwr.view.exception.InvalidViewProfilePatchException;
+import de.hbt.pwr.view.model.ViewProfile;
+import de.hbt.pwr.view.model.ViewProfileInfo;
+import de.hbt.pwr.view.model.entries.Sector;
+import de.hbt.pwr.view.model.skill.Category;
+import de.hbt.pwr.view.model.skill.Skill;
+import de.hbt.pwr.view.repo.ViewProfileRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates that the {@link ViewProfilePatchService} applies JSON Patches to the stored view profile at once or not
+ * at all.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringJUnit4ClassRunner.class)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {"spring.redis.port = " + ViewProfilePatchServiceTest.TEST_REDIS_PORT_STRING})
+public class ViewProfilePatchServiceTest {
+
+    private static final Integer TEST_REDIS_PORT_INT = 24319;
+    static final String TEST_REDIS_PORT_STRING = "24319";
+
+    private static RedisServer redisServer;
+
+    @Autowired
+    private ViewProfileRepository viewProfileRepository;
+
+    @Autowired
+    private ViewProfilePatchService viewProfilePatchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long initialVersion;
+
+    @BeforeClass
+    public static void setUpRedis() {
+        redisServer = RedisServer.builder()
+                .port(TEST_REDIS_PORT_INT)
+                .setting("maxmemory 128M")
+                .build();
+    }
+
+    @Before
+    public void setUp() {
+        redisServer.start();
+        ViewProfile viewProfile = new ViewProfile();
+        viewProfile.setId("VP1");
+        viewProfile.setDescription("Initial");
+        viewProfile.setViewProfileInfo(ViewProfileInfo.builder().ownerInitials("tst").name("VP1").build());
+        viewProfile.getSectors().add(new Sector("Sector 1", true));
+        viewProfile.getSectors().add(new Sector("Sector 2", true));
+        Category category = new Category(1L, "Languages", true, true);
+        // Adds the skills to the category
+        new Skill(1L, "Java", 5, true, category);
+        new Skill(2L, "Kotlin", 3, true, category);
+        viewProfile.getDisplayCategories().add(category);
+        initialVersion = viewProfileRepository.save(viewProfile).getVersion();
+    }
+
+    @After
+    public void stopRedis() {
+        redisServer.stop();
+    }
+
+    private ViewProfile load() {
+        return viewProfileRepository.findById("VP1").orElseThrow();
+    }
+
+    private JsonNode patchOf(String patch) throws IOException {
+        return objectMapper.readTree(patch.replace('\'', '"'));
+    }
+
+    @Test
+    public void shouldApplyPatchAndSaveOnce() throws Exception {
+        JsonNode patch = patchOf("[" +
+                "{'op': 'replace', 'path': '/sectors/0/enabled', 'value': false}," +
+                "{'op': 'move', 'from': '/sectors/0', 'path': '/sectors/1'}," +
+                "{'op': 'replace', 'path': '/displayCategories/0/displaySkills/1/enabled', 'value': false}," +
+                "{'op': 'replace', 'path': '/description', 'value': 'Changed'}]");
+
+        ViewProfile result = viewProfilePatchService.patch(load(), patch);
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getSectors()).extracting(Sector::getName).containsExactly("Sector 2", "Sector 1");
+        assertThat(loaded.getSectors().get(1).getEnabled()).isFalse();
+        assertThat(loaded.findSkillByName("Kotlin").orElseThrow().getEnabled()).isFalse();
+        assertThat(loaded.getDescription()).isEqualTo("Changed");
+        assertThat(loaded.getVersion()).isEqualTo(initialVersion + 1);
+        assertThat(result).isEqualTo(loaded);
+    }
+
+    @Test
+    public void shouldKeepBackReferencesOfPatchedSkills() throws Exception {
+        JsonNode patch = patchOf("[{'op': 'add', 'path': '/displayCategories/0/displaySkills/-', " +
+                "'value': {'id': 3, 'name': 'Scala', 'rating': 2, 'enabled': true, 'versions': []}}]");
+
+        ViewProfile result = viewProfilePatchService.patch(load(), patch);
+
+        Category category = result.getDisplayCategories().get(0);
+        assertThat(category.getDisplaySkills()).extracting(Skill::getName).containsExactly("Java", "Kotlin", "Scala");
+        assertThat(category.getDisplaySkills()).allSatisfy(skill -> assertThat(skill.getDisplayCategory()).isSameAs(category));
+    }
+
+    @Test
+    public void shouldSaveNothingIfAnOperationFails() throws Exception {
+        JsonNode patch = patchOf("[" +
+                "{'op': 'replace', 'path': '/description', 'value': 'Changed'}," +
+                "{'op': 'test', 'path': '/sectors/0/name', 'value': 'Sector 2'}]");
+
+        assertThatThrownBy(() -> viewProfilePatchService.patch(load(), patch))
+                .isInstanceOf(InvalidViewProfilePatchException.class)
+                .hasFieldOrPropertyWithValue("operationIndex", 1);
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getDescription()).isEqualTo("Initial");
+        assertThat(loaded.getVersion()).isEqualTo(initialVersion);
+    }
+
+    @Test
+    public void shouldRejectRemovalOfWholeSection() throws Exception {
+        JsonNode patch = patchOf("[" +
+                "{'op': 'replace', 'path': '/description', 'value': 'Changed'}," +
+                "{'op': 'remove', 'path': '/projects'}]");
+
+        assertThatThrownBy(() -> viewProfilePatchService.patch(load(), patch))
+                .isInstanceOf(InvalidViewProfilePatchException.class)
+                .hasFieldOrPropertyWithValue("operationIndex", 1);
+
+        ViewProfile loaded = viewProfileRepository.findById("VP1").orElseThrow();
+        assertThat(loaded.getProjects()).isNotNull();
+        assertThat(loaded.getVersion()).isEqualTo(initialVersion);
+    }
+
+    @Test
+    public void shouldRejectReplacingWholeSectionWithNull() throws Exception {
+        JsonNode patch = patchOf("[{'op': 'replace', 'path': '/displayCategories', 'value': null}]");
+
+        assertThatThrownBy(() -> viewProfilePatchService.patch(load(), patch))
+                .isInstanceOf(InvalidViewProfilePatchException.class)
+                .hasFieldOrPropertyWithValue("operationIndex", 0);
+
+        assertThat(viewProfileRepository.findById("VP1").orElseThrow().getDisplayCategories()).isNotEmpty();
+    }
+
+    @Test
+    public void shouldRejectPathOutsideOfSections() throws Exception {
+        JsonNode patch = patchOf("[{'op': 'replace', 'path': '/id', 'value': 'VP2'}]");
+
+        assertThatThrownBy(() -> viewProfilePatchService.patch(load(), patch))
+                .isInstanceOf(InvalidViewProfilePatchException.class);
+        assertThat(viewProfileRepository.findById("VP1")).isPresent();
+    }
+}
@@ -1,6 +1,7 @@
 package de.hbt.pwr.view.service;
 
 import de.hbt.pwr.view.client.skill.SkillServiceClient;
+import de.hbt.pwr.view.client.skill.SkillTree;
 import de.hbt.pwr.view.exception.CategoryNotFoundException;
 import de.hbt.pwr.view.exception.CategoryNotUniqueException;
 import de.hbt.pwr.view.exception.InvalidOwnerException;
@@ -16,7 +17,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -58,9 +61,12 @@ public class ViewProfileServiceTest {
     @Before
     public void setUp() {
         given(viewProfileRepository.findAll()).willReturn(PwrListUtil.union(testViewProfileListOfTestUser, testViewProfilesOfOtherUser));
+        given(viewProfileRepository.findIdsByOwnerInitials(testUserInitials))
+                .willReturn(testViewProfileListOfTestUser.stream().map(ViewProfile::getId).collect(Collectors.toList()));
         testViewProfileListOfTestUser.forEach(viewProfile -> given(viewProfileRepository.findById(viewProfile.getId())).willReturn(of(viewProfile)));
         testViewProfilesOfOtherUser.forEach(viewProfile -> given(viewProfileRepository.findById(viewProfile.getId())).willReturn(of(viewProfile)));
-        viewProfileService = new ViewProfileOperationService(viewProfileRepository, skillServiceClient);
+        viewProfileService = new ViewProfileOperationService(viewProfileRepository,
+                new SkillTree("http://skill-service", new RestTemplate(), skillServiceClient, Duration.ZERO));
     }
 
     @Test
@@ -1,6 +1,7 @@
 package de.hbt.pwr.view.service;
 
 import de.hbt.pwr.view.client.skill.SkillServiceClient;
+import de.hbt.pwr.view.client.skill.SkillTree;
 import de.hbt.pwr.view.model.ProfileEntryType;
 import de.hbt.pwr.view.model.ViewProfile;
 import de.hbt.pwr.view.model.entries.*;
@@ -13,7 +14,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,7 +48,8 @@ public class ViewProfileVisibilityTests {
     @Before
     public void setUp() {
         profileToTest = new ViewProfile();
-        viewProfileService = new ViewProfileOperationService(viewProfileRepository, skillServiceClient);
+        viewProfileService = new ViewProfileOperationService(viewProfileRepository,
+                new SkillTree("http://skill-service", new RestTemplate(), skillServiceClient, Duration.ZERO));
     }
 
     private void addEntry(ProfileEntryType profileEntryType, boolean enabled) {
@@ -0,0 +1,84 @@
+package de.hbt.pwr.view.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validates the JSON Patch operations of the {@link JsonPatchUtil} against the examples of RFC 6902.
+ */
+public class JsonPatchUtilTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ObjectNode document;
+
+    @Before
+    public void setUp() throws Exception {
+        document = (ObjectNode) objectMapper.readTree("{\"foo\": [\"bar\", \"baz\"], \"qux\": {\"a/b\": 1}}");
+    }
+
+    private void apply(String operation) throws Exception {
+        JsonPatchUtil.apply(document, objectMapper.readTree(operation.replace('\'', '"')));
+    }
+
+    private JsonNode json(String json) throws Exception {
+        return objectMapper.readTree(json.replace('\'', '"'));
+    }
+
+    @Test
+    public void shouldAddToObjectAndInsertIntoArray() throws Exception {
+        apply("{'op': 'add', 'path': '/qux/c', 'value': true}");
+        apply("{'op': 'add', 'path': '/foo/1', 'value': 'qux'}");
+        apply("{'op': 'add', 'path': '/foo/-', 'value': 'end'}");
+
+        assertThat(document).isEqualTo(json("{'foo': ['bar', 'qux', 'baz', 'end'], 'qux': {'a/b': 1, 'c': true}}"));
+    }
+
+    @Test
+    public void shouldRemoveAndReplace() throws Exception {
+        apply("{'op': 'remove', 'path': '/foo/0'}");
+        apply("{'op': 'replace', 'path': '/qux/a~1b', 'value': 2}");
+
+        assertThat(document).isEqualTo(json("{'foo': ['baz'], 'qux': {'a/b': 2}}"));
+    }
+
+    @Test
+    public void shouldMoveAndCopy() throws Exception {
+        apply("{'op': 'move', 'from': '/foo/0', 'path': '/foo/1'}");
+        apply("{'op': 'copy', 'from': '/foo', 'path': '/qux/copy'}");
+
+        assertThat(document).isEqualTo(json("{'foo': ['baz', 'bar'], 'qux': {'a/b': 1, 'copy': ['baz', 'bar']}}"));
+    }
+
+    @Test
+    public void shouldPassAndFailTests() throws Exception {
+        apply("{'op': 'test', 'path': '/foo/1', 'value': 'baz'}");
+
+        assertThatThrownBy(() -> apply("{'op': 'test', 'path': '/foo/1', 'value': 'bar'}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldRejectMissingLocations() {
+        assertThatThrownBy(() -> apply("{'op': 'replace', 'path': '/missing', 'value': 1}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> apply("{'op': 'add', 'path': '/foo/3', 'value': 1}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> apply("{'op': 'remove', 'path': '/foo/-'}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> apply("{'op': 'add', 'path': '/missing/a', 'value': 1}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldRejectMovingIntoChild() {
+        assertThatThrownBy(() -> apply("{'op': 'move', 'from': '/qux', 'path': '/qux/child'}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}